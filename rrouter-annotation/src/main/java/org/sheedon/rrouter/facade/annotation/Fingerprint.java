@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.facade.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation for request card class, generate a 64-bit fingerprint and field-wise equality
+ * named "CardClassName$$Fingerprint". Static and transient fields are excluded,
+ * private fields are read by their getter.
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 11:20 下午
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.SOURCE)
+public @interface Fingerprint {
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.benchmarks;
+
+import kotlin.coroutines.Continuation;
+import kotlinx.coroutines.CoroutineScope;
+import kotlinx.coroutines.CoroutineScopeKt;
+import kotlinx.coroutines.SupervisorKt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sheedon.rrouter.core.Request;
+import org.sheedon.rrouter.core.StrategyCallback;
+import org.sheedon.rrouter.loom.VirtualThreads;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 阻塞式请求的执行耗时（ms），同时发起 inFlight 个请求，每个请求阻塞 blockMillis 后反馈，
+ * 度量全部请求反馈完成的耗时
+ * 1. loom：rrouter-loom，JDK 21+ 为虚拟线程，低版本为平台线程的缓存线程池
+ * 2. coroutine：rrouter-coroutine，阻塞代码运行在 Dispatchers.IO（默认 64 线程）
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 2:00 上午
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class BlockingRequestBenchmark {
+
+    @Param({"loom", "coroutine"})
+    public String implementation;
+
+    @Param({"10000"})
+    public int inFlight;
+
+    @Param({"10"})
+    public int blockMillis;
+
+    private ExecutorService executor;
+    private CoroutineScope scope;
+    private Request<String>[] requests;
+    private CountDownLatch latch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Fixtures.install();
+        executor = VirtualThreads.newExecutor();
+        scope = CoroutineScopeKt.CoroutineScope(SupervisorKt.SupervisorJob(null));
+    }
+
+    @Setup(Level.Invocation)
+    @SuppressWarnings("unchecked")
+    public void prepare() {
+        final CountDownLatch latch = new CountDownLatch(inFlight);
+        StrategyCallback<Fixtures.Rsp> callback = new StrategyCallback<Fixtures.Rsp>() {
+            @Override
+            public void onDataLoaded(Fixtures.Rsp rsp) {
+                latch.countDown();
+            }
+
+            @Override
+            public void onDataNotAvailable(String message) {
+                throw new IllegalStateException(message);
+            }
+        };
+        requests = new Request[inFlight];
+        for (int i = 0; i < inFlight; i++) {
+            requests[i] = "loom".equals(implementation)
+                    ? new LoomRequest(callback, executor, blockMillis)
+                    : new CoroutineRequest(scope, callback, blockMillis);
+        }
+        this.latch = latch;
+    }
+
+    @Benchmark
+    public void requestAll() throws InterruptedException {
+        for (Request<String> request : requests) {
+            request.request("card");
+        }
+        if (!latch.await(1, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("timeout, remaining = " + latch.getCount());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        CoroutineScopeKt.cancel(scope, null);
+    }
+
+    /**
+     * 虚拟线程中阻塞
+     */
+    static final class LoomRequest
+            extends org.sheedon.rrouter.loom.AbstractRequestStrategy<String, Fixtures.Rsp> {
+        private final long blockMillis;
+
+        LoomRequest(StrategyCallback<Fixtures.Rsp> callback, ExecutorService executor, long blockMillis) {
+            super(callback, executor);
+            this.blockMillis = blockMillis;
+        }
+
+        @Override
+        protected Fixtures.Rsp onLoadMethod(String requestCard) throws InterruptedException {
+            Thread.sleep(blockMillis);
+            return Fixtures.Rsp.SUCCESS;
+        }
+
+        @Override
+        public int onRequestType() {
+            return 1;
+        }
+    }
+
+    /**
+     * Dispatchers.IO 中阻塞，不挂起直接返回结果
+     */
+    static final class CoroutineRequest
+            extends org.sheedon.rrouter.coroutine.AbstractRequestStrategy<String, Fixtures.Rsp> {
+        private final long blockMillis;
+
+        CoroutineRequest(CoroutineScope scope, StrategyCallback<Fixtures.Rsp> callback, long blockMillis) {
+            super(scope, callback);
+            this.blockMillis = blockMillis;
+        }
+
+        @Override
+        protected Object onLoadMethod(String requestCard, Continuation<? super Fixtures.Rsp> continuation) {
+            try {
+                Thread.sleep(blockMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Fixtures.Rsp.SUCCESS;
+        }
+
+        @Override
+        public int onRequestType() {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sheedon.rrouter.core.AbstractFreezableCard;
+import org.sheedon.rrouter.core.AbstractRequestProxy;
+import org.sheedon.rrouter.core.CardHolder;
+import org.sheedon.rrouter.core.DataCloneable;
+import org.sheedon.rrouter.strategy.StrategyConfig;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求卡片快照开销，配合 gc profiler 比较每次请求的分配量（gc.alloc.rate.norm）
+ * 1. clone：DataCloneable 卡片，每次请求克隆一次
+ * 2. freeze：可冻结卡片，请求时冻结后直接持有，未修改则不拷贝
+ * 3. *Mutated：每次请求前修改卡片，可冻结卡片通过 CardHolder 写时复制
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 11:50 下午
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CardSnapshotBenchmark {
+
+    @Benchmark
+    public void clone(SnapshotState state, Blackhole blackhole) {
+        state.cloneProxy.request();
+        blackhole.consume(state.callback.loaded);
+    }
+
+    @Benchmark
+    public void freeze(SnapshotState state, Blackhole blackhole) {
+        state.freezeProxy.request();
+        blackhole.consume(state.callback.loaded);
+    }
+
+    @Benchmark
+    public void cloneMutated(SnapshotState state, Blackhole blackhole) {
+        state.cloneCard.page++;
+        state.cloneProxy.request();
+        blackhole.consume(state.callback.loaded);
+    }
+
+    @Benchmark
+    public void freezeMutated(SnapshotState state, Blackhole blackhole) {
+        state.holder.update(state.increment);
+        state.freezeProxy.request();
+        blackhole.consume(state.callback.loaded);
+    }
+
+    @State(Scope.Thread)
+    public static class SnapshotState {
+        final Fixtures.CountingCallback callback = new Fixtures.CountingCallback();
+        final CloneableCard cloneCard = new CloneableCard("user", "password");
+        final CardHolder<FreezableLoginCard> holder =
+                new CardHolder<>(new FreezableLoginCard("user", "password"));
+        final kotlin.jvm.functions.Function1<FreezableLoginCard, kotlin.Unit> increment = card -> {
+            card.nextPage();
+            return kotlin.Unit.INSTANCE;
+        };
+
+        AbstractRequestProxy<CloneableCard, Fixtures.Rsp> cloneProxy;
+        AbstractRequestProxy<FreezableLoginCard, Fixtures.Rsp> freezeProxy;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Fixtures.install();
+            cloneProxy = Fixtures.newProxy(StrategyConfig.STRATEGY.TYPE_ONLY_REMOTE,
+                    callback, () -> cloneCard);
+            freezeProxy = Fixtures.newProxy(StrategyConfig.STRATEGY.TYPE_ONLY_REMOTE,
+                    callback, holder::get);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            cloneProxy.onDestroy();
+            freezeProxy.onDestroy();
+        }
+    }
+
+    /**
+     * 克隆方式的请求卡片
+     */
+    static final class CloneableCard implements DataCloneable {
+        final String userName;
+        final String password;
+        int page;
+
+        CloneableCard(String userName, String password) {
+            this.userName = userName;
+            this.password = password;
+        }
+
+        @Override
+        public Object clone() throws CloneNotSupportedException {
+            return super.clone();
+        }
+    }
+
+    /**
+     * 可冻结的请求卡片
+     */
+    static final class FreezableLoginCard extends AbstractFreezableCard {
+        final String userName;
+        final String password;
+        int page;
+
+        FreezableLoginCard(String userName, String password) {
+            this.userName = userName;
+            this.password = password;
+        }
+
+        void nextPage() {
+            checkNotFrozen();
+            page++;
+        }
+    }
+}
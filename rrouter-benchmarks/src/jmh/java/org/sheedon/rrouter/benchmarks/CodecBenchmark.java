@@ -0,0 +1,298 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.benchmarks;
+
+import com.google.gson.Gson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.sheedon.rrouter.core.ResponseCodec;
+import org.sheedon.rrouter.core.ResponseCodecs;
+import org.sheedon.rrouter.store.MappedStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 结果model编解码开销，配合 gc profiler 比较每次往返的分配量（gc.alloc.rate.norm）
+ * 1. binaryHeap / binaryDirect：ResponseCodec 编码到可复用的堆内/直接缓冲区后解码
+ * 2. json：Gson 编码为 UTF-8 字节数组后解码
+ * 3. storeBinary / storeJson：从 MappedStore 读取，前者在映射内存上直接解码，后者拷贝为字节数组后按 JSON 解码
+ *
+ * 编解码与 @Codec 生成的「类名$$Codec」一致，基准模块不运行注解处理器，因此手写。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 5:30 上午
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class CodecBenchmark {
+
+    // 评论数，0 为只有基本字段的小结果
+    @Param({"0", "32"})
+    public int comments;
+
+    private final Gson gson = new Gson();
+    private final ResponseCodec<Article> codec = new ArticleCodec();
+    private final ByteBuffer heap = ByteBuffer.allocate(64 * 1024);
+    private final ByteBuffer direct = ByteBuffer.allocateDirect(64 * 1024);
+
+    private Article article;
+    private File file;
+    private MappedStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        article = Article.create(comments);
+        file = Files.createTempFile("codec", ".store").toFile();
+        file.delete();
+        store = new MappedStore.Builder().file(file).compactionRatio(0).build();
+        store.put(BINARY_KEY, article, codec);
+        store.put(JSON_KEY, gson.toJson(article).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        store.close();
+        file.delete();
+    }
+
+    @Benchmark
+    public Article binaryHeap() {
+        return roundTrip(heap);
+    }
+
+    @Benchmark
+    public Article binaryDirect() {
+        return roundTrip(direct);
+    }
+
+    @Benchmark
+    public Article json() {
+        byte[] bytes = gson.toJson(article).getBytes(StandardCharsets.UTF_8);
+        return gson.fromJson(new String(bytes, StandardCharsets.UTF_8), Article.class);
+    }
+
+    @Benchmark
+    public Article storeBinary() {
+        return store.get(BINARY_KEY, codec);
+    }
+
+    @Benchmark
+    public Article storeJson() {
+        byte[] bytes = store.get(JSON_KEY);
+        return gson.fromJson(new String(bytes, StandardCharsets.UTF_8), Article.class);
+    }
+
+    private Article roundTrip(ByteBuffer buffer) {
+        buffer.clear();
+        codec.encode(article, buffer);
+        buffer.flip();
+        return codec.decode(buffer);
+    }
+
+    private static final long BINARY_KEY = 1L;
+    private static final long JSON_KEY = 2L;
+
+    /**
+     * 结果model
+     */
+    public static class Article {
+        public long id;
+        public String title;
+        public String body;
+        public boolean published;
+        public double score;
+        public Integer views;
+        public Author author;
+        public List<String> tags;
+        public List<Comment> comments;
+
+        static Article create(int comments) {
+            Article article = new Article();
+            article.id = 10086;
+            article.title = "RRouter 请求路由";
+            article.body = "Remote, local and cache requests in one strategy chain.";
+            article.published = true;
+            article.score = 4.5;
+            article.views = 1024;
+            article.author = new Author();
+            article.author.id = 7;
+            article.author.name = "sheedon";
+            article.tags = new ArrayList<>();
+            article.tags.add("android");
+            article.tags.add("kotlin");
+            article.comments = new ArrayList<>(comments);
+            for (int index = 0; index < comments; index++) {
+                Comment comment = new Comment();
+                comment.id = index;
+                comment.author = "user-" + index;
+                comment.content = "comment content #" + index;
+                comment.likes = index * 3;
+                article.comments.add(comment);
+            }
+            return article;
+        }
+    }
+
+    public static class Author {
+        public long id;
+        public String name;
+    }
+
+    public static class Comment {
+        public long id;
+        public String author;
+        public String content;
+        public int likes;
+    }
+
+    /**
+     * 与生成的 Article$$Codec 一致
+     */
+    static final class ArticleCodec implements ResponseCodec<Article> {
+        private static final ResponseCodec<Author> CODEC_0 = new AuthorCodec();
+        private static final ResponseCodec<Comment> CODEC_1 = new CommentCodec();
+
+        @Override
+        public int sizeOf(Article value) {
+            int size = 17;
+            size += ResponseCodecs.sizeOfString(value.title);
+            size += ResponseCodecs.sizeOfString(value.body);
+            size += ResponseCodecs.sizeOf(value.views, ResponseCodecs.INT);
+            size += ResponseCodecs.sizeOf(value.author, CODEC_0);
+            size += ResponseCodecs.sizeOfList(value.tags, ResponseCodecs.STRING);
+            size += ResponseCodecs.sizeOfList(value.comments, CODEC_1);
+            return size;
+        }
+
+        @Override
+        public void encode(Article value, ByteBuffer output) {
+            output.putLong(value.id);
+            ResponseCodecs.writeString(output, value.title);
+            ResponseCodecs.writeString(output, value.body);
+            output.put((byte) (value.published ? 1 : 0));
+            output.putDouble(value.score);
+            ResponseCodecs.write(output, value.views, ResponseCodecs.INT);
+            ResponseCodecs.write(output, value.author, CODEC_0);
+            ResponseCodecs.writeList(output, value.tags, ResponseCodecs.STRING);
+            ResponseCodecs.writeList(output, value.comments, CODEC_1);
+        }
+
+        @Override
+        public Article decode(ByteBuffer input) {
+            long id = input.getLong();
+            String title = ResponseCodecs.readString(input);
+            String body = ResponseCodecs.readString(input);
+            boolean published = input.get() != 0;
+            double score = input.getDouble();
+            Integer views = ResponseCodecs.read(input, ResponseCodecs.INT);
+            Author author = ResponseCodecs.read(input, CODEC_0);
+            List<String> tags = ResponseCodecs.readList(input, ResponseCodecs.STRING);
+            List<Comment> comments = ResponseCodecs.readList(input, CODEC_1);
+            Article value = new Article();
+            value.id = id;
+            value.title = title;
+            value.body = body;
+            value.published = published;
+            value.score = score;
+            value.views = views;
+            value.author = author;
+            value.tags = tags;
+            value.comments = comments;
+            return value;
+        }
+    }
+
+    /**
+     * 与生成的 Author$$Codec 一致
+     */
+    static final class AuthorCodec implements ResponseCodec<Author> {
+        @Override
+        public int sizeOf(Author value) {
+            int size = 8;
+            size += ResponseCodecs.sizeOfString(value.name);
+            return size;
+        }
+
+        @Override
+        public void encode(Author value, ByteBuffer output) {
+            output.putLong(value.id);
+            ResponseCodecs.writeString(output, value.name);
+        }
+
+        @Override
+        public Author decode(ByteBuffer input) {
+            long id = input.getLong();
+            String name = ResponseCodecs.readString(input);
+            Author value = new Author();
+            value.id = id;
+            value.name = name;
+            return value;
+        }
+    }
+
+    /**
+     * 与生成的 Comment$$Codec 一致
+     */
+    static final class CommentCodec implements ResponseCodec<Comment> {
+        @Override
+        public int sizeOf(Comment value) {
+            int size = 12;
+            size += ResponseCodecs.sizeOfString(value.author);
+            size += ResponseCodecs.sizeOfString(value.content);
+            return size;
+        }
+
+        @Override
+        public void encode(Comment value, ByteBuffer output) {
+            output.putLong(value.id);
+            ResponseCodecs.writeString(output, value.author);
+            ResponseCodecs.writeString(output, value.content);
+            output.putInt(value.likes);
+        }
+
+        @Override
+        public Comment decode(ByteBuffer input) {
+            long id = input.getLong();
+            String author = ResponseCodecs.readString(input);
+            String content = ResponseCodecs.readString(input);
+            int likes = input.getInt();
+            Comment value = new Comment();
+            value.id = id;
+            value.author = author;
+            value.content = content;
+            value.likes = likes;
+            return value;
+        }
+    }
+}
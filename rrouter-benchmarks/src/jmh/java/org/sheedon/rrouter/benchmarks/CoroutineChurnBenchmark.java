@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.benchmarks;
+
+import kotlin.coroutines.Continuation;
+import kotlinx.coroutines.CoroutineScope;
+import kotlinx.coroutines.CoroutineScopeKt;
+import kotlinx.coroutines.SupervisorKt;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.sheedon.rrouter.core.StrategyCallback;
+import org.sheedon.rrouter.coroutine.AbstractRequestStrategy;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 协程请求策略在连续重新请求下的开销，每次请求取消上一次执行中的请求，
+ * 配合 gc profiler 比较每次请求的分配量（gc.alloc.rate.norm），
+ * callbacks 为每次请求产生的反馈数，被取消的请求不反馈，理想值接近 0；
+ * 被取消的请求不反馈由 rrouter-coroutine 的 AbstractRequestStrategyTest 断言，本基准只作开销参考
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 3:00 上午
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CoroutineChurnBenchmark {
+
+    @Benchmark
+    public void rerequest(ChurnState state, Counters counters) {
+        if (counters.callbacksAtStart < 0) {
+            counters.callbacksAtStart = state.callbacks.get();
+        }
+        state.strategy.request("card");
+        counters.requests++;
+        counters.callbacks = state.callbacks.get() - counters.callbacksAtStart;
+    }
+
+    @State(Scope.Thread)
+    public static class ChurnState {
+
+        /**
+         * 单次加载的耗时，微秒
+         */
+        @Param({"50"})
+        public int loadMicros;
+
+        CoroutineScope scope;
+        ChurnRequest strategy;
+        final AtomicLong callbacks = new AtomicLong();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Fixtures.install();
+            scope = CoroutineScopeKt.CoroutineScope(SupervisorKt.SupervisorJob(null));
+            strategy = new ChurnRequest(scope, new StrategyCallback<Fixtures.Rsp>() {
+                @Override
+                public void onDataLoaded(Fixtures.Rsp rsp) {
+                    callbacks.incrementAndGet();
+                }
+
+                @Override
+                public void onDataNotAvailable(String message) {
+                    callbacks.incrementAndGet();
+                }
+            }, TimeUnit.MICROSECONDS.toNanos(loadMicros));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            strategy.onDestroy();
+            CoroutineScopeKt.cancel(scope, null);
+        }
+    }
+
+    /**
+     * 每次迭代的请求数与反馈数，反馈数在每次请求后更新
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long requests;
+        public long callbacks;
+        long callbacksAtStart;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            requests = 0;
+            callbacks = 0;
+            callbacksAtStart = -1;
+        }
+    }
+
+    /**
+     * 加载不挂起、不响应取消，取消后完成的加载需被丢弃
+     */
+    static final class ChurnRequest extends AbstractRequestStrategy<String, Fixtures.Rsp> {
+        private final long loadNanos;
+
+        ChurnRequest(CoroutineScope scope, StrategyCallback<Fixtures.Rsp> callback, long loadNanos) {
+            super(scope, callback);
+            this.loadNanos = loadNanos;
+        }
+
+        @Override
+        protected Object onLoadMethod(String requestCard, Continuation<? super Fixtures.Rsp> continuation) {
+            LockSupport.parkNanos(loadNanos);
+            return Fixtures.Rsp.SUCCESS;
+        }
+
+        @Override
+        public int onRequestType() {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.benchmarks;
+
+import org.sheedon.rrouter.core.AbstractRequestProxy;
+import org.sheedon.rrouter.core.ConfigRepository;
+import org.sheedon.rrouter.core.DataSource;
+import org.sheedon.rrouter.core.IRspModel;
+import org.sheedon.rrouter.core.RRouter;
+import org.sheedon.rrouter.core.Request;
+import org.sheedon.rrouter.core.StrategyCallback;
+import org.sheedon.rrouter.strategy.BaseRequestStrategyFactory;
+import org.sheedon.rrouter.strategy.StrategyConfig;
+
+import java.util.function.Supplier;
+
+/**
+ * 基准测试夹具，提供同步执行的本地/远程请求替身，
+ * 使基准测试只度量「代理 -> 策略执行者 -> 反馈」的调度开销
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 6:40 下午
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * 初始化 RRouter，重复调用无副作用
+     */
+    static void install() {
+        if (RRouter.isInstalled()) {
+            return;
+        }
+        ConfigRepository repository = new ConfigRepository.Builder()
+                .strategyArray(StrategyConfig.strategyHandlerArray)
+                .build();
+        RRouter.setUp(repository);
+    }
+
+    /**
+     * 创建请求代理
+     *
+     * @param strategyType 请求策略类型
+     * @param callback     反馈监听器
+     * @return AbstractRequestProxy
+     */
+    static AbstractRequestProxy<String, Rsp> newProxy(int strategyType,
+                                                     DataSource.Callback<Rsp> callback) {
+        final String card = "card";
+        return new AbstractRequestProxy<String, Rsp>(new SyncRequestFactory<String>(strategyType), callback) {
+            @Override
+            protected String onCreateRequestCard() {
+                return card;
+            }
+        };
+    }
+
+    /**
+     * 创建请求代理，每次请求从 cardSupplier 获取请求卡片
+     *
+     * @param strategyType 请求策略类型
+     * @param callback     反馈监听器
+     * @param cardSupplier 请求卡片提供者
+     * @return AbstractRequestProxy
+     */
+    static <Card> AbstractRequestProxy<Card, Rsp> newProxy(int strategyType,
+                                                          DataSource.Callback<Rsp> callback,
+                                                          final Supplier<Card> cardSupplier) {
+        return new AbstractRequestProxy<Card, Rsp>(new SyncRequestFactory<Card>(strategyType), callback) {
+            @Override
+            protected Card onCreateRequestCard() {
+                return cardSupplier.get();
+            }
+        };
+    }
+
+    /**
+     * 反馈结果
+     */
+    static final class Rsp implements IRspModel<String> {
+        static final Rsp SUCCESS = new Rsp();
+
+        @Override
+        public Object loadCode() {
+            return 200;
+        }
+
+        @Override
+        public String loadData() {
+            return "data";
+        }
+
+        @Override
+        public boolean checkSuccess() {
+            return true;
+        }
+
+        @Override
+        public String loadMessage() {
+            return null;
+        }
+    }
+
+    /**
+     * 计数反馈监听器
+     */
+    static final class CountingCallback implements DataSource.Callback<Rsp> {
+        long loaded;
+        long notAvailable;
+
+        @Override
+        public void onDataLoaded(Rsp rsp) {
+            loaded++;
+        }
+
+        @Override
+        public void onDataNotAvailable(String message) {
+            notAvailable++;
+        }
+    }
+
+    /**
+     * 同步请求，在调用线程中直接反馈成功
+     */
+    static final class SyncRequest<Card> implements Request<Card> {
+        private final int requestType;
+        private final StrategyCallback<Rsp> callback;
+
+        SyncRequest(int requestType, StrategyCallback<Rsp> callback) {
+            this.requestType = requestType;
+            this.callback = callback;
+        }
+
+        @Override
+        public void request(Card requestCard) {
+            callback.onDataLoaded(Rsp.SUCCESS);
+        }
+
+        @Override
+        public int onRequestType() {
+            return requestType;
+        }
+
+        @Override
+        public void onCancel() {
+        }
+
+        @Override
+        public void onDestroy() {
+        }
+    }
+
+    /**
+     * 同步请求工厂
+     */
+    static final class SyncRequestFactory<Card> extends BaseRequestStrategyFactory<Card, Rsp> {
+        private final int strategyType;
+
+        SyncRequestFactory(int strategyType) {
+            this.strategyType = strategyType;
+        }
+
+        @Override
+        protected Request<Card> onCreateRealLocalRequestStrategy(StrategyCallback<Rsp> callback) {
+            return new SyncRequest<>(StrategyConfig.REQUEST.TYPE_LOCAL_REQUEST, callback);
+        }
+
+        @Override
+        protected Request<Card> onCreateRealRemoteRequestStrategy(StrategyCallback<Rsp> callback) {
+            return new SyncRequest<>(StrategyConfig.REQUEST.TYPE_REMOTE_REQUEST, callback);
+        }
+
+        @Override
+        public int onLoadRequestStrategyType() {
+            return strategyType;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求代理调度吞吐量（ops/s）
+ * AbstractRequestProxy.request() -> 策略执行者 -> 同步请求 -> 反馈，分别以 1/4/16 线程执行
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 6:40 下午
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ProxyDispatchThroughputBenchmark {
+
+    @Benchmark
+    @Threads(1)
+    public void request1Thread(ProxyState state, Blackhole blackhole) {
+        request(state, blackhole);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void request4Threads(ProxyState state, Blackhole blackhole) {
+        request(state, blackhole);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void request16Threads(ProxyState state, Blackhole blackhole) {
+        request(state, blackhole);
+    }
+
+    private static void request(ProxyState state, Blackhole blackhole) {
+        state.proxy.request();
+        blackhole.consume(state.callback.loaded);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.sheedon.rrouter.core.AbstractRequestProxy;
+
+/**
+ * 每个基准线程持有独立的请求代理，策略类型覆盖 {@link org.sheedon.rrouter.strategy.DefaultStrategy} 中的五种默认策略
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 6:40 下午
+ */
+@State(Scope.Thread)
+public class ProxyState {
+
+    /**
+     * 0：单一远程，1：优先本地，2：同步本地和远程，3：优先远程，4：单一本地
+     */
+    @Param({"0", "1", "2", "3", "4"})
+    public int strategyType;
+
+    AbstractRequestProxy<String, Fixtures.Rsp> proxy;
+    Fixtures.CountingCallback callback;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Fixtures.install();
+        callback = new Fixtures.CountingCallback();
+        proxy = Fixtures.newProxy(strategyType, callback);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (callback.loaded == 0 || callback.notAvailable != 0) {
+            throw new IllegalStateException("unexpected callbacks, loaded = " + callback.loaded
+                    + ", notAvailable = " + callback.notAvailable);
+        }
+        proxy.onDestroy();
+    }
+}
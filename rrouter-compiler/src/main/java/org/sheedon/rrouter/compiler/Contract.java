@@ -60,5 +60,19 @@ public interface Contract {
     String LOCAL_REQUEST = "LocalRequest";
     // Observable
     String OBSERVABLE_RXJAVA = "io.reactivex.rxjava3.core.Observable";
+    // fingerprint suffix
+    String FINGERPRINT_SUFFIX = "$$Fingerprint";
+    // core package
+    String RROUTER_CORE_PACKAGE = "org.sheedon.rrouter.core";
+    // CardFingerprint class name
+    String CARD_FINGERPRINT = "CardFingerprint";
+    // CardFingerprints class name
+    String CARD_FINGERPRINTS = "CardFingerprints";
+    // codec suffix
+    String CODEC_SUFFIX = "$$Codec";
+    // ResponseCodec class name
+    String RESPONSE_CODEC = "ResponseCodec";
+    // ResponseCodecs class name
+    String RESPONSE_CODECS = "ResponseCodecs";
 
 }
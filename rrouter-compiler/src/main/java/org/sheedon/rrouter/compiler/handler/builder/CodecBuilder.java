@@ -0,0 +1,345 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.compiler.handler.builder;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.NameAllocator;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import org.sheedon.rrouter.compiler.Contract;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * 结果model编解码类 XXModel$$Codec
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 5:30 上午
+ */
+public class CodecBuilder {
+
+    // 结果model参数
+    private static final String VALUE = "value";
+    // 输出缓冲区参数
+    private static final String OUTPUT = "output";
+    // 输入缓冲区参数
+    private static final String INPUT = "input";
+    // 字节数变量
+    private static final String SIZE = "size";
+
+    private final Filer filer;
+
+    public CodecBuilder(Filer filer) {
+        this.filer = filer;
+    }
+
+    /**
+     * 构建编解码类
+     *
+     * @param packageName    结果model包名
+     * @param className      编解码类名
+     * @param modelElement   结果model类
+     * @param properties     字段编解码方式，按编码顺序
+     * @param nestedCodecs   嵌套结果model的编解码字段名与类型
+     * @param useConstructor 是否通过构造方法创建，否则通过无参构造方法创建后逐个赋值
+     */
+    public void buildCodecClass(String packageName, String className, TypeElement modelElement,
+                                List<Property> properties, Map<String, TypeName> nestedCodecs,
+                                boolean useConstructor) throws IOException {
+        TypeName modelTypeName = ClassName.get(modelElement);
+        ClassName codecClassName = ClassName.get(Contract.RROUTER_CORE_PACKAGE, Contract.RESPONSE_CODEC);
+        ClassName codecsClassName = ClassName.get(Contract.RROUTER_CORE_PACKAGE, Contract.RESPONSE_CODECS);
+
+        TypeSpec.Builder typeSpec = TypeSpec.classBuilder(className)
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addSuperinterface(ParameterizedTypeName.get(codecClassName, modelTypeName))
+                .addJavadoc(Contract.DOC);
+
+        // 嵌套结果model的编解码，首次加载编解码类时查找
+        for (Map.Entry<String, TypeName> entry : nestedCodecs.entrySet()) {
+            typeSpec.addField(FieldSpec.builder(
+                            ParameterizedTypeName.get(codecClassName, entry.getValue()), entry.getKey(),
+                            Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .initializer("$T.require($T.class)", codecsClassName, entry.getValue())
+                    .build());
+        }
+
+        typeSpec.addMethod(buildSizeOf(modelTypeName, codecsClassName, properties))
+                .addMethod(buildEncode(modelTypeName, codecsClassName, properties))
+                .addMethod(buildDecode(modelTypeName, codecsClassName, properties, useConstructor));
+
+        JavaFile.builder(packageName, typeSpec.build())
+                .build()
+                .writeTo(filer);
+    }
+
+    /**
+     * 编码字节数，定长字段合并为常量
+     */
+    private MethodSpec buildSizeOf(TypeName modelTypeName, ClassName codecs, List<Property> properties) {
+        int fixedSize = 0;
+        CodeBlock.Builder variable = CodeBlock.builder();
+        for (Property property : properties) {
+            switch (property.kind) {
+                case PRIMITIVE:
+                    fixedSize += primitiveSize(property.type.getKind());
+                    break;
+                case STRING:
+                    variable.addStatement("$N += $T.sizeOfString($N.$L)",
+                            SIZE, codecs, VALUE, property.getter);
+                    break;
+                case ENUM:
+                    variable.addStatement("$N += $T.sizeOfString($N.$L == null ? null : $N.$L.name())",
+                            SIZE, codecs, VALUE, property.getter, VALUE, property.getter);
+                    break;
+                case OBJECT:
+                    variable.addStatement("$N += $T.sizeOf($N.$L, $L)",
+                            SIZE, codecs, VALUE, property.getter, property.codec);
+                    break;
+                case LIST:
+                    variable.addStatement("$N += $T.sizeOfList($N.$L, $L)",
+                            SIZE, codecs, VALUE, property.getter, property.codec);
+                    break;
+            }
+        }
+        return MethodSpec.methodBuilder("sizeOf")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(modelTypeName, VALUE)
+                .returns(TypeName.INT)
+                .addStatement("int $N = $L", SIZE, fixedSize)
+                .addCode(variable.build())
+                .addStatement("return $N", SIZE)
+                .build();
+    }
+
+    /**
+     * 按字段顺序写入
+     */
+    private MethodSpec buildEncode(TypeName modelTypeName, ClassName codecs, List<Property> properties) {
+        MethodSpec.Builder encode = MethodSpec.methodBuilder("encode")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(modelTypeName, VALUE)
+                .addParameter(ByteBuffer.class, OUTPUT);
+        for (Property property : properties) {
+            switch (property.kind) {
+                case PRIMITIVE:
+                    encode.addStatement(writePrimitive(property));
+                    break;
+                case STRING:
+                    encode.addStatement("$T.writeString($N, $N.$L)",
+                            codecs, OUTPUT, VALUE, property.getter);
+                    break;
+                case ENUM:
+                    encode.addStatement("$T.writeString($N, $N.$L == null ? null : $N.$L.name())",
+                            codecs, OUTPUT, VALUE, property.getter, VALUE, property.getter);
+                    break;
+                case OBJECT:
+                    encode.addStatement("$T.write($N, $N.$L, $L)",
+                            codecs, OUTPUT, VALUE, property.getter, property.codec);
+                    break;
+                case LIST:
+                    encode.addStatement("$T.writeList($N, $N.$L, $L)",
+                            codecs, OUTPUT, VALUE, property.getter, property.codec);
+                    break;
+            }
+        }
+        return encode.build();
+    }
+
+    /**
+     * 按字段顺序读取到局部变量，再通过构造方法或赋值创建结果model
+     */
+    private MethodSpec buildDecode(TypeName modelTypeName, ClassName codecs,
+                                   List<Property> properties, boolean useConstructor) {
+        MethodSpec.Builder decode = MethodSpec.methodBuilder("decode")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(ByteBuffer.class, INPUT)
+                .returns(modelTypeName);
+
+        NameAllocator names = new NameAllocator();
+        names.newName(INPUT, INPUT);
+        names.newName(VALUE, VALUE);
+        List<String> locals = new ArrayList<>(properties.size());
+        for (Property property : properties) {
+            String local = names.newName(property.name);
+            locals.add(local);
+            TypeName localType = TypeName.get(property.type);
+            switch (property.kind) {
+                case PRIMITIVE:
+                    decode.addStatement("$T $N = $L", localType, local, readPrimitive(property));
+                    break;
+                case STRING:
+                    decode.addStatement("$T $N = $T.readString($N)", localType, local, codecs, INPUT);
+                    break;
+                case ENUM:
+                    String name = names.newName(property.name + "Name");
+                    decode.addStatement("$T $N = $T.readString($N)", String.class, name, codecs, INPUT);
+                    decode.addStatement("$T $N = $N == null ? null : $T.valueOf($N)",
+                            localType, local, name, localType, name);
+                    break;
+                case OBJECT:
+                    decode.addStatement("$T $N = $T.read($N, $L)",
+                            localType, local, codecs, INPUT, property.codec);
+                    break;
+                case LIST:
+                    decode.addStatement("$T $N = $T.readList($N, $L)",
+                            localType, local, codecs, INPUT, property.codec);
+                    break;
+            }
+        }
+
+        if (useConstructor) {
+            decode.addStatement("return new $T($L)", modelTypeName, String.join(", ", locals));
+            return decode.build();
+        }
+        decode.addStatement("$T $N = new $T()", modelTypeName, VALUE, modelTypeName);
+        for (int index = 0; index < properties.size(); index++) {
+            Property property = properties.get(index);
+            if (property.setterIsMethod) {
+                decode.addStatement("$N.$N($N)", VALUE, property.setter, locals.get(index));
+            } else {
+                decode.addStatement("$N.$N = $N", VALUE, property.setter, locals.get(index));
+            }
+        }
+        decode.addStatement("return $N", VALUE);
+        return decode.build();
+    }
+
+    private int primitiveSize(TypeKind kind) {
+        switch (kind) {
+            case BOOLEAN:
+            case BYTE:
+                return 1;
+            case SHORT:
+            case CHAR:
+                return 2;
+            case INT:
+            case FLOAT:
+                return 4;
+            default:
+                return 8;
+        }
+    }
+
+    private CodeBlock writePrimitive(Property property) {
+        switch (property.type.getKind()) {
+            case BOOLEAN:
+                return CodeBlock.of("$N.put((byte) ($N.$L ? 1 : 0))", OUTPUT, VALUE, property.getter);
+            case BYTE:
+                return CodeBlock.of("$N.put($N.$L)", OUTPUT, VALUE, property.getter);
+            default:
+                return CodeBlock.of("$N.put$L($N.$L)", OUTPUT,
+                        primitiveSuffix(property.type.getKind()), VALUE, property.getter);
+        }
+    }
+
+    private CodeBlock readPrimitive(Property property) {
+        switch (property.type.getKind()) {
+            case BOOLEAN:
+                return CodeBlock.of("$N.get() != 0", INPUT);
+            case BYTE:
+                return CodeBlock.of("$N.get()", INPUT);
+            default:
+                return CodeBlock.of("$N.get$L()", INPUT, primitiveSuffix(property.type.getKind()));
+        }
+    }
+
+    private String primitiveSuffix(TypeKind kind) {
+        switch (kind) {
+            case SHORT:
+                return "Short";
+            case CHAR:
+                return "Char";
+            case INT:
+                return "Int";
+            case LONG:
+                return "Long";
+            case FLOAT:
+                return "Float";
+            default:
+                return "Double";
+        }
+    }
+
+    /**
+     * 字段编码类型
+     */
+    public enum Kind {
+        // 基本类型，定长
+        PRIMITIVE,
+        // 字符串
+        STRING,
+        // 枚举，按名称编码
+        ENUM,
+        // 可空对象，通过编解码读写
+        OBJECT,
+        // 列表，通过元素编解码读写
+        LIST
+    }
+
+    /**
+     * 字段编解码方式
+     */
+    public static class Property {
+        private final String name;
+        private final TypeMirror type;
+        private final Kind kind;
+        private final String getter;
+        private final String setter;
+        private final boolean setterIsMethod;
+        private final CodeBlock codec;
+
+        /**
+         * @param name           字段名
+         * @param type           字段类型
+         * @param kind           编码类型
+         * @param getter         读取表达式，字段名或 getter 调用
+         * @param setter         写入的字段名或 setter 方法名，通过构造方法创建时为空
+         * @param setterIsMethod setter 是否为方法
+         * @param codec          OBJECT 的编解码或 LIST 的元素编解码
+         */
+        public Property(String name, TypeMirror type, Kind kind, String getter,
+                        String setter, boolean setterIsMethod, CodeBlock codec) {
+            this.name = name;
+            this.type = type;
+            this.kind = kind;
+            this.getter = getter;
+            this.setter = setter;
+            this.setterIsMethod = setterIsMethod;
+            this.codec = codec;
+        }
+    }
+}
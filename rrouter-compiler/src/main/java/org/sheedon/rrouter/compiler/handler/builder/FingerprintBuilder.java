@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.compiler.handler.builder;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import org.sheedon.rrouter.compiler.Contract;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * 请求卡片指纹类 XXCard$$Fingerprint
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 11:20 下午
+ */
+public class FingerprintBuilder {
+
+    // 卡片参数
+    private static final String CARD = "card";
+    // 另一个卡片参数
+    private static final String OTHER = "other";
+    // 指纹变量
+    private static final String HASH = "hash";
+
+    private final Filer filer;
+
+    public FingerprintBuilder(Filer filer) {
+        this.filer = filer;
+    }
+
+    /**
+     * 构建指纹类
+     *
+     * @param packageName 卡片包名
+     * @param className   指纹类名
+     * @param cardElement 卡片类
+     * @param accessors   字段访问方式
+     */
+    public void buildFingerprintClass(String packageName, String className,
+                                      TypeElement cardElement, List<Accessor> accessors) throws IOException {
+        TypeName cardTypeName = ClassName.get(cardElement);
+        ClassName fingerprintsClassName = ClassName.get(Contract.RROUTER_CORE_PACKAGE,
+                Contract.CARD_FINGERPRINTS);
+
+        // 指纹计算
+        MethodSpec.Builder fingerprint = MethodSpec.methodBuilder("fingerprint")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(cardTypeName, CARD)
+                .returns(TypeName.LONG)
+                .addStatement("long $N = $T.SEED", HASH, fingerprintsClassName);
+        for (Accessor accessor : accessors) {
+            fingerprint.addStatement("$N = $T.mix($N, $N.$L)", HASH, fingerprintsClassName,
+                    HASH, CARD, accessor.expression);
+        }
+        fingerprint.addStatement("return $T.finish($N)", fingerprintsClassName, HASH);
+
+        // 逐字段比较
+        MethodSpec.Builder fieldsEqual = MethodSpec.methodBuilder("fieldsEqual")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(cardTypeName, CARD)
+                .addParameter(cardTypeName, OTHER)
+                .returns(TypeName.BOOLEAN);
+        CodeBlock.Builder condition = CodeBlock.builder();
+        if (accessors.isEmpty()) {
+            condition.add("true");
+        }
+        for (int index = 0; index < accessors.size(); index++) {
+            if (index > 0) {
+                condition.add("\n&& ");
+            }
+            condition.add(buildEquals(accessors.get(index)));
+        }
+        fieldsEqual.addStatement("return $L", condition.build());
+
+        TypeSpec typeSpec = TypeSpec.classBuilder(className)
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addSuperinterface(ParameterizedTypeName.get(
+                        ClassName.get(Contract.RROUTER_CORE_PACKAGE, Contract.CARD_FINGERPRINT),
+                        cardTypeName))
+                .addMethod(fingerprint.build())
+                .addMethod(fieldsEqual.build())
+                .addJavadoc(Contract.DOC)
+                .build();
+
+        JavaFile.builder(packageName, typeSpec)
+                .build()
+                .writeTo(filer);
+    }
+
+    /**
+     * 字段比较，基本类型直接比较，浮点按位比较，数组按元素比较，其余使用 equals
+     */
+    private CodeBlock buildEquals(Accessor accessor) {
+        TypeKind kind = accessor.type.getKind();
+        String expression = accessor.expression;
+        switch (kind) {
+            case FLOAT:
+                return CodeBlock.of("Float.compare($N.$L, $N.$L) == 0",
+                        CARD, expression, OTHER, expression);
+            case DOUBLE:
+                return CodeBlock.of("Double.compare($N.$L, $N.$L) == 0",
+                        CARD, expression, OTHER, expression);
+            case ARRAY:
+                return CodeBlock.of("$T.equals($N.$L, $N.$L)",
+                        Arrays.class, CARD, expression, OTHER, expression);
+            default:
+                if (kind.isPrimitive()) {
+                    return CodeBlock.of("$N.$L == $N.$L",
+                            CARD, expression, OTHER, expression);
+                }
+                return CodeBlock.of("$T.equals($N.$L, $N.$L)",
+                        Objects.class, CARD, expression, OTHER, expression);
+        }
+    }
+
+    /**
+     * 字段访问方式，非私有字段直接读取，私有字段通过 getter 读取
+     */
+    public static class Accessor {
+        private final String expression;
+        private final TypeMirror type;
+
+        public Accessor(String expression, TypeMirror type) {
+            this.expression = expression;
+            this.type = type;
+        }
+    }
+}
@@ -0,0 +1,419 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.compiler.processor;
+
+import com.google.auto.service.AutoService;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.TypeName;
+
+import org.sheedon.rrouter.compiler.Contract;
+import org.sheedon.rrouter.compiler.handler.builder.CodecBuilder;
+import org.sheedon.rrouter.facade.annotation.Codec;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+/**
+ * 结果model编解码注解处理器，为标注了 {@link Codec} 的结果model生成不使用反射的二进制编解码类，
+ * 运行时由 ResponseCodecs 按「结果model类名$$Codec」加载。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 5:30 上午
+ */
+@AutoService(Processor.class)
+public class CodecProcessor extends AbstractProcessor {
+
+    private Messager mMessager;
+    private Elements mElementUtils;
+    private Types mTypeUtils;
+    private CodecBuilder builder;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+
+        mMessager = processingEnv.getMessager();
+        mElementUtils = processingEnv.getElementUtils();
+        mTypeUtils = processingEnv.getTypeUtils();
+        Filer filer = processingEnv.getFiler();
+        builder = new CodecBuilder(filer);
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(Codec.class.getCanonicalName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (annotations == null || annotations.isEmpty()) {
+            return false;
+        }
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(Codec.class)) {
+            TypeElement modelElement = (TypeElement) element;
+            if (element.getKind() != ElementKind.CLASS
+                    || modelElement.getModifiers().contains(Modifier.ABSTRACT)
+                    || (modelElement.getNestingKind() == NestingKind.MEMBER
+                    && !modelElement.getModifiers().contains(Modifier.STATIC))) {
+                mMessager.printMessage(Diagnostic.Kind.ERROR,
+                        "@Codec can only be used on concrete top-level or static nested class", element);
+                continue;
+            }
+            buildCodec(modelElement);
+        }
+        return true;
+    }
+
+    /**
+     * 生成编解码类，类名规则与指纹类一致
+     */
+    private void buildCodec(TypeElement modelElement) {
+        List<VariableElement> fields = collectFields(modelElement);
+        Map<String, TypeName> nestedCodecs = new LinkedHashMap<>();
+        boolean useConstructor = !hasSetters(modelElement, fields);
+        if (useConstructor && !hasFieldsConstructor(modelElement, fields)) {
+            mMessager.printMessage(Diagnostic.Kind.ERROR,
+                    "@Codec class needs a no-arg constructor with setters for private fields, "
+                            + "or a constructor taking all fields in declaration order", modelElement);
+            return;
+        }
+
+        List<CodecBuilder.Property> properties = new ArrayList<>();
+        boolean success = true;
+        for (VariableElement field : fields) {
+            CodecBuilder.Property property = buildProperty(field, nestedCodecs, useConstructor);
+            if (property == null) {
+                success = false;
+                continue;
+            }
+            properties.add(property);
+        }
+        if (!success) {
+            return;
+        }
+
+        String packageName = mElementUtils.getPackageOf(modelElement).getQualifiedName().toString();
+        String binaryName = mElementUtils.getBinaryName(modelElement).toString();
+        String className = (packageName.isEmpty() ? binaryName
+                : binaryName.substring(packageName.length() + 1)) + Contract.CODEC_SUFFIX;
+
+        try {
+            builder.buildCodecClass(packageName, className, modelElement,
+                    properties, nestedCodecs, useConstructor);
+        } catch (IOException e) {
+            mMessager.printMessage(Diagnostic.Kind.ERROR, e.getMessage(), modelElement);
+        }
+    }
+
+    /**
+     * 收集结果model及其父类的字段，父类字段在前，跳过静态与 transient 字段
+     */
+    private List<VariableElement> collectFields(TypeElement modelElement) {
+        List<TypeElement> hierarchy = new ArrayList<>();
+        TypeElement current = modelElement;
+        while (current != null && !current.getQualifiedName().toString().equals(Contract.OBJ_CLASS)) {
+            hierarchy.add(0, current);
+            current = superclassOf(current);
+        }
+        List<VariableElement> fields = new ArrayList<>();
+        for (TypeElement type : hierarchy) {
+            for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                Set<Modifier> modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+                    continue;
+                }
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * 是否可通过无参构造方法创建后逐个赋值
+     */
+    private boolean hasSetters(TypeElement modelElement, List<VariableElement> fields) {
+        boolean hasNoArgConstructor = false;
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(modelElement.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty()
+                    && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                hasNoArgConstructor = true;
+                break;
+            }
+        }
+        if (!hasNoArgConstructor) {
+            return false;
+        }
+        for (VariableElement field : fields) {
+            if (field.getModifiers().contains(Modifier.FINAL)) {
+                return false;
+            }
+            if (field.getModifiers().contains(Modifier.PRIVATE) && findSetter(field) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 是否存在按字段顺序接收全部字段的构造方法
+     */
+    private boolean hasFieldsConstructor(TypeElement modelElement, List<VariableElement> fields) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(modelElement.getEnclosedElements())) {
+            List<? extends VariableElement> parameters = constructor.getParameters();
+            if (constructor.getModifiers().contains(Modifier.PRIVATE)
+                    || parameters.size() != fields.size()) {
+                continue;
+            }
+            boolean matched = true;
+            for (int index = 0; index < fields.size(); index++) {
+                if (!mTypeUtils.isSameType(mTypeUtils.erasure(parameters.get(index).asType()),
+                        mTypeUtils.erasure(fields.get(index).asType()))) {
+                    matched = false;
+                    break;
+                }
+            }
+            if (matched) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 字段编解码方式，不支持的类型返回空并报错
+     */
+    private CodecBuilder.Property buildProperty(VariableElement field, Map<String, TypeName> nestedCodecs,
+                                                boolean useConstructor) {
+        String name = field.getSimpleName().toString();
+        TypeElement owner = (TypeElement) field.getEnclosingElement();
+        String getter = loadExpression(owner, field);
+        if (getter == null) {
+            mMessager.printMessage(Diagnostic.Kind.ERROR,
+                    "private field " + name + " has no getter", field);
+            return null;
+        }
+        String setter = null;
+        boolean setterIsMethod = false;
+        if (!useConstructor) {
+            setter = field.getModifiers().contains(Modifier.PRIVATE) ? findSetter(field) : name;
+            setterIsMethod = !setter.equals(name);
+        }
+
+        TypeMirror type = field.asType();
+        CodecBuilder.Kind kind;
+        CodeBlock codec = null;
+        if (type.getKind().isPrimitive()) {
+            kind = CodecBuilder.Kind.PRIMITIVE;
+        } else if (isType(type, String.class.getCanonicalName())) {
+            kind = CodecBuilder.Kind.STRING;
+        } else if (type.getKind() == TypeKind.DECLARED
+                && ((DeclaredType) type).asElement().getKind() == ElementKind.ENUM) {
+            kind = CodecBuilder.Kind.ENUM;
+        } else if (isList(type)) {
+            kind = CodecBuilder.Kind.LIST;
+            List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+            if (arguments.size() == 1) {
+                codec = codecOf(arguments.get(0), nestedCodecs);
+            }
+        } else {
+            kind = CodecBuilder.Kind.OBJECT;
+            codec = codecOf(type, nestedCodecs);
+        }
+        if ((kind == CodecBuilder.Kind.OBJECT || kind == CodecBuilder.Kind.LIST) && codec == null) {
+            mMessager.printMessage(Diagnostic.Kind.ERROR,
+                    "unsupported field type " + type + " in @Codec class", field);
+            return null;
+        }
+        return new CodecBuilder.Property(name, type, kind, getter, setter, setterIsMethod, codec);
+    }
+
+    /**
+     * 类型对应的编解码，基础类型使用 ResponseCodecs 内置编解码，
+     * 其余结果model使用静态字段保存的编解码，不支持的类型返回空
+     */
+    private CodeBlock codecOf(TypeMirror type, Map<String, TypeName> nestedCodecs) {
+        ClassName codecs = ClassName.get(Contract.RROUTER_CORE_PACKAGE, Contract.RESPONSE_CODECS);
+        if (type.getKind() == TypeKind.ARRAY) {
+            switch (((ArrayType) type).getComponentType().getKind()) {
+                case BYTE:
+                    return CodeBlock.of("$T.BYTES", codecs);
+                case INT:
+                    return CodeBlock.of("$T.INTS", codecs);
+                case LONG:
+                    return CodeBlock.of("$T.LONGS", codecs);
+                case DOUBLE:
+                    return CodeBlock.of("$T.DOUBLES", codecs);
+                default:
+                    return null;
+            }
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        DeclaredType declaredType = (DeclaredType) type;
+        TypeElement element = (TypeElement) declaredType.asElement();
+        String builtin = builtinCodec(element.getQualifiedName().toString());
+        if (builtin != null) {
+            return CodeBlock.of("$T.$L", codecs, builtin);
+        }
+        if (element.getKind() != ElementKind.CLASS
+                || !declaredType.getTypeArguments().isEmpty()
+                || isList(type)) {
+            return null;
+        }
+        TypeName typeName = ClassName.get(element);
+        for (Map.Entry<String, TypeName> entry : nestedCodecs.entrySet()) {
+            if (entry.getValue().equals(typeName)) {
+                return CodeBlock.of("$N", entry.getKey());
+            }
+        }
+        String fieldName = "CODEC_" + nestedCodecs.size();
+        nestedCodecs.put(fieldName, typeName);
+        return CodeBlock.of("$N", fieldName);
+    }
+
+    private String builtinCodec(String qualifiedName) {
+        switch (qualifiedName) {
+            case "java.lang.String":
+                return "STRING";
+            case "java.lang.Boolean":
+                return "BOOLEAN";
+            case "java.lang.Byte":
+                return "BYTE";
+            case "java.lang.Short":
+                return "SHORT";
+            case "java.lang.Character":
+                return "CHAR";
+            case "java.lang.Integer":
+                return "INT";
+            case "java.lang.Long":
+                return "LONG";
+            case "java.lang.Float":
+                return "FLOAT";
+            case "java.lang.Double":
+                return "DOUBLE";
+            default:
+                return null;
+        }
+    }
+
+    private boolean isType(TypeMirror type, String qualifiedName) {
+        return type.getKind() == TypeKind.DECLARED
+                && ((TypeElement) ((DeclaredType) type).asElement())
+                .getQualifiedName().toString().equals(qualifiedName);
+    }
+
+    /**
+     * 字段声明为 List，解码为 ArrayList
+     */
+    private boolean isList(TypeMirror type) {
+        return isType(type, List.class.getCanonicalName());
+    }
+
+    /**
+     * 字段读取表达式，非私有字段直接读取，私有字段查找无参 getter
+     */
+    private String loadExpression(TypeElement owner, VariableElement field) {
+        String name = field.getSimpleName().toString();
+        if (!field.getModifiers().contains(Modifier.PRIVATE)) {
+            return name;
+        }
+        String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        boolean isBoolean = field.asType().getKind() == TypeKind.BOOLEAN;
+        for (ExecutableElement method : ElementFilter.methodsIn(owner.getEnclosedElements())) {
+            String methodName = method.getSimpleName().toString();
+            if (!method.getParameters().isEmpty()
+                    || method.getModifiers().contains(Modifier.PRIVATE)
+                    || method.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            if (methodName.equals("get" + suffix)
+                    || (isBoolean && (methodName.equals("is" + suffix) || methodName.equals(name)))) {
+                return methodName + "()";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 私有字段的 setter，Kotlin 中 isXxx 属性的 setter 为 setXxx
+     */
+    private String findSetter(VariableElement field) {
+        String name = field.getSimpleName().toString();
+        TypeElement owner = (TypeElement) field.getEnclosingElement();
+        String property = field.asType().getKind() == TypeKind.BOOLEAN
+                && name.length() > 2 && name.startsWith("is") && Character.isUpperCase(name.charAt(2))
+                ? name.substring(2) : Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (ExecutableElement method : ElementFilter.methodsIn(owner.getEnclosedElements())) {
+            if (method.getParameters().size() != 1
+                    || method.getModifiers().contains(Modifier.PRIVATE)
+                    || method.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            String methodName = method.getSimpleName().toString();
+            if ((methodName.equals("set" + property)
+                    || methodName.equals("set" + Character.toUpperCase(name.charAt(0)) + name.substring(1)))
+                    && mTypeUtils.isSameType(method.getParameters().get(0).asType(), field.asType())) {
+                return methodName;
+            }
+        }
+        return null;
+    }
+
+    private TypeElement superclassOf(TypeElement element) {
+        TypeMirror superclass = element.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        return (TypeElement) ((DeclaredType) superclass).asElement();
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.compiler.processor;
+
+import com.google.auto.service.AutoService;
+
+import org.sheedon.rrouter.compiler.Contract;
+import org.sheedon.rrouter.compiler.handler.builder.FingerprintBuilder;
+import org.sheedon.rrouter.facade.annotation.Fingerprint;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+
+/**
+ * 请求卡片指纹注解处理器，为标注了 {@link Fingerprint} 的请求卡片生成指纹类，
+ * 运行时由 CardFingerprints 按「卡片类名$$Fingerprint」加载。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 11:20 下午
+ */
+@AutoService(Processor.class)
+public class FingerprintProcessor extends AbstractProcessor {
+
+    private Messager mMessager;
+    private Elements mElementUtils;
+    private FingerprintBuilder builder;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+
+        mMessager = processingEnv.getMessager();
+        mElementUtils = processingEnv.getElementUtils();
+        Filer filer = processingEnv.getFiler();
+        builder = new FingerprintBuilder(filer);
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(Fingerprint.class.getCanonicalName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (annotations == null || annotations.isEmpty()) {
+            return false;
+        }
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(Fingerprint.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                mMessager.printMessage(Diagnostic.Kind.ERROR,
+                        "@Fingerprint can only be used on class", element);
+                continue;
+            }
+            buildFingerprint((TypeElement) element);
+        }
+        return true;
+    }
+
+    /**
+     * 生成指纹类，嵌套类的指纹类名为去掉包名的二进制类名，与运行时 Class.getName() 一致
+     */
+    private void buildFingerprint(TypeElement cardElement) {
+        List<FingerprintBuilder.Accessor> accessors = new ArrayList<>();
+        if (!collectAccessors(cardElement, accessors)) {
+            return;
+        }
+
+        String packageName = mElementUtils.getPackageOf(cardElement).getQualifiedName().toString();
+        String binaryName = mElementUtils.getBinaryName(cardElement).toString();
+        String className = (packageName.isEmpty() ? binaryName
+                : binaryName.substring(packageName.length() + 1)) + Contract.FINGERPRINT_SUFFIX;
+
+        try {
+            builder.buildFingerprintClass(packageName, className, cardElement, accessors);
+        } catch (IOException e) {
+            mMessager.printMessage(Diagnostic.Kind.ERROR, e.getMessage(), cardElement);
+        }
+    }
+
+    /**
+     * 收集卡片及其父类的字段，跳过静态与 transient 字段
+     *
+     * @return 是否全部字段可访问
+     */
+    private boolean collectAccessors(TypeElement cardElement, List<FingerprintBuilder.Accessor> accessors) {
+        boolean success = true;
+        TypeElement current = cardElement;
+        while (current != null && !current.getQualifiedName().toString().equals(Contract.OBJ_CLASS)) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                Set<Modifier> modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+                    continue;
+                }
+                String expression = loadExpression(current, field);
+                if (expression == null) {
+                    mMessager.printMessage(Diagnostic.Kind.ERROR,
+                            "private field " + field.getSimpleName() + " has no getter", field);
+                    success = false;
+                    continue;
+                }
+                accessors.add(new FingerprintBuilder.Accessor(expression, field.asType()));
+            }
+            current = superclassOf(current);
+        }
+        return success;
+    }
+
+    /**
+     * 字段读取表达式，非私有字段直接读取，私有字段查找无参 getter
+     */
+    private String loadExpression(TypeElement owner, VariableElement field) {
+        String name = field.getSimpleName().toString();
+        if (!field.getModifiers().contains(Modifier.PRIVATE)) {
+            return name;
+        }
+        String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        boolean isBoolean = field.asType().getKind() == TypeKind.BOOLEAN;
+        for (ExecutableElement method : ElementFilter.methodsIn(owner.getEnclosedElements())) {
+            String methodName = method.getSimpleName().toString();
+            if (!method.getParameters().isEmpty()
+                    || method.getModifiers().contains(Modifier.PRIVATE)
+                    || method.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            if (methodName.equals("get" + suffix)
+                    || (isBoolean && (methodName.equals("is" + suffix) || methodName.equals(name)))) {
+                return methodName + "()";
+            }
+        }
+        return null;
+    }
+
+    private TypeElement superclassOf(TypeElement element) {
+        TypeMirror superclass = element.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        return (TypeElement) ((DeclaredType) superclass).asElement();
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.core
+
+/**
+ * 可冻结请求卡片的基础实现，修改方法中调用 [checkNotFrozen]，
+ * 默认浅拷贝，字段中持有可变对象时需重写 [clone]
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 11:50 下午
+ */
+abstract class AbstractFreezableCard : FreezableCard, Cloneable {
+
+    @Volatile
+    @Transient
+    private var frozen = false
+
+    override fun freeze() {
+        frozen = true
+    }
+
+    override fun isFrozen(): Boolean = frozen
+
+    /**
+     * 核实未冻结，修改字段前调用
+     */
+    protected fun checkNotFrozen() {
+        if (frozen) {
+            throw IllegalStateException("card is frozen, update it through CardHolder")
+        }
+    }
+
+    /**
+     * 拷贝，返回未冻结的卡片
+     */
+    @Throws(CloneNotSupportedException::class)
+    override fun clone(): Any {
+        val card = super<Cloneable>.clone() as AbstractFreezableCard
+        card.frozen = false
+        return card
+    }
+}
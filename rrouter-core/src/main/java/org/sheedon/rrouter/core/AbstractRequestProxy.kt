@@ -15,8 +15,16 @@
  */
 package org.sheedon.rrouter.core
 
-import android.util.SparseArray
 import java.lang.NullPointerException
+import java.util.ArrayDeque
+import java.util.concurrent.CancellationException
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
 
 /**
  * 抽象请求代理类,数据请求统一通过该类代为执行，请求模块解耦，
@@ -31,8 +39,8 @@ abstract class AbstractRequestProxy<RequestCard, ResponseModel>(
     private var callback: DataSource.Callback<ResponseModel>?// 反馈监听器
 ) : RequestProxy.RequestProxyFactory() {
 
-    // 真实调度的请求组
-    private var requestStrategies: SparseArray<Request<RequestCard>>?
+    // 策略执行计划，持有策略执行者、请求流程与真实调度的请求组
+    private var plan: StrategyPlan<RequestCard>?
 
     // 进度
     private var chain: ProcessChain?
@@ -40,24 +48,83 @@ abstract class AbstractRequestProxy<RequestCard, ResponseModel>(
     // 请求卡片
     private var requestCard: RequestCard? = null
 
+    // 请求卡片的指纹，卡片未生成指纹时无效
+    private var cardFingerprint: Long = 0
+
     private val strategyCallback by lazy {
         StrategyInternalCallback()
     }
 
+    // 当前所在的合并执行，未开启请求合并时始终为空
+    @Volatile
+    private var flight: SingleFlightGroup.Flight? = null
+
+    private val flightWaiter by lazy {
+        FlightWaiter()
+    }
+
+    // 请求指标监听，未设置时不产生任何指标事件
+    private val metrics: RequestMetrics? = RRouter.getInstance().configRepository.getRequestMetrics()
+
+    // 流程链开始时间
+    @Volatile
+    private var chainStartNanos: Long = 0
+
+    // 当前流程链是否已上报完成
+    private val chainReported = AtomicBoolean(true)
+
+    // 整体请求截止时间点（System.nanoTime），0 为不限制
+    @Volatile
+    private var deadlineNanos: Long = 0
+
+    // 执行编号，每次重新请求递增，用于废弃上一次执行的超时任务
+    private val runId = AtomicInteger()
+
+    // 各「请求中」流程的超时任务，以「执行编号 + 流程坐标」为键，避免同一流程重复安排
+    private val timeoutFutures = ConcurrentHashMap<Long, ScheduledFuture<*>>()
+
+    // 已处理整体截止的执行编号，多个流程同时到达截止时间只处理一次
+    private val deadlineRun = AtomicInteger(-1)
+
+    // 异步请求，当前执行与排队中的执行由 asyncLock 保护
+    private val asyncLock = Any()
+
+    @Volatile
+    private var asyncRun: AsyncRun? = null
+    private val asyncQueue = ArrayDeque<AsyncRun>()
+
+    // 步骤监听
+    private val stepObservers = CopyOnWriteArrayList<StepObserver<ResponseModel>>()
+
+    // 当前流程链是否已通知步骤监听执行结束
+    private val stepsFinished = AtomicBoolean(true)
+
     init {
 
         // 通过请求工厂创建真实请求策略集合
-        requestStrategies = request.createRequestStrategies(strategyCallback)
-        if (requestStrategies!!.size() == 0) {
+        val requestStrategies = request.createRequestStrategies(strategyCallback)
+        if (requestStrategies.size() == 0) {
             throw NullPointerException("requestStrategies is null or empty!")
         }
-        val handler = bindStrategyHandler()
+
+        // 解析策略执行计划，后续请求与反馈直接按计划执行
+        val plan = StrategyPlan.create(
+            bindStrategyHandler(),
+            request.onLoadRequestStrategyType(),
+            requestStrategies,
+            metrics
+        )
+        this.plan = plan
 
         // 加载请求策略,填充流程链，设置状态为未开始
-        val strategyArray = handler.loadRequestProcess(request.onLoadRequestStrategyType())
-        chain = ProcessChain(*strategyArray!!)
+        chain = plan.newProcessChain()
     }
 
+    /**
+     * 获取策略执行计划，销毁后返回空
+     */
+    fun getStrategyPlan(): StrategyPlan<RequestCard>? = plan
+
     /**
      * 绑定策略执行者
      */
@@ -76,36 +143,550 @@ abstract class AbstractRequestProxy<RequestCard, ResponseModel>(
      * 需要请求的条件下
      * 1. 重置状态
      * 2. 核实并且填充请求类 RequestCard
-     * 3. 执行调度
-     *
+     * 3. 开启请求合并时，存在一致的执行中请求，则挂载等待结果
+     * 4. 执行调度
      *
+     * 整体请求截止时长采用 [ConfigRepository.Builder.requestDeadline] 的配置
      */
     override fun request() {
+        request(RRouter.getInstance().configRepository.getRequestDeadlineNanos(), TimeUnit.NANOSECONDS)
+    }
+
+    /**
+     * 执行请求操作，并指定本次请求的整体截止时长，
+     * 超过截止时长仍未完成，则取消执行中的请求并反馈失败 [MESSAGE_DEADLINE_EXCEEDED]
+     *
+     * @param deadline 截止时长，0 为不限制
+     * @param unit     时间单位
+     */
+    fun request(deadline: Long, unit: TimeUnit) {
+        request(onCreateRequestCard(), deadline, unit)
+    }
+
+    /**
+     * 以指定的请求卡片执行请求操作，不经过 [onCreateRequestCard]，
+     * 整体请求截止时长采用 [ConfigRepository.Builder.requestDeadline] 的配置
+     *
+     * @param requestCard 请求卡片
+     */
+    fun request(requestCard: RequestCard) {
+        request(
+            requestCard,
+            RRouter.getInstance().configRepository.getRequestDeadlineNanos(),
+            TimeUnit.NANOSECONDS
+        )
+    }
+
+    /**
+     * 以指定的请求卡片执行请求操作，并指定本次请求的整体截止时长
+     *
+     * @param requestCard 请求卡片
+     * @param deadline    截止时长，0 为不限制
+     * @param unit        时间单位
+     */
+    fun request(requestCard: RequestCard, deadline: Long, unit: TimeUnit) {
+        // 执行中的异步请求被不一致的请求取代
+        if (asyncRun != null) {
+            supersedeAsync(requestCard)
+        }
+        execute(requestCard, deadline, unit)
+    }
+
+    /**
+     * 以 [onCreateRequestCard] 创建的请求卡片执行异步请求
+     *
+     * @see requestAsync
+     */
+    fun requestAsync(): CompletableFuture<ResponseModel?> = requestAsync(onCreateRequestCard())
+
+    /**
+     * 执行异步请求，由策略执行者的最终结果完成返回的 CompletableFuture，
+     * 请求失败则以 [DataNotAvailableException] 异常完成，构造时传入的反馈监听器同样收到反馈。
+     * 1. 请求卡片与执行中的异步请求一致，则共享该执行的结果
+     * 2. 不一致则排队，上一次执行完成后依次执行，排队中一致的请求卡片合并为一次执行
+     * 3. 取消 CompletableFuture 则退出等待，共享该执行的全部 CompletableFuture 均已取消时，
+     *    执行 [RequestFactory.onCancel] 取消真实请求
+     *
+     * 先反馈过期数据再刷新的策略（如过期重验证），以最后一次成功的数据完成。
+     *
+     * @param requestCard 请求卡片
+     * @return 请求结果
+     */
+    fun requestAsync(requestCard: RequestCard): CompletableFuture<ResponseModel?> {
+        val future = CompletableFuture<ResponseModel?>()
+        val key = CardFingerprints.keyOf(requestCard)
+        if (plan == null) {
+            future.completeExceptionally(CancellationException(MESSAGE_DESTROYED))
+            return future
+        }
+        val start = synchronized(asyncLock) {
+            val current = asyncRun
+            when {
+                current == null -> {
+                    val run = AsyncRun(requestCard, key)
+                    run.futures.add(future)
+                    asyncRun = run
+                    run
+                }
+                !current.settled && current.key == key -> {
+                    current.futures.add(future)
+                    null
+                }
+                else -> {
+                    val queued = asyncQueue.firstOrNull { it.key == key }
+                        ?: AsyncRun(requestCard, key).also { asyncQueue.addLast(it) }
+                    queued.futures.add(future)
+                    null
+                }
+            }
+        }
+        future.whenComplete { _, error ->
+            if (error is CancellationException) cancelAsync(future)
+        }
+        if (start != null) {
+            startAsync(start)
+        }
+        return future
+    }
+
+    /**
+     * 执行请求操作
+     */
+    private fun execute(requestCard: RequestCard, deadline: Long, unit: TimeUnit) {
+        val fingerprint = CardFingerprints.of(requestCard)
         if (chain!!.getCurrentStatus() == ProcessChain.STATUS_REQUESTING) {
             // 当前进度请求中，则核实是否数据是否更改，更改才重新请求
-            val requestCard = onCreateRequestCard()
-            if (requestCard != this.requestCard) {
+            if (!isSameCard(requestCard, fingerprint)) {
                 request.onCancel()
             } else {
                 return
             }
         }
 
+        // 离开上一次的合并执行
+        leaveFlight()
+        // 废弃上一次执行的超时任务，先于重置进度，使仍在处理上一次反馈的线程得知已重新请求
+        cancelTimeout()
         // 重置进度
         chain!!.reset()
+        stepsFinished.set(false)
+        // 记录本次截止时间
+        deadlineNanos = if (deadline > 0) System.nanoTime() + unit.toNanos(deadline) else 0
         // 其他流程 - 未开始/已完成
         // 核实拿到 requestCard
-        checkRequestCard()
+        checkRequestCard(requestCard, fingerprint)
+        // 挂载到一致的执行中请求，等待领队反馈
+        if (joinFlight()) {
+            return
+        }
         // 请求执行
+        startChain()
         requestDispatch()
     }
 
     /**
-     * 获取请求卡片，并且copy到当前requestCard
+     * 流程链开始执行，记录开始事件
+     */
+    private fun startChain() {
+        val metrics = metrics ?: return
+        val plan = plan ?: return
+        chainStartNanos = System.nanoTime()
+        chainReported.set(false)
+        metrics.onChainStart(plan.strategyType)
+    }
+
+    /**
+     * 流程链执行完成，记录完成事件，同一流程链只记录一次
+     */
+    private fun completeChain(plan: StrategyPlan<RequestCard>, isSuccess: Boolean) {
+        val metrics = metrics ?: return
+        if (!chainReported.compareAndSet(false, true)) return
+        metrics.onChainComplete(
+            plan.strategyType, isSuccess,
+            System.nanoTime() - chainStartNanos
+        )
+    }
+
+    /**
+     * 本次请求剩余的时间预算，纳秒，未设置截止时长则返回 [Long.MAX_VALUE]
+     */
+    fun getRemainingNanos(): Long {
+        val deadline = deadlineNanos
+        if (deadline == 0L) return Long.MAX_VALUE
+        return maxOf(0, deadline - System.nanoTime())
+    }
+
+    /**
+     * 为每个「请求中」的流程安排超时任务，
+     * 超时时长取该请求类型的单步超时与剩余时间预算中较小者
+     */
+    private fun scheduleTimeout(plan: StrategyPlan<RequestCard>, chain: ProcessChain) {
+        val deadline = deadlineNanos
+        val repository = RRouter.getInstance().configRepository
+        if (deadline == 0L && !repository.hasRequestTimeouts()) return
+
+        val run = runId.get()
+        pruneTimeouts(chain, run)
+        for (index in 0 until chain.size()) {
+            if (chain.getStatus(index) != ProcessChain.STATUS_REQUESTING) continue
+            val step = (run.toLong() shl 32) or index.toLong()
+            if (timeoutFutures.containsKey(step)) continue
+
+            val requestType = chain.getProcess(index)
+            val stepNanos = repository.getRequestTimeoutNanos(requestType)
+            val remaining = if (deadline == 0L) 0 else deadline - System.nanoTime()
+            val isDeadline = deadline != 0L && (stepNanos == 0L || remaining <= stepNanos)
+            if (!isDeadline && stepNanos == 0L) continue
+            val delay = if (isDeadline) maxOf(0, remaining) else stepNanos
+
+            // 定时线程只发出信号，取消、推进与反馈移交该请求类型的执行器
+            val executor = repository.getRequestExecutor(requestType)
+            timeoutFutures.computeIfAbsent(step) {
+                TimeoutScheduler.schedule(delay) {
+                    TimeoutScheduler.post(executor) { onTimeout(run, index, isDeadline) }
+                }
+            }
+        }
+    }
+
+    /**
+     * 取消已不在「请求中」的流程及更早执行的超时任务
+     */
+    private fun pruneTimeouts(chain: ProcessChain, run: Int) {
+        val iterator = timeoutFutures.entries.iterator()
+        while (iterator.hasNext()) {
+            val entry = iterator.next()
+            val stepRun = (entry.key ushr 32).toInt()
+            val index = entry.key.toInt()
+            if (stepRun > run) continue
+            if (stepRun == run && chain.getStatus(index) == ProcessChain.STATUS_REQUESTING) continue
+            entry.value.cancel(false)
+            iterator.remove()
+        }
+    }
+
+    /**
+     * 取消指定执行及更早执行的超时任务，
+     * 反馈后立即重新请求时，保留新一次执行已安排的超时任务
+     *
+     * @param run 执行编号
+     */
+    private fun cancelStepTimeouts(run: Int) {
+        val iterator = timeoutFutures.entries.iterator()
+        while (iterator.hasNext()) {
+            val entry = iterator.next()
+            if ((entry.key ushr 32).toInt() > run) continue
+            entry.value.cancel(false)
+            iterator.remove()
+        }
+    }
+
+    /**
+     * 取消当前超时任务，并废弃已安排的执行
+     */
+    private fun cancelTimeout() {
+        cancelStepTimeouts(runId.getAndIncrement())
+    }
+
+    /**
+     * 超时处理，在请求类型的执行器（未配置则为 [TimeoutScheduler.worker]）中取消超时的请求
+     * 1. 单步超时，按请求失败处理，由策略执行者完成该流程并进入下一流程
+     * 2. 整体截止，完成全部流程并反馈失败
+     */
+    private fun onTimeout(run: Int, index: Int, isDeadline: Boolean) {
+        if (runId.get() != run) return
+        val plan = plan ?: return
+        val chain = chain ?: return
+        if (chain.getStatus(index) != ProcessChain.STATUS_REQUESTING) return
+
+        if (isDeadline) {
+            if (deadlineRun.getAndSet(run) == run) return
+            onDeadlineExceeded(plan, chain)
+            return
+        }
+        val requestType = chain.getProcess(index)
+        cancelOnTimeout(plan.requestStrategies[requestType])
+        strategyCallback.forRequestType(requestType).onDataNotAvailable(MESSAGE_REQUEST_TIMEOUT)
+    }
+
+    /**
+     * 取消超时的请求，先逐层通知 [Request.TimeoutAware]，使其按超时而非主动取消处理
+     */
+    private fun cancelOnTimeout(request: Request<RequestCard>?) {
+        var current: Request<*>? = request
+        while (current != null) {
+            if (current is Request.TimeoutAware) current.onTimeout()
+            current = (current as? Request.Wrapper<*>)?.delegate()
+        }
+        request?.onCancel()
+    }
+
+    /**
+     * 超过整体截止时长，取消全部执行中的请求，完成流程并反馈失败
+     */
+    private fun onDeadlineExceeded(plan: StrategyPlan<RequestCard>, chain: ProcessChain) {
+        if (chain.isAllCompleted()) return
+        for (index in 0 until chain.size()) {
+            if (chain.getStatus(index) == ProcessChain.STATUS_REQUESTING) {
+                cancelOnTimeout(plan.requestStrategies[chain.getProcess(index)])
+            }
+        }
+        chain.updateAllStatusToCompleted()
+        completeChain(plan, false)
+        notifyCallback(false, null, MESSAGE_DEADLINE_EXCEEDED)
+        deliverToFlight(null, MESSAGE_DEADLINE_EXCEEDED, false, true)
+        deliverAsync(null, MESSAGE_DEADLINE_EXCEEDED, false, true)
+        notifyStep(0, null, MESSAGE_DEADLINE_EXCEEDED, false, true)
+        drainAsync()
+    }
+
+    /**
+     * 添加步骤监听，接收之后每次执行的各步骤反馈与执行结束
+     */
+    fun addStepObserver(observer: StepObserver<ResponseModel>) {
+        stepObservers.add(observer)
+    }
+
+    fun removeStepObserver(observer: StepObserver<ResponseModel>) {
+        stepObservers.remove(observer)
+    }
+
+    /**
+     * 通知步骤监听本次反馈
+     *
+     * @param requestType 反馈来源的请求类型，来源未知（如合并执行、整体截止）为 0
+     */
+    private fun notifyStep(
+        requestType: Int, responseModel: ResponseModel?, message: String?,
+        isSuccess: Boolean, isComplete: Boolean
+    ) {
+        if (stepObservers.isEmpty()) return
+        val result = StepResult(
+            requestType, responseModel, message,
+            isSuccess, isComplete, System.currentTimeMillis()
+        )
+        // 先标记执行结束再分发，监听在最终结果中发起的下一次执行不会收到本次的结束通知
+        val finished = isComplete && stepsFinished.compareAndSet(false, true)
+        val observers = stepObservers.toTypedArray()
+        for (observer in observers) {
+            observer.onStep(result)
+        }
+        if (finished) {
+            for (observer in observers) {
+                observer.onChainComplete()
+            }
+        }
+    }
+
+    /**
+     * 通知步骤监听执行结束，同一流程链只通知一次
+     */
+    private fun finishSteps() {
+        if (!stepsFinished.compareAndSet(false, true)) return
+        for (observer in stepObservers) {
+            observer.onChainComplete()
+        }
+    }
+
+    /**
+     * 开始异步执行，整体请求截止时长采用 [ConfigRepository.Builder.requestDeadline] 的配置
+     */
+    private fun startAsync(run: AsyncRun) {
+        if (chain == null) return
+        execute(
+            run.requestCard,
+            RRouter.getInstance().configRepository.getRequestDeadlineNanos(),
+            TimeUnit.NANOSECONDS
+        )
+    }
+
+    /**
+     * 记录异步执行的反馈，最终结果则完成该执行
+     */
+    private fun deliverAsync(
+        responseModel: ResponseModel?, message: String?,
+        isSuccess: Boolean, isFinal: Boolean
+    ) {
+        val run = asyncRun ?: return
+        if (isSuccess) {
+            run.model = responseModel
+            run.hasValue = true
+        } else {
+            run.message = message
+        }
+        if (isFinal) {
+            settleAsync(run)
+        }
+    }
+
+    /**
+     * 完成异步执行，有成功的反馈则以最后一次成功的数据完成，否则以失败完成
+     */
+    private fun settleAsync(run: AsyncRun) {
+        val futures = synchronized(asyncLock) {
+            if (run.settled) return
+            run.settled = true
+            ArrayList(run.futures).also { run.futures.clear() }
+        }
+        for (future in futures) {
+            if (run.hasValue) {
+                future.complete(run.model)
+            } else {
+                future.completeExceptionally(DataNotAvailableException(run.message))
+            }
+        }
+    }
+
+    /**
+     * 当前异步执行已完成，则开始下一个排队的执行
+     */
+    private fun drainAsync() {
+        val next = synchronized(asyncLock) {
+            val current = asyncRun ?: return
+            if (!current.settled) return
+            asyncQueue.pollFirst().also { asyncRun = it }
+        } ?: return
+        startAsync(next)
+    }
+
+    /**
+     * 同步请求以不一致的请求卡片重新请求，取消执行中的异步请求，
+     * 新的执行完成后再开始排队中的执行
+     */
+    private fun supersedeAsync(requestCard: RequestCard) {
+        val futures = synchronized(asyncLock) {
+            val current = asyncRun ?: return
+            val key = CardFingerprints.keyOf(requestCard)
+            if (current.settled || current.key == key) return
+            val futures = ArrayList(current.futures)
+            current.futures.clear()
+            current.settled = true
+            asyncRun = AsyncRun(requestCard, key)
+            futures
+        }
+        for (future in futures) {
+            future.completeExceptionally(CancellationException(MESSAGE_SUPERSEDED))
+        }
+    }
+
+    /**
+     * CompletableFuture 被取消，退出等待，
+     * 当前执行已无等待的 CompletableFuture 则取消真实请求并开始下一个排队的执行
+     */
+    private fun cancelAsync(future: CompletableFuture<ResponseModel?>) {
+        val cancelCurrent = synchronized(asyncLock) {
+            val current = asyncRun
+            if (current != null && !current.settled && current.futures.remove(future)) {
+                if (current.futures.isEmpty()) {
+                    current.settled = true
+                    true
+                } else false
+            } else {
+                val queued = asyncQueue.firstOrNull { it.futures.remove(future) }
+                if (queued != null && queued.futures.isEmpty()) {
+                    asyncQueue.remove(queued)
+                }
+                false
+            }
+        }
+        if (!cancelCurrent) return
+        cancelChain()
+        drainAsync()
+    }
+
+    /**
+     * 取消执行中的请求，不再反馈结果，步骤监听收到执行结束，
+     * 执行中的异步请求以 [MESSAGE_CANCELLED] 的 CancellationException 完成，之后开始排队中的异步执行
+     */
+    fun cancel() {
+        val futures = synchronized(asyncLock) {
+            val current = asyncRun
+            if (current == null || current.settled) {
+                null
+            } else {
+                current.settled = true
+                ArrayList(current.futures).also { current.futures.clear() }
+            }
+        }
+        cancelChain()
+        futures?.forEach { it.completeExceptionally(CancellationException(MESSAGE_CANCELLED)) }
+        drainAsync()
+    }
+
+    /**
+     * 取消真实请求并结束当前流程链
+     */
+    private fun cancelChain() {
+        val plan = plan ?: return
+        val chain = chain ?: return
+        cancelTimeout()
+        leaveFlight()
+        request.onCancel()
+        chain.updateAllStatusToCompleted()
+        completeChain(plan, false)
+        finishSteps()
+    }
+
+    /**
+     * 加入请求合并组
+     *
+     * @return 是否挂载到其他代理的执行上，是则无需自行执行
+     */
+    private fun joinFlight(): Boolean {
+        val group = RRouter.getInstance().configRepository.getSingleFlightGroup() ?: return false
+        val key = SingleFlightGroup.Key(
+            request.javaClass,
+            plan?.strategyType ?: request.onLoadRequestStrategyType(),
+            CardFingerprints.keyOf(requestCard)
+        )
+        val flight = group.join(key, flightWaiter)
+        this.flight = flight
+        return !flight.isLeader(flightWaiter)
+    }
+
+    /**
+     * 离开当前合并执行，领队离开则等待者各自执行
+     */
+    private fun leaveFlight() {
+        val flight = this.flight ?: return
+        this.flight = null
+        flight.leave(flightWaiter)
+    }
+
+    /**
+     * 请求卡片是否与当前请求卡片一致，
+     * 存在指纹则比较指纹与字段，否则使用 equals
+     */
+    private fun isSameCard(requestCard: RequestCard, fingerprint: CardFingerprint<Any>?): Boolean {
+        val current = this.requestCard
+        if (fingerprint == null || current == null || requestCard == null) {
+            return requestCard == current
+        }
+        if (current.javaClass != (requestCard as Any).javaClass) return false
+        // 当前卡片未拷贝时与新卡片为同一实例，仅依赖记录的指纹判定
+        return fingerprint.fingerprint(requestCard) == cardFingerprint &&
+                (current === requestCard || fingerprint.fieldsEqual(requestCard, current))
+    }
+
+    /**
+     * 获取请求卡片，并且copy到当前requestCard，
+     * 1. 卡片存在指纹且未发生变化，则沿用当前卡片，无需再次拷贝
+     * 2. 可冻结的卡片冻结后直接持有，无需拷贝
      */
     @Suppress("UNCHECKED_CAST")
-    private fun checkRequestCard() {
-        val requestCard = onCreateRequestCard()
+    private fun checkRequestCard(requestCard: RequestCard, fingerprint: CardFingerprint<Any>?) {
+        if (fingerprint != null) {
+            if (isSameCard(requestCard, fingerprint)) {
+                return
+            }
+            cardFingerprint = fingerprint.fingerprint(requestCard as Any)
+        }
+        if (requestCard is FreezableCard) {
+            // 冻结后不可修改，直接作为快照持有，无需拷贝
+            requestCard.freeze()
+            this.requestCard = requestCard
+            return
+        }
         if (requestCard is DataCloneable) {
             try {
                 this.requestCard = (requestCard as DataCloneable).clone() as RequestCard?
@@ -121,17 +702,22 @@ abstract class AbstractRequestProxy<RequestCard, ResponseModel>(
      * 策略执行器 根据请求策略方式，执行请求操作
      */
     private fun requestDispatch() {
-        val handler = bindStrategyHandler()
-        val strategyType = request.onLoadRequestStrategyType()
+        val plan = plan ?: return
+        val chain = chain ?: return
+
+        // 已超过整体截止时长，不再调度
+        if (deadlineNanos != 0L && deadlineNanos - System.nanoTime() <= 0) {
+            onDeadlineExceeded(plan, chain)
+            return
+        }
 
         // 获取当前状态
-        val isSuccess = handler.handleRequestStrategy(
-            strategyType, chain!!,
-            requestStrategies!!, requestCard
-        )
+        val isSuccess = plan.dispatchRequest(chain, requestCard)
         if (!isSuccess) {
             strategyCallback.onDataNotAvailable("request failure")
+            return
         }
+        scheduleTimeout(plan, chain)
     }
 
     /**
@@ -141,87 +727,293 @@ abstract class AbstractRequestProxy<RequestCard, ResponseModel>(
     protected abstract fun onCreateRequestCard(): RequestCard
 
     /**
-     * 策略反馈监听器
+     * 策略反馈监听器，请求工厂通过 [forRequestType] 为每个真实请求提供携带请求类型的反馈监听器
      */
-    inner class StrategyInternalCallback : StrategyCallback<ResponseModel> {
+    inner class StrategyInternalCallback : StrategyCallback.Typed<ResponseModel> {
+
+        // 各请求类型的反馈监听器
+        private val typedCallbacks = ConcurrentHashMap<Int, TypedCallback>()
+
+        override fun forRequestType(requestType: Int): StrategyCallback<ResponseModel> {
+            return typedCallbacks.computeIfAbsent(requestType) { TypedCallback(it) }
+        }
+
         /**
-         * 数据加载成功
+         * 数据加载成功，未区分来源，来源按第一个「请求中」的流程推断
          * @param t 反馈数据
          */
         override fun onDataLoaded(t: ResponseModel) {
-            handle(t, "", true, chain)
+            val requestType = inferRequestType()
+            handleResult(t, "", true, requestType, DispatchCallback(requestType))
+            drainAsync()
         }
 
         /**
-         * 数据加载失败
+         * 数据加载失败，未区分来源，来源按第一个「请求中」的流程推断
          * @param message 描述信息
          */
         override fun onDataNotAvailable(message: String?) {
-            handle(null, message, false, chain)
+            val requestType = inferRequestType()
+            handleResult(null, message, false, requestType, DispatchCallback(requestType))
+            drainAsync()
         }
 
-        /**
-         * 反馈结果处理
-         * @param responseModel 反馈数据Model
-         * @param message 描述信息
-         * @param isSuccess 是否成功
-         */
-        private fun handle(
-            responseModel: ResponseModel?, message: String?, isSuccess: Boolean,
-            chain: ProcessChain?
-        ) {
-            if (callback == null) return
+        private fun inferRequestType(): Int {
+            val chain = chain ?: return 0
+            val index = chain.indexOfStatus(ProcessChain.STATUS_REQUESTING)
+            return if (index < 0) 0 else chain.getProcess(index)
+        }
+    }
+
+    /**
+     * 单个请求类型的反馈监听器
+     */
+    private inner class TypedCallback(
+        private val requestType: Int
+    ) : StrategyCallback<ResponseModel> {
 
+        private val dispatch = DispatchCallback(requestType)
 
-            // 加载策略执行者，无执行者，则直接反馈给callback，否则提交给执行器去执行
-            val handler = bindStrategyHandler()
+        override fun onDataLoaded(t: ResponseModel) {
+            handleResult(t, "", true, requestType, dispatch)
+            drainAsync()
+        }
+
+        override fun onDataNotAvailable(message: String?) {
+            handleResult(null, message, false, requestType, dispatch)
+            drainAsync()
+        }
+    }
 
-            // 加载请求策略类型
-            val type = request.onLoadRequestStrategyType()
+    /**
+     * 反馈结果处理
+     * @param responseModel 反馈数据Model
+     * @param message 描述信息
+     * @param isSuccess 是否成功
+     * @param requestType 反馈来源的请求类型
+     * @param dispatch 该请求类型的反馈分发
+     */
+    private fun handleResult(
+        responseModel: ResponseModel?, message: String?, isSuccess: Boolean,
+        requestType: Int, dispatch: DispatchCallback
+    ) {
+        // 无人接收反馈时不再处理，领队仍需将结果分发给合并执行的等待者
+        if (callback == null && asyncRun == null && stepObservers.isEmpty() && flight == null) return
 
+        // 策略执行计划，已销毁则不再处理
+        val plan = plan ?: return
+        val chain = chain ?: return
+        // 反馈所属的执行，反馈监听器中可能立即重新请求
+        val run = runId.get()
 
-            // 执行反馈处理
-            val handleSuccess = handler.handleCallbackStrategy(
-                type, chain!!,
-                callback, responseModel, message, isSuccess
-            )
+        plan.recordResult(requestType, isSuccess)
 
-            // 当前状态为完成，则代表执行完成
-            if (chain.getCurrentStatus() == ProcessChain.STATUS_COMPLETED) {
-                return
-            }
+        // 执行反馈处理
+        val handleSuccess = plan.dispatchCallback(
+            chain, dispatch,
+            responseModel, message, isSuccess
+        )
+        // 反馈期间已重新请求，流程链属于新一次执行，不再处理
+        if (runId.get() != run) return
 
-            // 执行未完成，执行下一个
-            if (handleSuccess) {
-                requestDispatch()
-                return
+        if (chain.isAllCompleted()) {
+            cancelStepTimeouts(run)
+            completeChain(plan, isSuccess)
+            // 流程全部完成但未产生最终反馈，等待者各自执行
+            flight?.let {
+                if (it.isLeader(flightWaiter)) it.abandon()
             }
+            asyncRun?.let { settleAsync(it) }
+            finishSteps()
+        }
 
-            // 无执行器执行
-            notifyCallback(isSuccess, responseModel, message)
+        // 当前状态为完成，则代表执行完成
+        if (chain.getCurrentStatus() == ProcessChain.STATUS_COMPLETED) {
+            return
         }
 
-        private fun notifyCallback(
-            isSuccess: Boolean,
-            responseModel: ResponseModel?,
-            message: String?
-        ) {
-            // 无执行器执行
-            if (isSuccess) {
-                callback?.onDataLoaded(responseModel)
+        // 执行未完成，执行下一个
+        if (handleSuccess) {
+            if (runId.get() != run) return
+            requestDispatch()
+            return
+        }
+        cancelStepTimeouts(run)
+
+        // 无执行器执行
+        completeChain(plan, isSuccess)
+        notifyCallback(isSuccess, responseModel, message)
+        deliverToFlight(responseModel, message, isSuccess, true)
+        deliverAsync(responseModel, message, isSuccess, true)
+        notifyStep(requestType, responseModel, message, isSuccess, true)
+    }
+
+    private fun notifyCallback(
+        isSuccess: Boolean,
+        responseModel: ResponseModel?,
+        message: String?
+    ) {
+        if (isSuccess) {
+            callback?.onDataLoaded(responseModel)
+        } else {
+            callback?.onDataNotAvailable(message)
+        }
+    }
+
+    /**
+     * 领队执行时，将反馈结果分发到合并执行的等待者
+     *
+     * @param isFinal 是否为最终结果，最终结果分发后合并执行结束
+     */
+    private fun deliverToFlight(
+        responseModel: ResponseModel?, message: String?,
+        isSuccess: Boolean, isFinal: Boolean
+    ) {
+        val flight = this.flight ?: return
+        if (!flight.isLeader(flightWaiter)) return
+        if (isFinal) {
+            flight.complete(responseModel, message, isSuccess)
+        } else {
+            flight.publish(responseModel, message, isSuccess)
+        }
+    }
+
+    /**
+     * 反馈分发，领队执行时同步分发到合并执行的等待者，
+     * 策略执行者反馈前已更新流程链，流程全部完成即为最终结果，
+     * 新鲜度标记只分发给实现了 [DataSource.FreshnessCallback] 的反馈监听器，
+     * 策略执行者可通过 [DataSource.SourceCallback] 获取反馈来源
+     *
+     * @param requestType 反馈来源的请求类型
+     */
+    private inner class DispatchCallback(
+        private val requestType: Int
+    ) : DataSource.FreshnessCallback<ResponseModel>, DataSource.SourceCallback {
+
+        override fun getRequestType(): Int = requestType
+
+        override fun onDataLoaded(t: ResponseModel?) {
+            callback?.onDataLoaded(t)
+            val isFinal = chain?.isAllCompleted() != false
+            deliverToFlight(t, "", true, isFinal)
+            deliverAsync(t, "", true, isFinal)
+            notifyStep(requestType, t, "", true, isFinal)
+        }
+
+        override fun onDataLoaded(t: ResponseModel?, isStale: Boolean) {
+            val callback = callback
+            if (callback is DataSource.FreshnessCallback) {
+                callback.onDataLoaded(t, isStale)
             } else {
-                callback?.onDataNotAvailable(message)
+                callback?.onDataLoaded(t)
             }
+            val isFinal = chain?.isAllCompleted() != false
+            deliverToFlight(t, "", true, isFinal)
+            deliverAsync(t, "", true, isFinal)
+            notifyStep(requestType, t, "", true, isFinal)
         }
+
+        override fun onDataNotAvailable(message: String?) {
+            callback?.onDataNotAvailable(message)
+            val isFinal = chain?.isAllCompleted() != false
+            deliverToFlight(null, message, false, isFinal)
+            deliverAsync(null, message, false, isFinal)
+            notifyStep(requestType, null, message, false, isFinal)
+        }
+    }
+
+    /**
+     * 合并执行等待者
+     */
+    private inner class FlightWaiter : SingleFlightGroup.Waiter {
+        @Suppress("UNCHECKED_CAST")
+        override fun onFlightResult(model: Any?, message: String?, isSuccess: Boolean) {
+            notifyCallback(isSuccess, model as ResponseModel?, message)
+            // 合并执行完成时先移除再分发，已移除即为最终结果
+            val isFinal = flight?.isDone != false
+            deliverAsync(model, message, isSuccess, isFinal)
+            // 合并执行的反馈来源未知
+            notifyStep(0, model, message, isSuccess, isFinal)
+            drainAsync()
+        }
+
+        override fun onFlightAbandoned() {
+            flight = null
+            if (chain == null) return
+            startChain()
+            requestDispatch()
+        }
+    }
+
+    /**
+     * 异步请求的一次执行
+     */
+    private inner class AsyncRun(
+        val requestCard: RequestCard,
+        // 请求卡片的比较键
+        val key: Any?
+    ) {
+        // 等待结果的 CompletableFuture，由 asyncLock 保护
+        val futures = ArrayList<CompletableFuture<ResponseModel?>>(1)
+
+        // 是否已完成，由 asyncLock 保护
+        var settled = false
+
+        @Volatile
+        var model: ResponseModel? = null
+
+        @Volatile
+        var hasValue = false
+
+        @Volatile
+        var message: String? = null
     }
 
     /**
-     * 销毁
+     * 销毁，取消等待中的异步请求，通知步骤监听执行结束
      */
     override fun onDestroy() {
+        finishSteps()
+        cancelTimeout()
+        leaveFlight()
         request.onDestroy()
         callback = null
-        requestStrategies = null
+        plan = null
         chain = null
+
+        val futures = synchronized(asyncLock) {
+            val futures = ArrayList<CompletableFuture<ResponseModel?>>()
+            asyncRun?.let {
+                futures.addAll(it.futures)
+                it.futures.clear()
+                it.settled = true
+            }
+            asyncRun = null
+            for (queued in asyncQueue) {
+                futures.addAll(queued.futures)
+            }
+            asyncQueue.clear()
+            futures
+        }
+        for (future in futures) {
+            future.completeExceptionally(CancellationException(MESSAGE_DESTROYED))
+        }
+    }
+
+    companion object {
+        // 单步请求超时的描述信息
+        const val MESSAGE_REQUEST_TIMEOUT = "request timeout"
+
+        // 超过整体截止时长的描述信息
+        const val MESSAGE_DEADLINE_EXCEEDED = "request deadline exceeded"
+
+        // 异步请求被不一致的同步请求取代的描述信息
+        const val MESSAGE_SUPERSEDED = "request superseded"
+
+        // 执行中的请求被取消的描述信息
+        const val MESSAGE_CANCELLED = "request cancelled"
+
+        // 请求代理已销毁的描述信息
+        const val MESSAGE_DESTROYED = "request proxy destroyed"
     }
 }
\ No newline at end of file
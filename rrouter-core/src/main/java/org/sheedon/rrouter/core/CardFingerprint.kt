@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.core
+
+/**
+ * 请求卡片指纹，由注解处理器为标注了 @Fingerprint 的请求卡片生成（类名为「卡片类名$$Fingerprint」），
+ * 也可以通过 [CardFingerprints.register] 手动注册。
+ *
+ * 请求代理使用指纹判定请求卡片是否变化，用于去重、缓存键与跳过重复克隆。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 10:50 下午
+ */
+interface CardFingerprint<Card> {
+
+    /**
+     * 根据卡片字段计算 64 位指纹，字段一致则指纹一致
+     *
+     * @param card 请求卡片
+     * @return 指纹
+     */
+    fun fingerprint(card: Card): Long
+
+    /**
+     * 逐字段比较两个卡片是否一致，用于排除指纹冲突
+     *
+     * @param card  请求卡片
+     * @param other 另一个请求卡片
+     * @return 是否一致
+     */
+    fun fieldsEqual(card: Card, other: Card): Boolean
+}
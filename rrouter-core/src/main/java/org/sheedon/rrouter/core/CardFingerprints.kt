@@ -0,0 +1,231 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.core
+
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * 请求卡片指纹的查找与计算工具
+ * 1. 按卡片类型查找生成的指纹类，查找结果缓存
+ * 2. 提供生成代码使用的字段混合函数，字符串、枚举等按内容计算，同一卡片在不同进程中指纹一致
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 10:50 下午
+ */
+object CardFingerprints {
+
+    // 生成的指纹类后缀
+    const val SUFFIX = "$\$Fingerprint"
+
+    // 初始值
+    const val SEED = -0x340d631b7bdddcdbL
+
+    private const val MULTIPLIER = -0x61c8864680b583ebL
+    private const val NULL_VALUE = 0x27d4eb2f165667c5L
+
+    // 已查找的指纹，不存在则为 NONE
+    private val fingerprints = ConcurrentHashMap<Class<*>, Any>()
+    private val NONE = Any()
+
+    /**
+     * 手动注册卡片类型的指纹
+     *
+     * @param type        卡片类型
+     * @param fingerprint 指纹
+     */
+    @JvmStatic
+    fun <Card> register(type: Class<Card>, fingerprint: CardFingerprint<in Card>) {
+        fingerprints[type] = fingerprint
+    }
+
+    /**
+     * 获取卡片对应的指纹，卡片为空或未生成指纹则返回空
+     */
+    @JvmStatic
+    @Suppress("UNCHECKED_CAST")
+    fun of(card: Any?): CardFingerprint<Any>? {
+        if (card == null) return null
+        val type = card.javaClass
+        var found = fingerprints[type]
+        if (found == null) {
+            val loaded = load(type) ?: NONE
+            found = fingerprints.putIfAbsent(type, loaded) ?: loaded
+        }
+        return if (found === NONE) null else found as CardFingerprint<Any>
+    }
+
+    private fun load(type: Class<*>): Any? {
+        return try {
+            Class.forName(type.name + SUFFIX, true, type.classLoader)
+                .getDeclaredConstructor()
+                .newInstance()
+        } catch (e: ReflectiveOperationException) {
+            null
+        } catch (e: LinkageError) {
+            null
+        }
+    }
+
+    /**
+     * 计算卡片指纹，未生成指纹则返回空
+     */
+    @JvmStatic
+    fun fingerprintOf(card: Any?): Long? {
+        val fingerprint = of(card) ?: return null
+        return fingerprint.fingerprint(card!!)
+    }
+
+    /**
+     * 计算跨进程一致的卡片指纹，用于持久化等场景：
+     * 存在生成的指纹则使用，否则仅字符串、基本类型、枚举及由它们组成的数组、集合按内容计算，
+     * 其他类型的哈希依赖 hashCode（可能为对象标识），返回空
+     */
+    @JvmStatic
+    fun stableFingerprintOf(card: Any?): Long? {
+        fingerprintOf(card)?.let { return it }
+        return if (isStable(card)) mix(SEED, card) else null
+    }
+
+    /**
+     * 是否按内容计算哈希，与 [hashObject] 的分支对应
+     */
+    private fun isStable(value: Any?): Boolean {
+        return when (value) {
+            null, is CharSequence, is Long, is Int, is Short, is Byte,
+            is Double, is Float, is Boolean, is Char, is Enum<*> -> true
+            is IntArray, is LongArray, is ByteArray, is BooleanArray,
+            is DoubleArray, is FloatArray -> true
+            is Array<*> -> value.all { isStable(it) }
+            is Iterable<*> -> value.all { isStable(it) }
+            is Map<*, *> -> value.entries.all { isStable(it.key) && isStable(it.value) }
+            else -> of(value) != null
+        }
+    }
+
+    /**
+     * 获取卡片的比较键，用于请求合并与缓存，
+     * 存在指纹则以「指纹 + 逐字段比较」判定一致，否则为卡片本身
+     */
+    @JvmStatic
+    fun keyOf(card: Any?): Any? {
+        val fingerprint = of(card) ?: return card
+        return Key(fingerprint, card!!, fingerprint.fingerprint(card))
+    }
+
+    /**
+     * 以指纹为哈希码的卡片键
+     */
+    private class Key(
+        private val fingerprint: CardFingerprint<Any>,
+        private val card: Any,
+        private val value: Long
+    ) {
+        override fun equals(other: Any?): Boolean {
+            if (this === other) return true
+            if (other !is Key || other.value != value) return false
+            if (other.card.javaClass != card.javaClass) return false
+            return other.card === card || fingerprint.fieldsEqual(card, other.card)
+        }
+
+        override fun hashCode(): Int = (value xor (value ushr 32)).toInt()
+
+        override fun toString(): String = "Key(${java.lang.Long.toHexString(value)})"
+    }
+
+    /**
+     * 混合 long 字段
+     */
+    @JvmStatic
+    fun mix(hash: Long, value: Long): Long {
+        val h = (hash xor value) * MULTIPLIER
+        return h xor (h ushr 29)
+    }
+
+    @JvmStatic
+    fun mix(hash: Long, value: Int): Long = mix(hash, value.toLong())
+
+    @JvmStatic
+    fun mix(hash: Long, value: Boolean): Long = mix(hash, if (value) 1L else 2L)
+
+    @JvmStatic
+    fun mix(hash: Long, value: Char): Long = mix(hash, value.code.toLong())
+
+    @JvmStatic
+    fun mix(hash: Long, value: Float): Long = mix(hash, java.lang.Float.floatToIntBits(value).toLong())
+
+    @JvmStatic
+    fun mix(hash: Long, value: Double): Long = mix(hash, java.lang.Double.doubleToLongBits(value))
+
+    /**
+     * 混合对象字段，按内容计算
+     */
+    @JvmStatic
+    fun mix(hash: Long, value: Any?): Long = mix(hash, hashObject(value))
+
+    /**
+     * 结束计算，打散低位
+     */
+    @JvmStatic
+    fun finish(hash: Long): Long {
+        var h = hash
+        h = (h xor (h ushr 33)) * -0xae502812aa7333L
+        h = (h xor (h ushr 33)) * -0x3b314601e57a13adL
+        return h xor (h ushr 33)
+    }
+
+    /**
+     * 字符序列的 64 位哈希
+     */
+    @JvmStatic
+    fun hash(value: CharSequence): Long {
+        var h = SEED
+        for (index in 0 until value.length) {
+            h = (h xor value[index].code.toLong()) * MULTIPLIER
+        }
+        return mix(h, value.length)
+    }
+
+    private fun hashObject(value: Any?): Long {
+        return when (value) {
+            null -> NULL_VALUE
+            is CharSequence -> hash(value)
+            is Long -> value
+            is Int -> value.toLong()
+            is Short -> value.toLong()
+            is Byte -> value.toLong()
+            is Double -> java.lang.Double.doubleToLongBits(value)
+            is Float -> java.lang.Float.floatToIntBits(value).toLong()
+            is Boolean -> if (value) 1L else 2L
+            is Char -> value.code.toLong()
+            is Enum<*> -> hash(value.name)
+            is IntArray -> value.fold(SEED) { h, v -> mix(h, v) }
+            is LongArray -> value.fold(SEED) { h, v -> mix(h, v) }
+            is ByteArray -> value.fold(SEED) { h, v -> mix(h, v.toLong()) }
+            is BooleanArray -> value.fold(SEED) { h, v -> mix(h, v) }
+            is DoubleArray -> value.fold(SEED) { h, v -> mix(h, v) }
+            is FloatArray -> value.fold(SEED) { h, v -> mix(h, v) }
+            is Array<*> -> value.fold(SEED) { h, v -> mix(h, v) }
+            is Iterable<*> -> value.fold(SEED) { h, v -> mix(h, v) }
+            is Map<*, *> -> value.entries.fold(0L) { h, e -> h + mix(mix(SEED, e.key), e.value) }
+            else -> {
+                val fingerprint = of(value)
+                fingerprint?.fingerprint(value)
+                    ?: value.hashCode().toLong()
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.core
+
+/**
+ * 请求卡片持有者（写时复制），当前卡片已被请求代理冻结时，修改前先拷贝一份未冻结的卡片，
+ * 未冻结则原地修改。请求代理的 onCreateRequestCard 返回 [get] 即可。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 11:50 下午
+ */
+class CardHolder<Card : FreezableCard>(card: Card) {
+
+    @Volatile
+    private var card: Card = card
+
+    /**
+     * 当前卡片
+     */
+    fun get(): Card = card
+
+    /**
+     * 修改卡片，当前卡片已冻结则在拷贝上修改并替换
+     *
+     * @param block 修改操作
+     * @return 修改后的卡片
+     */
+    @Suppress("UNCHECKED_CAST")
+    fun update(block: (Card) -> Unit): Card {
+        synchronized(this) {
+            var current = card
+            if (current.isFrozen()) {
+                current = current.clone() as Card
+            }
+            block(current)
+            card = current
+            return current
+        }
+    }
+}
@@ -15,7 +15,8 @@
  */
 package org.sheedon.rrouter.core
 
-import android.util.SparseArray
+import java.util.concurrent.Executor
+import java.util.concurrent.TimeUnit
 
 /**
  * 配置类，用于配置
@@ -30,10 +31,44 @@ class ConfigRepository private constructor(builder: Builder) {
     private var rspConverter: Converter<*, IRspModel<*>?>
     private var errorMessage: String = "network data error"
 
+    // 请求合并组，未开启则为空
+    private var singleFlightGroup: SingleFlightGroup? = null
+
+    // 请求指标监听，未设置则为空
+    private var requestMetrics: RequestMetrics? = null
+
+    // 按请求类型配置的单步超时，纳秒
+    private var requestTimeouts: ImmutableIntMap<Long>
+
+    // 默认的整体请求截止时长，纳秒，0 为不限制
+    private var requestDeadlineNanos: Long
+
+    // 全局请求调度器，未设置则为空
+    private var requestScheduler: RequestScheduler? = null
+
+    // 按请求类型配置的执行并发数
+    private var requestParallelism: ImmutableIntMap<Int>
+
+    // 按请求类型配置的执行器
+    private var requestExecutors: ImmutableIntMap<Executor>
+
+    // 扩展配置，以配置类型为键
+    private var extensions: Map<Class<*>, Any>
+
     init {
         strategyHandler = builder.strategyHandler!!
         rspConverter = builder.rspConverter!!.createCheckConverter()!!
         errorMessage = builder.errorMessage
+        if (builder.singleFlight) {
+            singleFlightGroup = SingleFlightGroup()
+        }
+        requestMetrics = builder.requestMetrics
+        requestTimeouts = builder.requestTimeouts.build()
+        requestDeadlineNanos = builder.requestDeadlineNanos
+        requestScheduler = builder.requestScheduler
+        requestParallelism = builder.requestParallelism.build()
+        requestExecutors = builder.requestExecutors.build()
+        extensions = HashMap(builder.extensions)
     }
 
     internal fun getStrategyHandler(): StrategyHandle.Responsibilities {
@@ -46,6 +81,59 @@ class ConfigRepository private constructor(builder: Builder) {
         return rspConverter
     }
 
+    /**
+     * 获取请求合并组，未开启合并则返回空
+     */
+    fun getSingleFlightGroup(): SingleFlightGroup? = singleFlightGroup
+
+    /**
+     * 获取请求指标监听，未设置则返回空
+     */
+    fun getRequestMetrics(): RequestMetrics? = requestMetrics
+
+    /**
+     * 获取请求类型对应的单步超时，纳秒，未配置则返回 0
+     *
+     * @param requestType 请求类型
+     */
+    fun getRequestTimeoutNanos(requestType: Int): Long = requestTimeouts[requestType] ?: 0
+
+    /**
+     * 是否配置了单步超时
+     */
+    fun hasRequestTimeouts(): Boolean = !requestTimeouts.isEmpty()
+
+    /**
+     * 获取默认的整体请求截止时长，纳秒，0 为不限制
+     */
+    fun getRequestDeadlineNanos(): Long = requestDeadlineNanos
+
+    /**
+     * 获取全局请求调度器，未设置则返回空
+     */
+    fun getRequestScheduler(): RequestScheduler? = requestScheduler
+
+    /**
+     * 获取请求类型的执行并发数，未配置则返回 0
+     *
+     * @param requestType 请求类型
+     */
+    fun getRequestParallelism(requestType: Int): Int = requestParallelism[requestType] ?: 0
+
+    /**
+     * 获取请求类型的执行器，未配置则返回空
+     *
+     * @param requestType 请求类型
+     */
+    fun getRequestExecutor(requestType: Int): Executor? = requestExecutors[requestType]
+
+    /**
+     * 获取扩展模块的配置，未设置则返回空
+     *
+     * @param type 配置类型
+     */
+    fun <T> getExtension(type: Class<T>): T? = type.cast(extensions[type])
+
     class Builder {
         // 组策略执行者
         internal var strategyHandler: StrategyHandle.ResponsibilityFactory? = null
@@ -54,13 +142,37 @@ class ConfigRepository private constructor(builder: Builder) {
         private var factory: StrategyHandle.Factory? = null
 
         // 请求类型策略处理集合
-        internal var strategyArray: SparseArray<StrategyHandle>? = null
+        internal var strategyArray: ImmutableIntMap<StrategyHandle>? = null
 
         // 默认结果核实转换器
         internal var rspConverter: Converter.Factory? = null
 
         internal var errorMessage: String = "network data error"
 
+        // 是否开启请求合并
+        internal var singleFlight: Boolean = false
+
+        // 请求指标监听
+        internal var requestMetrics: RequestMetrics? = null
+
+        // 单步超时
+        internal val requestTimeouts = ImmutableIntMap.Builder<Long>()
+
+        // 默认的整体请求截止时长
+        internal var requestDeadlineNanos: Long = 0
+
+        // 全局请求调度器
+        internal var requestScheduler: RequestScheduler? = null
+
+        // 执行并发数
+        internal val requestParallelism = ImmutableIntMap.Builder<Int>()
+
+        // 执行器
+        internal val requestExecutors = ImmutableIntMap.Builder<Executor>()
+
+        // 扩展配置
+        internal val extensions = HashMap<Class<*>, Any>()
+
         /**
          * 策略执行者
          *
@@ -82,12 +194,12 @@ class ConfigRepository private constructor(builder: Builder) {
         }
 
         /**
-         * 请求类型策略处理集合
+         * 请求类型策略处理集合，以策略类型为键
          *
          * @param strategyArray 请求类型策略处理集合
          * @return Builder
          */
-        fun strategyArray(strategyArray: SparseArray<StrategyHandle>) = apply {
+        fun strategyArray(strategyArray: ImmutableIntMap<StrategyHandle>) = apply {
             if (strategyArray.size() == 0) {
                 throw NullPointerException("strategyArray is empty")
             }
@@ -109,6 +221,109 @@ class ConfigRepository private constructor(builder: Builder) {
             this.errorMessage = errorMessage
         }
 
+        /**
+         * 是否开启请求合并，开启后多个请求代理同时发起的一致请求只会真实执行一次
+         *
+         * @param singleFlight 是否开启请求合并
+         * @return Builder
+         */
+        fun singleFlight(singleFlight: Boolean) = apply {
+            this.singleFlight = singleFlight
+        }
+
+        /**
+         * 请求指标监听，例如 [DefaultRequestMetrics]，未设置则不统计
+         *
+         * @param requestMetrics 请求指标监听
+         * @return Builder
+         */
+        fun requestMetrics(requestMetrics: RequestMetrics?) = apply {
+            this.requestMetrics = requestMetrics
+        }
+
+        /**
+         * 请求类型的单步超时，该请求处于「请求中」超过超时时长，则取消该请求，
+         * 按请求失败处理并进入下一流程
+         *
+         * @param requestType 请求类型
+         * @param timeout     超时时长，0 为不限制
+         * @param unit        时间单位
+         * @return Builder
+         */
+        fun requestTimeout(requestType: Int, timeout: Long, unit: TimeUnit) = apply {
+            if (timeout < 0) {
+                throw IllegalArgumentException("timeout < 0")
+            }
+            this.requestTimeouts.put(requestType, if (timeout == 0L) null else unit.toNanos(timeout))
+        }
+
+        /**
+         * 默认的整体请求截止时长，从代理发起请求开始计算，超过则取消当前请求并反馈失败，
+         * 可通过 [AbstractRequestProxy.request] 为单次请求指定
+         *
+         * @param deadline 截止时长，0 为不限制
+         * @param unit     时间单位
+         * @return Builder
+         */
+        fun requestDeadline(deadline: Long, unit: TimeUnit) = apply {
+            if (deadline < 0) {
+                throw IllegalArgumentException("deadline < 0")
+            }
+            this.requestDeadlineNanos = unit.toNanos(deadline)
+        }
+
+        /**
+         * 全局请求调度器，限制各请求类型同时执行的真实请求数，未设置则不限制
+         *
+         * @param requestScheduler 全局请求调度器
+         * @return Builder
+         */
+        fun requestScheduler(requestScheduler: RequestScheduler?) = apply {
+            this.requestScheduler = requestScheduler
+        }
+
+        /**
+         * 请求类型的执行并发数，rrouter-coroutine 以 Dispatchers.IO 的 limitedParallelism 视图执行该类型的请求，
+         * 如本地请求限制为磁盘的有效并发数，远程请求分配更大的份额
+         *
+         * @param requestType 请求类型
+         * @param parallelism 并发数，0 为不限制（使用默认线程池）
+         * @return Builder
+         */
+        fun requestParallelism(requestType: Int, parallelism: Int) = apply {
+            if (parallelism < 0) {
+                throw IllegalArgumentException("parallelism < 0")
+            }
+            this.requestParallelism.put(requestType, if (parallelism == 0) null else parallelism)
+        }
+
+        /**
+         * 请求类型的执行器，优先于 [requestParallelism]
+         *
+         * @param requestType 请求类型
+         * @param executor    执行器，为空则取消配置
+         * @return Builder
+         */
+        fun requestExecutor(requestType: Int, executor: Executor?) = apply {
+            this.requestExecutors.put(requestType, executor)
+        }
+
+        /**
+         * 扩展模块的配置，核心模块不依赖的类型（如 RxJava 的调度器）通过扩展配置传入，
+         * 由扩展模块按配置类型获取
+         *
+         * @param type  配置类型
+         * @param value 配置，为空则取消配置
+         * @return Builder
+         */
+        fun <T : Any> extension(type: Class<T>, value: T?) = apply {
+            if (value == null) {
+                this.extensions.remove(type)
+            } else {
+                this.extensions[type] = value
+            }
+        }
+
         /**
          * 策略执行者/请求策略工厂类/请求类型策略处理集合 只要有一个不为空
          * 使用优先级：策略执行者 > 请求策略工厂类 > 请求类型策略处理集合
@@ -127,9 +342,10 @@ class ConfigRepository private constructor(builder: Builder) {
                 return ConfigRepository(this)
             }
             if (strategyArray != null) {
+                val handlerArray = strategyArray!!
                 val factory: StrategyHandle.Factory = object : StrategyHandle.Factory() {
-                    override fun loadStrategyHandlerArray(): SparseArray<StrategyHandle> {
-                        return strategyArray!!
+                    override fun loadStrategyHandlerArray(): ImmutableIntMap<StrategyHandle> {
+                        return handlerArray
                     }
                 }
                 strategyHandler!!.setHandlerFactory(factory)
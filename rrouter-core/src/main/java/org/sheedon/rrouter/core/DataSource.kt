@@ -30,6 +30,32 @@ interface DataSource {
     </T> */
     interface Callback<T> : SucceedCallback<T>, FailedCallback
 
+    /**
+     * 区分数据新鲜度的回调接口，策略执行者可标记数据是否为过期数据，
+     * 例如先反馈缓存/本地的过期数据，后台刷新后再反馈最新数据
+     *
+     * @param <T> 任意类型
+    </T> */
+    interface FreshnessCallback<T> : Callback<T> {
+        /**
+         * 数据加载成功
+         *
+         * @param t       数据
+         * @param isStale 是否为过期数据
+         */
+        fun onDataLoaded(t: T?, isStale: Boolean)
+    }
+
+    /**
+     * 可区分反馈来源的回调接口，策略执行者据此区分同时执行的请求的反馈
+     */
+    interface SourceCallback {
+        /**
+         * 反馈来源的请求类型，来源未知为 0
+         */
+        fun getRequestType(): Int
+    }
+
     /**
      * 只关注成功的接口
      *
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.core
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * 默认请求指标统计，按「策略类型」统计流程链，按「策略类型 + 请求类型」统计真实请求，
+ * 计数与耗时直方图均为无锁实现，可随时通过 [snapshot] 获取当前统计结果。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 7:30 下午
+ */
+class DefaultRequestMetrics : RequestMetrics {
+
+    // 流程链统计，键为策略类型
+    private val chains = ConcurrentHashMap<Int, Stats>()
+
+    // 真实请求统计，键为「策略类型 + 请求类型」
+    private val sources = ConcurrentHashMap<Long, Stats>()
+
+    override fun onChainStart(strategyType: Int) {
+        chainStats(strategyType).started.incrementAndGet()
+    }
+
+    override fun onRequestDispatch(strategyType: Int, requestType: Int) {
+        sourceStats(strategyType, requestType).started.incrementAndGet()
+    }
+
+    override fun onRequestResult(
+        strategyType: Int, requestType: Int,
+        isSuccess: Boolean, latencyNanos: Long
+    ) {
+        sourceStats(strategyType, requestType).complete(isSuccess, latencyNanos)
+    }
+
+    override fun onChainComplete(strategyType: Int, isSuccess: Boolean, latencyNanos: Long) {
+        chainStats(strategyType).complete(isSuccess, latencyNanos)
+    }
+
+    /**
+     * 获取当前统计快照
+     */
+    fun snapshot(): Snapshot {
+        val chainSnapshots = chains.entries
+            .map { (strategyType, stats) -> stats.snapshot(strategyType, NO_REQUEST_TYPE) }
+            .sortedBy { it.strategyType }
+        val sourceSnapshots = sources.entries
+            .map { (key, stats) -> stats.snapshot((key ushr 32).toInt(), key.toInt()) }
+            .sortedWith(compareBy({ it.strategyType }, { it.requestType }))
+        return Snapshot(chainSnapshots, sourceSnapshots)
+    }
+
+    /**
+     * 清空统计
+     */
+    fun reset() {
+        chains.clear()
+        sources.clear()
+    }
+
+    private fun chainStats(strategyType: Int): Stats {
+        return chains[strategyType] ?: chains.putIfAbsent(strategyType, Stats())
+        ?: chains[strategyType]!!
+    }
+
+    private fun sourceStats(strategyType: Int, requestType: Int): Stats {
+        val key = (strategyType.toLong() shl 32) or (requestType.toLong() and 0xFFFFFFFFL)
+        return sources[key] ?: sources.putIfAbsent(key, Stats()) ?: sources[key]!!
+    }
+
+    /**
+     * 单项统计
+     */
+    private class Stats {
+        val started = AtomicLong()
+        val succeeded = AtomicLong()
+        val failed = AtomicLong()
+        val latency = LatencyHistogram()
+
+        fun complete(isSuccess: Boolean, latencyNanos: Long) {
+            if (isSuccess) succeeded.incrementAndGet() else failed.incrementAndGet()
+            latency.record(latencyNanos)
+        }
+
+        fun snapshot(strategyType: Int, requestType: Int): StatsSnapshot {
+            return StatsSnapshot(
+                strategyType, requestType,
+                started.get(), succeeded.get(), failed.get(),
+                latency.snapshot()
+            )
+        }
+    }
+
+    /**
+     * 单项统计快照
+     *
+     * @param strategyType 请求策略类型
+     * @param requestType  请求类型，流程链统计为 [NO_REQUEST_TYPE]
+     * @param started      开始次数
+     * @param succeeded    成功次数
+     * @param failed       失败次数
+     * @param latency      耗时分布
+     */
+    data class StatsSnapshot(
+        val strategyType: Int,
+        val requestType: Int,
+        val started: Long,
+        val succeeded: Long,
+        val failed: Long,
+        val latency: LatencyHistogram.Snapshot
+    )
+
+    /**
+     * 统计快照
+     *
+     * @param chains  各策略类型的流程链统计
+     * @param sources 各策略类型下各请求类型的真实请求统计
+     */
+    data class Snapshot(
+        val chains: List<StatsSnapshot>,
+        val sources: List<StatsSnapshot>
+    ) {
+        /**
+         * 获取策略类型的流程链统计
+         */
+        fun chain(strategyType: Int): StatsSnapshot? {
+            return chains.firstOrNull { it.strategyType == strategyType }
+        }
+
+        /**
+         * 获取策略类型下某请求类型的统计
+         */
+        fun source(strategyType: Int, requestType: Int): StatsSnapshot? {
+            return sources.firstOrNull {
+                it.strategyType == strategyType && it.requestType == requestType
+            }
+        }
+    }
+
+    companion object {
+        // 流程链统计无请求类型
+        const val NO_REQUEST_TYPE = -1
+    }
+}
@@ -15,7 +15,6 @@
  */
 package org.sheedon.rrouter.core
 
-import android.util.SparseArray
 import kotlin.NullPointerException
 
 /**
@@ -35,6 +34,10 @@ internal class DefaultStrategyHandler private constructor() :
         this.handlerFactory = handlerFactory
     }
 
+    override fun loadStrategyHandler(strategyType: Int): StrategyHandle? {
+        return handlerFactory?.loadStrategyHandler(strategyType)
+    }
+
     override fun loadRequestProcess(strategyType: Int): IntArray {
         val handler = handlerFactory?.loadStrategyHandler(strategyType)
             ?: throw NullPointerException("please set strategy handler")
@@ -53,7 +56,7 @@ internal class DefaultStrategyHandler private constructor() :
     override fun <RequestCard> handleRequestStrategy(
         requestStrategyType: Int,
         processChain: ProcessChain,
-        requestStrategies: SparseArray<Request<RequestCard>>,
+        requestStrategies: ImmutableIntMap<Request<RequestCard>>,
         card: RequestCard?
     ): Boolean {
         val handler = handlerFactory?.loadStrategyHandler(requestStrategyType)
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.core
+
+/**
+ * 可冻结的请求卡片，请求代理发起请求时冻结卡片并直接作为快照持有，无需每次克隆。
+ * 冻结后卡片不可再修改，需要修改时通过 [CardHolder.update] 得到未冻结的拷贝（写时复制），
+ * 因此只有「请求后又修改」才会产生一次拷贝。
+ *
+ * [clone] 需返回未冻结的拷贝，可直接继承 [AbstractFreezableCard]。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 11:50 下午
+ */
+interface FreezableCard : DataCloneable {
+
+    /**
+     * 冻结卡片，之后的修改操作抛出 [IllegalStateException]
+     */
+    fun freeze()
+
+    /**
+     * 是否已冻结
+     */
+    fun isFrozen(): Boolean
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.core
+
+/**
+ * 不可变的 int 键映射，用于按「策略类型/请求类型」查找策略执行者与请求。
+ * 构建后不可修改，多线程读取无需加锁。
+ * 1. 键均为较小的非负整数时，采用以键为下标的稠密数组，查找为一次数组读取
+ * 2. 否则采用开放寻址哈希表
+ *
+ * 值为空视为不存在该键。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 5:10 下午
+ */
+class ImmutableIntMap<V> private constructor(
+    // 有序键，用于遍历
+    private val keys: IntArray,
+    // 与键一一对应的值
+    private val values: Array<Any?>,
+    // 稠密表，下标即为键，不适用时为空
+    private val dense: Array<Any?>?,
+    // 哈希表
+    private val hashKeys: IntArray,
+    private val hashValues: Array<Any?>,
+    private val mask: Int
+) {
+
+    /**
+     * 根据键获取值
+     *
+     * @param key 键
+     * @return 值，不存在则返回空
+     */
+    @Suppress("UNCHECKED_CAST")
+    operator fun get(key: Int): V? {
+        val table = dense
+        if (table != null) {
+            return if (key >= 0 && key < table.size) table[key] as V? else null
+        }
+        var index = mix(key) and mask
+        while (true) {
+            val value = hashValues[index] ?: return null
+            if (hashKeys[index] == key) {
+                return value as V
+            }
+            index = (index + 1) and mask
+        }
+    }
+
+    /**
+     * 是否包含该键
+     */
+    fun containsKey(key: Int): Boolean = get(key) != null
+
+    /**
+     * 键值对数量
+     */
+    fun size(): Int = keys.size
+
+    fun isEmpty(): Boolean = keys.isEmpty()
+
+    /**
+     * 按键升序获取第 index 个键
+     */
+    fun keyAt(index: Int): Int = keys[index]
+
+    /**
+     * 按键升序获取第 index 个值
+     */
+    @Suppress("UNCHECKED_CAST")
+    fun valueAt(index: Int): V = values[index] as V
+
+    override fun toString(): String {
+        val builder = StringBuilder("{")
+        for (i in keys.indices) {
+            if (i > 0) builder.append(", ")
+            builder.append(keys[i]).append('=').append(values[i])
+        }
+        return builder.append('}').toString()
+    }
+
+    class Builder<V> {
+        private val entries = java.util.TreeMap<Int, V>()
+
+        /**
+         * 添加键值对，值为空则忽略，重复的键以最后一次为准
+         *
+         * @param key   键
+         * @param value 值
+         * @return Builder
+         */
+        fun put(key: Int, value: V?) = apply {
+            if (value == null) {
+                entries.remove(key)
+            } else {
+                entries[key] = value
+            }
+        }
+
+        fun build(): ImmutableIntMap<V> {
+            val size = entries.size
+            val keys = IntArray(size)
+            val values = arrayOfNulls<Any?>(size)
+            var i = 0
+            for ((key, value) in entries) {
+                keys[i] = key
+                values[i] = value
+                i++
+            }
+
+            // 键均为较小的非负整数，采用稠密数组
+            if (size == 0 || (keys[0] >= 0 && keys[size - 1] < maxOf(DENSE_MIN_LENGTH, size * 4))) {
+                val length = if (size == 0) 0 else keys[size - 1] + 1
+                val dense = arrayOfNulls<Any?>(length)
+                for (index in 0 until size) {
+                    dense[keys[index]] = values[index]
+                }
+                return ImmutableIntMap(keys, values, dense, IntArray(0), arrayOfNulls(0), 0)
+            }
+
+            // 开放寻址哈希表，负载因子不超过 0.5
+            var capacity = Integer.highestOneBit(size * 2 - 1) shl 1
+            if (capacity < 2) capacity = 2
+            val mask = capacity - 1
+            val hashKeys = IntArray(capacity)
+            val hashValues = arrayOfNulls<Any?>(capacity)
+            for (index in 0 until size) {
+                var slot = mix(keys[index]) and mask
+                while (hashValues[slot] != null) {
+                    slot = (slot + 1) and mask
+                }
+                hashKeys[slot] = keys[index]
+                hashValues[slot] = values[index]
+            }
+            return ImmutableIntMap(keys, values, null, hashKeys, hashValues, mask)
+        }
+    }
+
+    companion object {
+        // 稠密数组的最小允许长度
+        private const val DENSE_MIN_LENGTH = 64
+
+        private fun mix(key: Int): Int {
+            val h = key * -0x61c88647
+            return h xor (h ushr 16)
+        }
+
+        private val EMPTY = Builder<Any>().build()
+
+        /**
+         * 空映射
+         */
+        @JvmStatic
+        @Suppress("UNCHECKED_CAST")
+        fun <V> empty(): ImmutableIntMap<V> = EMPTY as ImmutableIntMap<V>
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.core
+
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+
+/**
+ * 无锁耗时直方图，采用对数-线性分桶（类 HdrHistogram）：
+ * 每个 2 的幂区间再均分为 [SUB_BUCKET_COUNT] 个子桶，相对误差不超过 1/[SUB_BUCKET_COUNT]。
+ * 记录为一次原子自增，不产生对象分配。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 7:30 下午
+ */
+class LatencyHistogram {
+
+    private val counts = AtomicLongArray(BUCKET_COUNT)
+    private val totalCount = AtomicLong()
+    private val totalNanos = AtomicLong()
+    private val maxNanos = AtomicLong()
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos 耗时，纳秒，负数按 0 记录
+     */
+    fun record(nanos: Long) {
+        val value = if (nanos < 0) 0 else nanos
+        counts.incrementAndGet(bucketIndex(value))
+        totalCount.incrementAndGet()
+        totalNanos.addAndGet(value)
+        while (true) {
+            val max = maxNanos.get()
+            if (value <= max || maxNanos.compareAndSet(max, value)) {
+                return
+            }
+        }
+    }
+
+    /**
+     * 生成快照，快照生成期间的并发记录可能只被部分计入
+     */
+    fun snapshot(): Snapshot {
+        val copy = LongArray(BUCKET_COUNT)
+        var count = 0L
+        for (index in 0 until BUCKET_COUNT) {
+            copy[index] = counts.get(index)
+            count += copy[index]
+        }
+        return Snapshot(copy, count, totalNanos.get(), maxNanos.get())
+    }
+
+    /**
+     * 清空记录
+     */
+    fun reset() {
+        for (index in 0 until BUCKET_COUNT) {
+            counts.set(index, 0)
+        }
+        totalCount.set(0)
+        totalNanos.set(0)
+        maxNanos.set(0)
+    }
+
+    /**
+     * 直方图快照
+     */
+    class Snapshot internal constructor(
+        private val counts: LongArray,
+        // 记录数
+        val count: Long,
+        // 总耗时，纳秒
+        val totalNanos: Long,
+        // 最大耗时，纳秒
+        val maxNanos: Long
+    ) {
+        /**
+         * 平均耗时，纳秒
+         */
+        fun meanNanos(): Double = if (count == 0L) 0.0 else totalNanos.toDouble() / count
+
+        /**
+         * 百分位耗时，返回所在桶的上界，纳秒
+         *
+         * @param percentile 百分位，取值 0 ~ 100
+         */
+        fun percentileNanos(percentile: Double): Long {
+            if (count == 0L) return 0
+            val target = maxOf(1L, Math.ceil(count * percentile.coerceIn(0.0, 100.0) / 100).toLong())
+            var seen = 0L
+            for (index in counts.indices) {
+                seen += counts[index]
+                if (seen >= target) {
+                    return minOf(bucketUpperBound(index), maxNanos)
+                }
+            }
+            return maxNanos
+        }
+
+        override fun toString(): String {
+            return "count=$count, mean=${meanNanos().toLong()}ns, p50=${percentileNanos(50.0)}ns, " +
+                    "p95=${percentileNanos(95.0)}ns, p99=${percentileNanos(99.0)}ns, max=${maxNanos}ns"
+        }
+    }
+
+    companion object {
+        // 每个 2 的幂区间的子桶数量，需为 2 的幂
+        private const val SUB_BUCKET_BITS = 3
+        private const val SUB_BUCKET_COUNT = 1 shl SUB_BUCKET_BITS
+
+        // 可区分的最大耗时为 2^63 纳秒，超出部分计入最后一个桶
+        private const val BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT + SUB_BUCKET_COUNT
+
+        /**
+         * 耗时所在桶下标，小于 [SUB_BUCKET_COUNT] 的值线性分桶
+         */
+        internal fun bucketIndex(value: Long): Int {
+            if (value < SUB_BUCKET_COUNT) {
+                return value.toInt()
+            }
+            val exponent = 63 - java.lang.Long.numberOfLeadingZeros(value)
+            val shift = exponent - SUB_BUCKET_BITS
+            val subBucket = ((value ushr shift).toInt()) and (SUB_BUCKET_COUNT - 1)
+            return minOf((shift + 1) * SUB_BUCKET_COUNT + subBucket, BUCKET_COUNT - 1)
+        }
+
+        /**
+         * 桶的上界（包含）
+         */
+        internal fun bucketUpperBound(index: Int): Long {
+            if (index < SUB_BUCKET_COUNT) {
+                return index.toLong()
+            }
+            val shift = index / SUB_BUCKET_COUNT - 1
+            val subBucket = index % SUB_BUCKET_COUNT
+            val lower = (SUB_BUCKET_COUNT + subBucket).toLong() shl shift
+            return lower + (1L shl shift) - 1
+        }
+    }
+}
@@ -16,52 +16,106 @@
 package org.sheedon.rrouter.core
 
 import androidx.annotation.IntRange
-import java.util.*
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicIntegerArray
 
 /**
  * 流程链，请求策略执行器按照配置策略执行任务时，用该类记录流程状态。
  * 状态标志：0：未开始，1：请求中，2：请求完成
  *
+ * 状态与进度均为原子变量，本地/远程反馈可能在不同线程同时到达，
+ * 策略执行者通过 [compareAndSetStatus]/[compareAndSetCurrentStatus] 完成状态流转，
+ * 只有流转成功的一方继续处理，无需额外加锁。
+ *
  * @Author: sheedon
  * @Email: sheedonsun@163.com
  * @Date: 2021/11/2 3:53 下午
  */
 class ProcessChain(vararg process: Int) {
-    // 流程
-    private val process: IntArray
+    // 流程，未开始前可由策略执行者调整顺序
+    @Volatile
+    private var process: IntArray
 
     // 状态
-    private val status: IntArray
+    private val status: AtomicIntegerArray
+
+    // 进度
+    private val progress = AtomicInteger(0)
 
     /**
-     * 获取当前进度
+     * 附加状态，供策略执行者保存单次流程执行的状态（如定时任务、已发起的请求），
+     * 重置时清空
      */
-    // 进度
-    private var progress: Int
+    @Volatile
+    var attachment: Any? = null
 
 
     init {
         if (process.isEmpty()) {
             throw NullPointerException("process cannot null,please add at least one!")
         }
-        progress = 0
         this.process = process
-        status = IntArray(process.size)
+        status = AtomicIntegerArray(process.size)
     }
 
     /**
      * 重置
      */
     fun reset() {
-        Arrays.fill(status, STATUS_NORMAL)
-        progress = 0
+        for (index in 0 until status.length()) {
+            status.set(index, STATUS_NORMAL)
+        }
+        progress.set(0)
+        attachment = null
     }
 
     /**
      * 获取当前流程key
      */
     fun getProcess(): Int {
-        return process[progress]
+        return process[progress.get()]
+    }
+
+    /**
+     * 获取坐标为 index 的流程key
+     */
+    fun getProcess(index: Int): Int {
+        return process[index]
+    }
+
+    /**
+     * 调整流程顺序，仅在流程未开始（进度为0且全部为未开始）时有效，
+     * 新流程需与原流程包含相同的流程key
+     *
+     * @param process 新的流程顺序
+     * @return 是否调整成功
+     */
+    fun reorder(vararg process: Int): Boolean {
+        val current = this.process
+        if (process.size != current.size || !process.sortedArray().contentEquals(current.sortedArray())) {
+            return false
+        }
+        if (progress.get() != 0 || !isAllNormal()) {
+            return false
+        }
+        this.process = process.copyOf()
+        return true
+    }
+
+    private fun isAllNormal(): Boolean {
+        for (index in 0 until status.length()) {
+            if (status.get(index) != STATUS_NORMAL) {
+                return false
+            }
+        }
+        return true
+    }
+
+    /**
+     * 流程数量
+     */
+    fun size(): Int {
+        return process.size
     }
 
     /**
@@ -74,10 +128,51 @@ class ProcessChain(vararg process: Int) {
         index: Int,
         @IntRange(from = STATUS_NORMAL.toLong(), to = STATUS_COMPLETED.toLong()) status: Int
     ) {
-        if (index < 0 || index >= this.status.size) {
+        if (index < 0 || index >= this.status.length()) {
             return
         }
-        this.status[index] = status
+        this.status.set(index, status)
+    }
+
+    /**
+     * 原子更新坐标为index的状态，当前状态为 expect 才更新为 update
+     *
+     * @param index  坐标
+     * @param expect 期望的当前状态
+     * @param update 更新后的状态
+     * @return 是否更新成功
+     */
+    fun compareAndSetStatus(
+        index: Int,
+        @IntRange(from = STATUS_NORMAL.toLong(), to = STATUS_COMPLETED.toLong()) expect: Int,
+        @IntRange(from = STATUS_NORMAL.toLong(), to = STATUS_COMPLETED.toLong()) update: Int
+    ): Boolean {
+        if (index < 0 || index >= this.status.length()) {
+            return false
+        }
+        return this.status.compareAndSet(index, expect, update)
+    }
+
+    /**
+     * 原子更新当前进度的状态，当前状态为 expect 才更新为 update，
+     * 更新为 [STATUS_COMPLETED] 则进度进1
+     *
+     * @param expect 期望的当前状态
+     * @param update 更新后的状态
+     * @return 是否更新成功
+     */
+    fun compareAndSetCurrentStatus(
+        @IntRange(from = STATUS_NORMAL.toLong(), to = STATUS_COMPLETED.toLong()) expect: Int,
+        @IntRange(from = STATUS_NORMAL.toLong(), to = STATUS_COMPLETED.toLong()) update: Int
+    ): Boolean {
+        val current = progress.get()
+        if (!compareAndSetStatus(current, expect, update)) {
+            return false
+        }
+        if (update == STATUS_COMPLETED) {
+            progress.compareAndSet(current, current + 1)
+        }
+        return true
     }
 
     /**
@@ -91,17 +186,23 @@ class ProcessChain(vararg process: Int) {
             to = STATUS_COMPLETED.toLong()
         ) status: Int
     ) {
-        updateOfIndex(progress, status)
+        val current = progress.get()
+        updateOfIndex(current, status)
         if (status == STATUS_COMPLETED) {
-            progress += 1
+            progress.compareAndSet(current, current + 1)
         }
     }
 
     fun updateAllStatusToCompleted() {
-        val length = status.size
-        while (progress < length) {
-            updateOfIndex(progress, STATUS_COMPLETED)
-            progress++
+        val length = status.length()
+        for (index in progress.get() until length) {
+            status.set(index, STATUS_COMPLETED)
+        }
+        while (true) {
+            val current = progress.get()
+            if (current >= length || progress.compareAndSet(current, length)) {
+                return
+            }
         }
     }
 
@@ -109,16 +210,14 @@ class ProcessChain(vararg process: Int) {
      * 获取当前进度
      */
     fun getProgress(): Int {
-        return progress
+        return progress.get()
     }
 
     /**
      * 获取当前流程状态
      */
-    fun getCurrentStatus(): Int{
-        return if (status.size <= progress || progress < 0) {
-            STATUS_COMPLETED
-        } else status[progress]
+    fun getCurrentStatus(): Int {
+        return getStatus(progress.get())
     }
 
     /**
@@ -128,17 +227,34 @@ class ProcessChain(vararg process: Int) {
      * @return 状态
      */
     fun getStatus(progress: Int): Int {
-        return if (progress < 0 || progress >= status.size) {
+        return if (progress < 0 || progress >= status.length()) {
             STATUS_COMPLETED
-        } else status[progress]
+        } else status.get(progress)
+    }
+
+    /**
+     * 获取第一个状态为 status 的坐标
+     *
+     * @param status 状态
+     * @return 坐标，不存在则返回 -1
+     */
+    fun indexOfStatus(
+        @IntRange(from = STATUS_NORMAL.toLong(), to = STATUS_COMPLETED.toLong()) status: Int
+    ): Int {
+        for (index in 0 until this.status.length()) {
+            if (this.status.get(index) == status) {
+                return index
+            }
+        }
+        return -1
     }
 
     /**
      * 是否完成全部请求
      */
     fun isAllCompleted(): Boolean {
-        for (positionStatus in status) {
-            if (positionStatus != STATUS_COMPLETED) {
+        for (index in 0 until status.length()) {
+            if (status.get(index) != STATUS_COMPLETED) {
                 return false
             }
         }
@@ -150,4 +266,4 @@ class ProcessChain(vararg process: Int) {
         const val STATUS_REQUESTING = 1 // 请求中
         const val STATUS_COMPLETED = 2 // 请求完成
     }
-}
\ No newline at end of file
+}
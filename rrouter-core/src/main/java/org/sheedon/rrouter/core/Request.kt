@@ -38,4 +38,38 @@ interface Request<RequestCard> {
 
     // 销毁
     fun onDestroy()
+
+    /**
+     * 包装其他请求的请求（如指标记录），策略执行者通过 [unwrap] 识别被包装的真实请求
+     */
+    interface Wrapper<RequestCard> : Request<RequestCard> {
+        // 被包装的请求
+        fun delegate(): Request<RequestCard>
+    }
+
+    /**
+     * 关注超时的请求，因单步超时或整体截止被取消时，先回调 [onTimeout] 再回调 [onCancel]，
+     * 包装链上的每一层都会收到回调
+     */
+    interface TimeoutAware {
+        // 请求超时
+        fun onTimeout()
+    }
+
+    companion object {
+        /**
+         * 逐层解除 [Wrapper] 包装
+         *
+         * @param request 请求
+         * @return 最内层的请求
+         */
+        @JvmStatic
+        fun unwrap(request: Request<*>?): Request<*>? {
+            var current = request
+            while (current is Wrapper<*>) {
+                current = current.delegate()
+            }
+            return current
+        }
+    }
 }
\ No newline at end of file
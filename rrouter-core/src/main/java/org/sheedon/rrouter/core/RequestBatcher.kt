@@ -0,0 +1,351 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.core
+
+import java.util.concurrent.Executor
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * 请求批处理器，将多个请求卡片合并为一次批量加载，再将结果按顺序拆分反馈给各个请求。
+ * 满足以下任一条件即发起批量加载：
+ * 1. 待处理数量达到 [Builder.maxBatchSize]
+ * 2. 距离本批第一个请求超过 [Builder.maxDelay]
+ * 3. 距离最后一个请求超过 [Builder.idleTimeout] 无新请求
+ *
+ * 由 rrouter-coroutine / rrouter-rxjava 中的 BatchRequestStrategy 作为真实请求使用，
+ * 批量加载器需异步执行，不可阻塞调用线程。
+ * 达到单批上限时在加入请求的线程中发起批量加载，定时触发时移交 [Builder.executor] 发起，不占用定时线程。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 10:10 下午
+ */
+class RequestBatcher<RequestCard, ResponseModel> private constructor(
+    builder: Builder<RequestCard, ResponseModel>
+) {
+
+    private val loader: BulkLoader<RequestCard, ResponseModel> = builder.loader!!
+    private val maxBatchSize = builder.maxBatchSize
+    private val maxDelayNanos = builder.maxDelayNanos
+    private val idleNanos = builder.idleNanos
+
+    // 定时触发的批量加载所在的执行器，为空则使用共享执行器
+    private val executor: Executor? = builder.executor
+
+    private val lock = Any()
+
+    // 待处理的请求
+    private var pending = ArrayList<Ticket>()
+
+    // 批次编号，每次取出待处理请求时递增，用于废弃过期的定时任务
+    private var generation = 0L
+
+    // 最后一个请求的加入时间
+    private var lastSubmitNanos = 0L
+
+    private var delayFuture: ScheduledFuture<*>? = null
+    private var idleFuture: ScheduledFuture<*>? = null
+
+    // 请求数
+    private val requestCount = AtomicLong()
+
+    // 批量加载次数
+    private val batchCount = AtomicLong()
+
+    /**
+     * 加入请求
+     *
+     * @param card     请求卡片
+     * @param receiver 结果接收者
+     * @return 请求凭证，可用于取消
+     */
+    fun submit(card: RequestCard?, receiver: Receiver<ResponseModel>): Ticket {
+        val ticket = Ticket(card, receiver)
+        requestCount.incrementAndGet()
+        var batch: List<Ticket>? = null
+        synchronized(lock) {
+            pending.add(ticket)
+            lastSubmitNanos = System.nanoTime()
+            if (pending.size >= maxBatchSize) {
+                batch = drainLocked()
+            } else if (pending.size == 1) {
+                val current = generation
+                if (maxDelayNanos > 0) {
+                    delayFuture = TimeoutScheduler.schedule(maxDelayNanos) { onTimer(current, false) }
+                }
+                if (idleNanos > 0) {
+                    idleFuture = TimeoutScheduler.schedule(idleNanos) { onTimer(current, true) }
+                }
+            }
+        }
+        batch?.let { dispatch(it) }
+        return ticket
+    }
+
+    /**
+     * 立即对待处理请求发起批量加载
+     */
+    fun flush() {
+        val batch = synchronized(lock) { drainLocked() }
+        dispatch(batch)
+    }
+
+    /**
+     * 待处理请求数
+     */
+    fun getPendingCount(): Int = synchronized(lock) { pending.size }
+
+    /**
+     * 请求数
+     */
+    fun getRequestCount(): Long = requestCount.get()
+
+    /**
+     * 批量加载次数
+     */
+    fun getBatchCount(): Long = batchCount.get()
+
+    /**
+     * 定时任务，空闲定时在期间有新请求时顺延，取出的批次移交执行器发起批量加载
+     */
+    private fun onTimer(expect: Long, isIdle: Boolean) {
+        val batch = synchronized(lock) {
+            if (generation != expect) return
+            if (isIdle) {
+                val remaining = lastSubmitNanos + idleNanos - System.nanoTime()
+                if (remaining > 0) {
+                    idleFuture = TimeoutScheduler.schedule(remaining) { onTimer(expect, true) }
+                    return
+                }
+            }
+            drainLocked()
+        }
+        if (batch.isEmpty()) return
+        TimeoutScheduler.post(executor) { dispatch(batch) }
+    }
+
+    /**
+     * 取出全部待处理请求，并作废当前批次的定时任务
+     */
+    private fun drainLocked(): List<Ticket> {
+        val batch = pending
+        pending = ArrayList()
+        cancelTimersLocked()
+        return batch
+    }
+
+    /**
+     * 作废当前批次的定时任务，下一个请求重新开始计时
+     */
+    private fun cancelTimersLocked() {
+        generation++
+        delayFuture?.cancel(false)
+        idleFuture?.cancel(false)
+        delayFuture = null
+        idleFuture = null
+    }
+
+    /**
+     * 发起批量加载，已取消的请求不参与
+     */
+    private fun dispatch(batch: List<Ticket>) {
+        val tickets = batch.filter { !it.isSettled() }
+        if (tickets.isEmpty()) return
+        batchCount.incrementAndGet()
+        val result = TicketResult(tickets)
+        try {
+            loader.load(tickets.map { it.card }, result)
+        } catch (e: Exception) {
+            result.onFailure(e.message)
+        }
+    }
+
+    /**
+     * 请求凭证
+     */
+    inner class Ticket internal constructor(
+        internal val card: RequestCard?,
+        private val receiver: Receiver<ResponseModel>
+    ) {
+        private val settled = AtomicBoolean()
+
+        internal fun isSettled() = settled.get()
+
+        /**
+         * 取消请求，未发起批量加载则移出待处理，已发起则忽略其结果。
+         * 待处理全部取消时一并作废定时任务，避免残留定时截断下一批次的等待
+         */
+        fun cancel() {
+            if (!settled.compareAndSet(false, true)) return
+            synchronized(lock) {
+                if (pending.remove(this) && pending.isEmpty()) {
+                    cancelTimersLocked()
+                }
+            }
+        }
+
+        internal fun deliver(model: ResponseModel?) {
+            if (settled.compareAndSet(false, true)) receiver.onResult(model)
+        }
+
+        internal fun fail(message: String?) {
+            if (settled.compareAndSet(false, true)) receiver.onFailure(message)
+        }
+    }
+
+    /**
+     * 批量加载结果，按请求顺序拆分到各个请求凭证
+     */
+    private inner class TicketResult(private val tickets: List<Ticket>) : BatchResult<ResponseModel> {
+        private val done = AtomicBoolean()
+
+        override fun onLoaded(results: List<ResponseModel?>) {
+            if (!done.compareAndSet(false, true)) return
+            if (results.size != tickets.size) {
+                val message = "batch result size ${results.size} != ${tickets.size}"
+                tickets.forEach { it.fail(message) }
+                return
+            }
+            for (index in tickets.indices) {
+                tickets[index].deliver(results[index])
+            }
+        }
+
+        override fun onFailure(message: String?) {
+            if (!done.compareAndSet(false, true)) return
+            tickets.forEach { it.fail(message) }
+        }
+    }
+
+    /**
+     * 批量加载器
+     */
+    fun interface BulkLoader<RequestCard, ResponseModel> {
+        /**
+         * 批量加载，需异步执行，完成后通过 [BatchResult] 反馈，只反馈一次
+         *
+         * @param cards  请求卡片，按加入顺序
+         * @param result 批量结果，结果需与 cards 顺序、数量一致
+         */
+        fun load(cards: List<RequestCard?>, result: BatchResult<ResponseModel>)
+    }
+
+    /**
+     * 批量加载结果
+     */
+    interface BatchResult<ResponseModel> {
+        /**
+         * 加载完成，结果与请求卡片顺序、数量一致，无数据的项为空
+         */
+        fun onLoaded(results: List<ResponseModel?>)
+
+        /**
+         * 加载失败，本批全部请求失败
+         */
+        fun onFailure(message: String?)
+    }
+
+    /**
+     * 单个请求的结果接收者
+     */
+    interface Receiver<ResponseModel> {
+        /**
+         * 结果，无数据则为空
+         */
+        fun onResult(model: ResponseModel?)
+
+        /**
+         * 失败
+         */
+        fun onFailure(message: String?)
+    }
+
+    /**
+     * 批量加载失败
+     */
+    class BatchException(message: String?) : RuntimeException(message)
+
+    class Builder<RequestCard, ResponseModel> {
+        internal var loader: BulkLoader<RequestCard, ResponseModel>? = null
+        internal var maxBatchSize = DEFAULT_MAX_BATCH_SIZE
+        internal var maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_MAX_DELAY_MILLIS)
+        internal var idleNanos = 0L
+        internal var executor: Executor? = null
+
+        /**
+         * 批量加载器
+         */
+        fun loader(loader: BulkLoader<RequestCard, ResponseModel>) = apply {
+            this.loader = loader
+        }
+
+        /**
+         * 单批最大请求数，达到即发起批量加载
+         */
+        fun maxBatchSize(maxBatchSize: Int) = apply {
+            if (maxBatchSize < 1) {
+                throw IllegalArgumentException("maxBatchSize < 1")
+            }
+            this.maxBatchSize = maxBatchSize
+        }
+
+        /**
+         * 本批第一个请求加入后的最长等待时长，0 为不限制
+         */
+        fun maxDelay(delay: Long, unit: TimeUnit) = apply {
+            if (delay < 0) {
+                throw IllegalArgumentException("delay < 0")
+            }
+            this.maxDelayNanos = unit.toNanos(delay)
+        }
+
+        /**
+         * 空闲时长，最后一个请求加入后超过该时长无新请求即发起批量加载，0 为不限制
+         */
+        fun idleTimeout(timeout: Long, unit: TimeUnit) = apply {
+            if (timeout < 0) {
+                throw IllegalArgumentException("timeout < 0")
+            }
+            this.idleNanos = unit.toNanos(timeout)
+        }
+
+        /**
+         * 定时触发（等待或空闲超时）的批量加载所在的执行器，如批量加载器使用的调度器，
+         * 未设置则使用共享的守护线程池
+         */
+        fun executor(executor: Executor) = apply {
+            this.executor = executor
+        }
+
+        fun build(): RequestBatcher<RequestCard, ResponseModel> {
+            if (loader == null) {
+                throw NullPointerException("loader == null")
+            }
+            if (maxBatchSize > 1 && maxDelayNanos == 0L && idleNanos == 0L) {
+                throw IllegalArgumentException("maxDelay and idleTimeout are both unlimited")
+            }
+            return RequestBatcher(this)
+        }
+    }
+
+    companion object {
+        private const val DEFAULT_MAX_BATCH_SIZE = 64
+        private const val DEFAULT_MAX_DELAY_MILLIS = 10L
+    }
+}
@@ -15,7 +15,6 @@
  */
 package org.sheedon.rrouter.core
 
-import android.util.SparseArray
 
 /**
  * 请求行为的创建工厂类
@@ -31,9 +30,9 @@ abstract class RequestFactory<RequestCard, ResponseModel> {
      * 创建请求策略集合，请求执行代理类需调用该方法，用于加载真实请求集合
      *
      * @param callback 反馈监听器
-     * @return SparseArray<Request></Request> < RequestCard>>
+     * @return ImmutableIntMap<Request></Request> < RequestCard>>
      */
-    abstract fun createRequestStrategies(callback: StrategyCallback<ResponseModel>): SparseArray<Request<RequestCard>>
+    abstract fun createRequestStrategies(callback: StrategyCallback<ResponseModel>): ImmutableIntMap<Request<RequestCard>>
 
     /**
      * 加载请求策略类型
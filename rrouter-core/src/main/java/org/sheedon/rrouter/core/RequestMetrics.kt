@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.core
+
+/**
+ * 请求指标监听，用于统计各策略、各请求类型的执行次数与耗时。
+ * 通过 [ConfigRepository.Builder.requestMetrics] 设置，未设置时请求代理不产生任何指标事件。
+ *
+ * 事件可能在任意线程回调，实现类需保证线程安全且尽量轻量。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 7:30 下午
+ */
+interface RequestMetrics {
+
+    /**
+     * 流程链开始执行
+     *
+     * @param strategyType 请求策略类型
+     */
+    fun onChainStart(strategyType: Int)
+
+    /**
+     * 真实请求发起，即 [Request.request] 调用前
+     *
+     * @param strategyType 请求策略类型
+     * @param requestType  请求类型
+     */
+    fun onRequestDispatch(strategyType: Int, requestType: Int)
+
+    /**
+     * 真实请求反馈
+     *
+     * @param strategyType 请求策略类型
+     * @param requestType  请求类型
+     * @param isSuccess    是否成功
+     * @param latencyNanos 从请求发起到反馈的耗时，纳秒
+     */
+    fun onRequestResult(strategyType: Int, requestType: Int, isSuccess: Boolean, latencyNanos: Long)
+
+    /**
+     * 流程链执行完成
+     *
+     * @param strategyType 请求策略类型
+     * @param isSuccess    最后一次反馈是否成功，失败即以 onDataNotAvailable 结束
+     * @param latencyNanos 从流程链开始到完成的耗时，纳秒
+     */
+    fun onChainComplete(strategyType: Int, isSuccess: Boolean, latencyNanos: Long)
+}
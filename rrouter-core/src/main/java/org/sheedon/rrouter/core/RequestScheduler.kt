@@ -0,0 +1,275 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.core
+
+import java.util.ArrayDeque
+
+/**
+ * 全局请求调度器，限制各请求类型（远程/本地等）同时执行的真实请求数。
+ * 1. 按请求类型限制并发数，超出则排队，未配置的请求类型不限制
+ * 2. 排队按优先级分为 [PRIORITY_USER_VISIBLE]、[PRIORITY_BACKGROUND]、[PRIORITY_PREFETCH] 三个通道，
+ *    通道内先进先出，通道间按权重轮询，低优先级不会被饿死
+ *
+ * 通过 [ConfigRepository.Builder.requestScheduler] 配置，
+ * rrouter-coroutine / rrouter-rxjava 的 AbstractRequestStrategy 在执行真实请求前申请许可，完成后归还。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 1:00 上午
+ */
+class RequestScheduler private constructor(builder: Builder) {
+
+    private val defaultLimit = builder.defaultLimit
+    private val limits = builder.limits.build()
+    private val weights = builder.weights.copyOf()
+
+    private val lock = Any()
+
+    // 各请求类型的执行与排队状态
+    private val queues = HashMap<Int, TypeQueue>()
+
+    /**
+     * 申请执行许可，有空闲许可则在当前线程立即回调，否则排队等待许可归还时在归还线程回调。
+     * 回调中应只发起异步执行，执行完成后调用 [Ticket.release] 归还许可。
+     *
+     * @param requestType 请求类型
+     * @param priority    优先级，[PRIORITY_USER_VISIBLE]/[PRIORITY_BACKGROUND]/[PRIORITY_PREFETCH]
+     * @param onGranted   获得许可
+     * @return 许可凭证，可用于取消排队或归还许可
+     */
+    fun submit(requestType: Int, priority: Int, onGranted: Grant): Ticket {
+        if (priority < 0 || priority >= LANE_COUNT) {
+            throw IllegalArgumentException("priority must be in [0, $LANE_COUNT)")
+        }
+        val limit = limits[requestType] ?: defaultLimit
+        val ticket = Ticket(this, requestType, priority, onGranted)
+        if (limit <= 0) {
+            ticket.state = STATE_RUNNING
+            onGranted.onGranted(ticket)
+            return ticket
+        }
+        val granted = synchronized(lock) {
+            val queue = queues[requestType] ?: TypeQueue(limit).also { queues[requestType] = it }
+            if (queue.running < queue.limit) {
+                queue.running++
+                ticket.state = STATE_RUNNING
+                true
+            } else {
+                queue.lanes[priority].addLast(ticket)
+                false
+            }
+        }
+        if (granted) {
+            onGranted.onGranted(ticket)
+        }
+        return ticket
+    }
+
+    /**
+     * 请求类型当前执行中的数量，不限制的请求类型不统计
+     */
+    fun getRunningCount(requestType: Int): Int = synchronized(lock) {
+        queues[requestType]?.running ?: 0
+    }
+
+    /**
+     * 请求类型当前排队的数量
+     */
+    fun getQueuedCount(requestType: Int): Int = synchronized(lock) {
+        queues[requestType]?.lanes?.sumOf { it.size } ?: 0
+    }
+
+    /**
+     * 请求类型指定优先级通道当前排队的数量
+     */
+    fun getQueuedCount(requestType: Int, priority: Int): Int = synchronized(lock) {
+        queues[requestType]?.lanes?.getOrNull(priority)?.size ?: 0
+    }
+
+    /**
+     * 请求类型的并发上限，0 为不限制
+     */
+    fun getLimit(requestType: Int): Int = limits[requestType] ?: defaultLimit
+
+    /**
+     * 归还许可，并将许可交给下一个排队者
+     */
+    private fun release(ticket: Ticket) {
+        val next = synchronized(lock) {
+            if (ticket.state != STATE_RUNNING) return
+            ticket.state = STATE_DONE
+            val queue = queues[ticket.requestType] ?: return
+            val next = queue.poll()
+            if (next == null) {
+                queue.running--
+            } else {
+                next.state = STATE_RUNNING
+            }
+            next
+        }
+        next?.grant?.onGranted(next)
+    }
+
+    /**
+     * 取消排队，已获得许可则归还
+     */
+    private fun cancel(ticket: Ticket) {
+        synchronized(lock) {
+            when (ticket.state) {
+                STATE_QUEUED -> {
+                    ticket.state = STATE_DONE
+                    queues[ticket.requestType]?.lanes?.get(ticket.priority)?.remove(ticket)
+                    return
+                }
+                STATE_DONE -> return
+                else -> {}
+            }
+        }
+        release(ticket)
+    }
+
+    /**
+     * 单个请求类型的执行与排队状态
+     */
+    private inner class TypeQueue(val limit: Int) {
+        var running = 0
+        val lanes = Array(LANE_COUNT) { ArrayDeque<Ticket>() }
+
+        // 本轮剩余的通道权重
+        private val credits = weights.copyOf()
+
+        /**
+         * 按权重轮询取出下一个排队者，本轮权重用尽则开始新一轮
+         */
+        fun poll(): Ticket? {
+            for (round in 0 until 2) {
+                for (lane in lanes.indices) {
+                    if (credits[lane] > 0 && lanes[lane].isNotEmpty()) {
+                        credits[lane]--
+                        return lanes[lane].pollFirst()
+                    }
+                }
+                weights.copyInto(credits)
+            }
+            return null
+        }
+    }
+
+    /**
+     * 许可凭证
+     */
+    class Ticket internal constructor(
+        private val scheduler: RequestScheduler,
+        val requestType: Int,
+        val priority: Int,
+        internal val grant: Grant
+    ) {
+        // 由调度器锁保护
+        internal var state = STATE_QUEUED
+
+        /**
+         * 归还许可，重复调用无效
+         */
+        fun release() {
+            scheduler.release(this)
+        }
+
+        /**
+         * 取消排队，已获得许可则归还
+         */
+        fun cancel() {
+            scheduler.cancel(this)
+        }
+    }
+
+    /**
+     * 获得许可回调
+     */
+    fun interface Grant {
+        /**
+         * 获得许可，执行完成后需调用 [Ticket.release]
+         */
+        fun onGranted(ticket: Ticket)
+    }
+
+    class Builder {
+        internal var defaultLimit = 0
+        internal val limits = ImmutableIntMap.Builder<Int>()
+        internal val weights = intArrayOf(8, 3, 1)
+
+        /**
+         * 请求类型的并发上限
+         *
+         * @param requestType 请求类型
+         * @param limit       并发上限，0 为不限制
+         * @return Builder
+         */
+        fun maxConcurrency(requestType: Int, limit: Int) = apply {
+            if (limit < 0) {
+                throw IllegalArgumentException("limit < 0")
+            }
+            this.limits.put(requestType, limit)
+        }
+
+        /**
+         * 未单独配置的请求类型的并发上限，默认 0 为不限制
+         */
+        fun defaultMaxConcurrency(limit: Int) = apply {
+            if (limit < 0) {
+                throw IllegalArgumentException("limit < 0")
+            }
+            this.defaultLimit = limit
+        }
+
+        /**
+         * 优先级通道的轮询权重，每轮该通道最多连续获得 weight 个许可，默认 8:3:1
+         *
+         * @param priority 优先级
+         * @param weight   权重
+         * @return Builder
+         */
+        fun laneWeight(priority: Int, weight: Int) = apply {
+            if (priority < 0 || priority >= LANE_COUNT) {
+                throw IllegalArgumentException("priority must be in [0, $LANE_COUNT)")
+            }
+            if (weight < 1) {
+                throw IllegalArgumentException("weight < 1")
+            }
+            this.weights[priority] = weight
+        }
+
+        fun build(): RequestScheduler {
+            return RequestScheduler(this)
+        }
+    }
+
+    companion object {
+        // 用户可见，如当前页面的数据
+        const val PRIORITY_USER_VISIBLE = 0
+
+        // 后台，如同步、上报
+        const val PRIORITY_BACKGROUND = 1
+
+        // 预取，如下一页的数据
+        const val PRIORITY_PREFETCH = 2
+
+        private const val LANE_COUNT = 3
+
+        private const val STATE_QUEUED = 0
+        private const val STATE_RUNNING = 1
+        private const val STATE_DONE = 2
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.core
+
+import java.nio.ByteBuffer
+
+/**
+ * 结果model的二进制编解码，用于缓存与本地持久化，
+ * 按缓冲区当前字节序读写，读写从缓冲区当前位置开始并移动位置。
+ *
+ * 标注了 @Codec 的结果model由注解处理器生成「类名$$Codec」，由 [ResponseCodecs.of] 加载，
+ * 也可手动实现并通过 [ResponseCodecs.register] 注册。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 5:30 上午
+ */
+interface ResponseCodec<T> {
+
+    /**
+     * 编码后的字节数，用于预先分配或映射写入区域
+     *
+     * @param value 结果model
+     */
+    fun sizeOf(value: T): Int
+
+    /**
+     * 编码到缓冲区，写入 [sizeOf] 个字节
+     *
+     * @param value  结果model
+     * @param output 输出缓冲区，剩余空间不少于 [sizeOf]
+     */
+    fun encode(value: T, output: ByteBuffer)
+
+    /**
+     * 从缓冲区解码，直接读取堆内/直接/内存映射缓冲区，不先拷贝为字节数组，
+     * 返回的结果model不持有缓冲区
+     *
+     * @param input 输入缓冲区
+     * @return 结果model
+     */
+    fun decode(input: ByteBuffer): T
+}
@@ -0,0 +1,442 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.core
+
+import java.nio.ByteBuffer
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * 结果model编解码的查找与基础类型编解码
+ * 1. 按结果model类型查找生成的编解码类「类名$$Codec」，查找结果缓存
+ * 2. 提供生成代码使用的字符串、可空对象、列表的读写函数，以及基础类型的编解码，不使用反射
+ *
+ * 编码格式：基本类型定长；字符串为「变长整数（UTF-8 字节数 + 1，0 为空）+ UTF-8」；
+ * 可空对象为「1 字节标记（0 为空）+ 对象」；列表为「变长整数（元素数 + 1，0 为空）+ 逐个可空元素」。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 5:30 上午
+ */
+object ResponseCodecs {
+
+    // 生成的编解码类后缀
+    const val SUFFIX = "$\$Codec"
+
+    // 已查找的编解码，不存在则为 NONE
+    private val codecs = ConcurrentHashMap<Class<*>, Any>()
+    private val NONE = Any()
+
+    // 读取直接缓冲区中的字符串时使用的临时数组
+    private val scratch = object : ThreadLocal<ByteArray>() {
+        override fun initialValue() = ByteArray(256)
+    }
+
+    /**
+     * 手动注册结果model类型的编解码
+     *
+     * @param type  结果model类型
+     * @param codec 编解码
+     */
+    @JvmStatic
+    fun <T> register(type: Class<T>, codec: ResponseCodec<T>) {
+        codecs[type] = codec
+    }
+
+    /**
+     * 获取结果model类型对应的编解码，未生成或未注册则返回空
+     */
+    @JvmStatic
+    @Suppress("UNCHECKED_CAST")
+    fun <T> of(type: Class<T>): ResponseCodec<T>? {
+        var found = codecs[type]
+        if (found == null) {
+            val loaded = load(type) ?: NONE
+            found = codecs.putIfAbsent(type, loaded) ?: loaded
+        }
+        return if (found === NONE) null else found as ResponseCodec<T>
+    }
+
+    /**
+     * 获取结果model类型对应的编解码，不存在则抛出异常
+     */
+    @JvmStatic
+    fun <T> require(type: Class<T>): ResponseCodec<T> {
+        return of(type) ?: throw IllegalArgumentException(
+            "no codec for ${type.name}, annotate it with @Codec or call ResponseCodecs.register"
+        )
+    }
+
+    private fun load(type: Class<*>): Any? {
+        return try {
+            Class.forName(type.name + SUFFIX, true, type.classLoader)
+                .getDeclaredConstructor()
+                .newInstance()
+        } catch (e: ReflectiveOperationException) {
+            null
+        } catch (e: LinkageError) {
+            null
+        }
+    }
+
+    /**
+     * 编码为字节数组
+     */
+    @JvmStatic
+    fun <T> encode(value: T, codec: ResponseCodec<T>): ByteArray {
+        val bytes = ByteArray(codec.sizeOf(value))
+        codec.encode(value, ByteBuffer.wrap(bytes))
+        return bytes
+    }
+
+    /**
+     * 从字节数组解码
+     */
+    @JvmStatic
+    fun <T> decode(bytes: ByteArray, codec: ResponseCodec<T>): T {
+        return codec.decode(ByteBuffer.wrap(bytes))
+    }
+
+    // ---------------------------------------------------------------- 变长整数
+
+    /**
+     * 非负整数的变长编码字节数
+     */
+    @JvmStatic
+    fun sizeOfVarint(value: Int): Int {
+        return when {
+            value ushr 7 == 0 -> 1
+            value ushr 14 == 0 -> 2
+            value ushr 21 == 0 -> 3
+            value ushr 28 == 0 -> 4
+            else -> 5
+        }
+    }
+
+    @JvmStatic
+    fun writeVarint(output: ByteBuffer, value: Int) {
+        var remaining = value
+        while (remaining ushr 7 != 0) {
+            output.put((remaining and 0x7f or 0x80).toByte())
+            remaining = remaining ushr 7
+        }
+        output.put(remaining.toByte())
+    }
+
+    @JvmStatic
+    fun readVarint(input: ByteBuffer): Int {
+        var result = 0
+        var shift = 0
+        while (shift < 35) {
+            val b = input.get().toInt()
+            result = result or ((b and 0x7f) shl shift)
+            if (b and 0x80 == 0) return result
+            shift += 7
+        }
+        throw IllegalArgumentException("malformed varint")
+    }
+
+    // ---------------------------------------------------------------- 字符串
+
+    /**
+     * 字符串编码后的字节数，不生成字节数组
+     */
+    @JvmStatic
+    fun sizeOfString(value: String?): Int {
+        if (value == null) return 1
+        val length = utf8Length(value)
+        return sizeOfVarint(length + 1) + length
+    }
+
+    /**
+     * 写入字符串，直接按 UTF-8 写入缓冲区，不成对的代理字符写为 '?'
+     */
+    @JvmStatic
+    fun writeString(output: ByteBuffer, value: String?) {
+        if (value == null) {
+            output.put(0)
+            return
+        }
+        writeVarint(output, utf8Length(value) + 1)
+        var index = 0
+        val length = value.length
+        while (index < length) {
+            val c = value[index]
+            when {
+                c.code < 0x80 -> output.put(c.code.toByte())
+                c.code < 0x800 -> {
+                    output.put((0xc0 or (c.code ushr 6)).toByte())
+                    output.put((0x80 or (c.code and 0x3f)).toByte())
+                }
+                Character.isHighSurrogate(c) && index + 1 < length
+                        && Character.isLowSurrogate(value[index + 1]) -> {
+                    val codePoint = Character.toCodePoint(c, value[++index])
+                    output.put((0xf0 or (codePoint ushr 18)).toByte())
+                    output.put((0x80 or ((codePoint ushr 12) and 0x3f)).toByte())
+                    output.put((0x80 or ((codePoint ushr 6) and 0x3f)).toByte())
+                    output.put((0x80 or (codePoint and 0x3f)).toByte())
+                }
+                Character.isSurrogate(c) -> output.put('?'.code.toByte())
+                else -> {
+                    output.put((0xe0 or (c.code ushr 12)).toByte())
+                    output.put((0x80 or ((c.code ushr 6) and 0x3f)).toByte())
+                    output.put((0x80 or (c.code and 0x3f)).toByte())
+                }
+            }
+            index++
+        }
+    }
+
+    /**
+     * 读取字符串，堆内缓冲区直接由底层数组构造，直接/内存映射缓冲区经线程内临时数组构造
+     */
+    @JvmStatic
+    fun readString(input: ByteBuffer): String? {
+        val length = readVarint(input) - 1
+        if (length < 0) return null
+        if (input.hasArray()) {
+            val value = String(input.array(), input.arrayOffset() + input.position(), length, Charsets.UTF_8)
+            input.position(input.position() + length)
+            return value
+        }
+        var bytes = scratch.get()
+        if (bytes.size < length) {
+            bytes = ByteArray(maxOf(length, bytes.size * 2))
+            scratch.set(bytes)
+        }
+        input.get(bytes, 0, length)
+        return String(bytes, 0, length, Charsets.UTF_8)
+    }
+
+    private fun utf8Length(value: String): Int {
+        var size = 0
+        var index = 0
+        val length = value.length
+        while (index < length) {
+            val c = value[index]
+            size += when {
+                c.code < 0x80 -> 1
+                c.code < 0x800 -> 2
+                Character.isHighSurrogate(c) && index + 1 < length
+                        && Character.isLowSurrogate(value[index + 1]) -> {
+                    index++
+                    4
+                }
+                Character.isSurrogate(c) -> 1
+                else -> 3
+            }
+            index++
+        }
+        return size
+    }
+
+    // ---------------------------------------------------------------- 可空对象与列表
+
+    /**
+     * 可空对象编码后的字节数
+     */
+    @JvmStatic
+    fun <T> sizeOf(value: T?, codec: ResponseCodec<T>): Int {
+        return if (value == null) 1 else 1 + codec.sizeOf(value)
+    }
+
+    @JvmStatic
+    fun <T> write(output: ByteBuffer, value: T?, codec: ResponseCodec<T>) {
+        if (value == null) {
+            output.put(0)
+            return
+        }
+        output.put(1)
+        codec.encode(value, output)
+    }
+
+    @JvmStatic
+    fun <T> read(input: ByteBuffer, codec: ResponseCodec<T>): T? {
+        return if (input.get().toInt() == 0) null else codec.decode(input)
+    }
+
+    /**
+     * 列表编码后的字节数
+     */
+    @JvmStatic
+    fun <T> sizeOfList(value: Collection<T?>?, codec: ResponseCodec<T>): Int {
+        if (value == null) return 1
+        var size = sizeOfVarint(value.size + 1)
+        for (element in value) {
+            size += sizeOf(element, codec)
+        }
+        return size
+    }
+
+    @JvmStatic
+    fun <T> writeList(output: ByteBuffer, value: Collection<T?>?, codec: ResponseCodec<T>) {
+        if (value == null) {
+            output.put(0)
+            return
+        }
+        writeVarint(output, value.size + 1)
+        for (element in value) {
+            write(output, element, codec)
+        }
+    }
+
+    @JvmStatic
+    fun <T> readList(input: ByteBuffer, codec: ResponseCodec<T>): MutableList<T?>? {
+        val size = readVarint(input) - 1
+        if (size < 0) return null
+        val list = ArrayList<T?>(size)
+        for (index in 0 until size) {
+            list.add(read(input, codec))
+        }
+        return list
+    }
+
+    // ---------------------------------------------------------------- 基础类型
+
+    @JvmField
+    val STRING: ResponseCodec<String> = object : ResponseCodec<String> {
+        override fun sizeOf(value: String) = sizeOfString(value)
+        override fun encode(value: String, output: ByteBuffer) = writeString(output, value)
+        override fun decode(input: ByteBuffer) = readString(input)!!
+    }
+
+    @JvmField
+    val BOOLEAN: ResponseCodec<Boolean> = object : ResponseCodec<Boolean> {
+        override fun sizeOf(value: Boolean) = 1
+        override fun encode(value: Boolean, output: ByteBuffer) {
+            output.put(if (value) 1 else 0)
+        }
+
+        override fun decode(input: ByteBuffer) = input.get().toInt() != 0
+    }
+
+    @JvmField
+    val BYTE: ResponseCodec<Byte> = object : ResponseCodec<Byte> {
+        override fun sizeOf(value: Byte) = 1
+        override fun encode(value: Byte, output: ByteBuffer) {
+            output.put(value)
+        }
+
+        override fun decode(input: ByteBuffer) = input.get()
+    }
+
+    @JvmField
+    val SHORT: ResponseCodec<Short> = object : ResponseCodec<Short> {
+        override fun sizeOf(value: Short) = 2
+        override fun encode(value: Short, output: ByteBuffer) {
+            output.putShort(value)
+        }
+
+        override fun decode(input: ByteBuffer) = input.short
+    }
+
+    @JvmField
+    val CHAR: ResponseCodec<Char> = object : ResponseCodec<Char> {
+        override fun sizeOf(value: Char) = 2
+        override fun encode(value: Char, output: ByteBuffer) {
+            output.putChar(value)
+        }
+
+        override fun decode(input: ByteBuffer) = input.char
+    }
+
+    @JvmField
+    val INT: ResponseCodec<Int> = object : ResponseCodec<Int> {
+        override fun sizeOf(value: Int) = 4
+        override fun encode(value: Int, output: ByteBuffer) {
+            output.putInt(value)
+        }
+
+        override fun decode(input: ByteBuffer) = input.int
+    }
+
+    @JvmField
+    val LONG: ResponseCodec<Long> = object : ResponseCodec<Long> {
+        override fun sizeOf(value: Long) = 8
+        override fun encode(value: Long, output: ByteBuffer) {
+            output.putLong(value)
+        }
+
+        override fun decode(input: ByteBuffer) = input.long
+    }
+
+    @JvmField
+    val FLOAT: ResponseCodec<Float> = object : ResponseCodec<Float> {
+        override fun sizeOf(value: Float) = 4
+        override fun encode(value: Float, output: ByteBuffer) {
+            output.putFloat(value)
+        }
+
+        override fun decode(input: ByteBuffer) = input.float
+    }
+
+    @JvmField
+    val DOUBLE: ResponseCodec<Double> = object : ResponseCodec<Double> {
+        override fun sizeOf(value: Double) = 8
+        override fun encode(value: Double, output: ByteBuffer) {
+            output.putDouble(value)
+        }
+
+        override fun decode(input: ByteBuffer) = input.double
+    }
+
+    @JvmField
+    val BYTES: ResponseCodec<ByteArray> = object : ResponseCodec<ByteArray> {
+        override fun sizeOf(value: ByteArray) = sizeOfVarint(value.size) + value.size
+        override fun encode(value: ByteArray, output: ByteBuffer) {
+            writeVarint(output, value.size)
+            output.put(value)
+        }
+
+        override fun decode(input: ByteBuffer): ByteArray {
+            val value = ByteArray(readVarint(input))
+            input.get(value)
+            return value
+        }
+    }
+
+    @JvmField
+    val INTS: ResponseCodec<IntArray> = object : ResponseCodec<IntArray> {
+        override fun sizeOf(value: IntArray) = sizeOfVarint(value.size) + value.size * 4
+        override fun encode(value: IntArray, output: ByteBuffer) {
+            writeVarint(output, value.size)
+            for (element in value) output.putInt(element)
+        }
+
+        override fun decode(input: ByteBuffer) = IntArray(readVarint(input)) { input.int }
+    }
+
+    @JvmField
+    val LONGS: ResponseCodec<LongArray> = object : ResponseCodec<LongArray> {
+        override fun sizeOf(value: LongArray) = sizeOfVarint(value.size) + value.size * 8
+        override fun encode(value: LongArray, output: ByteBuffer) {
+            writeVarint(output, value.size)
+            for (element in value) output.putLong(element)
+        }
+
+        override fun decode(input: ByteBuffer) = LongArray(readVarint(input)) { input.long }
+    }
+
+    @JvmField
+    val DOUBLES: ResponseCodec<DoubleArray> = object : ResponseCodec<DoubleArray> {
+        override fun sizeOf(value: DoubleArray) = sizeOfVarint(value.size) + value.size * 8
+        override fun encode(value: DoubleArray, output: ByteBuffer) {
+            writeVarint(output, value.size)
+            for (element in value) output.putDouble(element)
+        }
+
+        override fun decode(input: ByteBuffer) = DoubleArray(readVarint(input)) { input.double }
+    }
+}
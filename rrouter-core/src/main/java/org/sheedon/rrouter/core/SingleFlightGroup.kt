@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.core
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * 请求合并组（single-flight）
+ * 多个请求代理在同一时刻发起「请求类型 + 请求卡片」一致的请求时，只由第一个代理（领队）真实执行，
+ * 其余代理挂载到该执行上，等待领队的反馈结果被分发。
+ *
+ * 通过 [ConfigRepository.Builder.singleFlight] 开启。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 3:20 下午
+ */
+class SingleFlightGroup {
+
+    // 执行中的请求
+    private val flights = ConcurrentHashMap<Key, Flight>()
+
+    // 真实执行次数
+    private val executedCount = AtomicLong()
+
+    // 被合并的请求次数
+    private val collapsedCount = AtomicLong()
+
+    /**
+     * 加入请求，不存在执行中的请求，则当前等待者成为领队并创建新的执行；
+     * 否则挂载到已有执行上
+     *
+     * @param key    请求键
+     * @param waiter 等待者
+     * @return 当前键对应的执行，[Flight.isLeader] 用于判断是否需要真实执行
+     */
+    fun join(key: Key, waiter: Waiter): Flight {
+        return flights.compute(key) { _, flight ->
+            if (flight == null || flight.isDone) {
+                executedCount.incrementAndGet()
+                Flight(key, waiter)
+            } else {
+                collapsedCount.incrementAndGet()
+                flight.waiters.add(waiter)
+                flight
+            }
+        }!!
+    }
+
+    /**
+     * 真实执行次数
+     */
+    fun getExecutedCount(): Long = executedCount.get()
+
+    /**
+     * 被合并的请求次数
+     */
+    fun getCollapsedCount(): Long = collapsedCount.get()
+
+    /**
+     * 当前执行中的请求数
+     */
+    fun getInFlightCount(): Int = flights.size
+
+    /**
+     * 重置计数
+     */
+    fun resetCounters() {
+        executedCount.set(0)
+        collapsedCount.set(0)
+    }
+
+    /**
+     * 请求键，由「请求工厂类型 + 请求策略类型 + 请求卡片」组成，
+     * 请求卡片依赖其 equals/hashCode 判定一致
+     */
+    data class Key(
+        val requestType: Class<*>,
+        val strategyType: Int,
+        val card: Any?
+    )
+
+    /**
+     * 合并执行的等待者
+     */
+    interface Waiter {
+        /**
+         * 领队反馈结果
+         *
+         * @param model     反馈数据
+         * @param message   描述信息
+         * @param isSuccess 是否成功
+         */
+        fun onFlightResult(model: Any?, message: String?, isSuccess: Boolean)
+
+        /**
+         * 领队放弃执行（取消/销毁），等待者需自行执行请求
+         */
+        fun onFlightAbandoned()
+    }
+
+    /**
+     * 一次合并执行
+     */
+    inner class Flight internal constructor(
+        private val key: Key,
+        private val leader: Waiter
+    ) {
+        internal val waiters = CopyOnWriteArrayList<Waiter>()
+
+        @Volatile
+        internal var isDone = false
+            private set
+
+        /**
+         * 是否为领队
+         */
+        fun isLeader(waiter: Waiter): Boolean = leader === waiter
+
+        /**
+         * 分发领队的中间反馈结果到所有等待者，执行仍未结束
+         */
+        fun publish(model: Any?, message: String?, isSuccess: Boolean) {
+            for (waiter in waiters) {
+                waiter.onFlightResult(model, message, isSuccess)
+            }
+        }
+
+        /**
+         * 执行完成，先移除该执行再分发最终结果，
+         * 保证移除前挂载的等待者都能收到结果，移除后的相同请求将重新执行
+         */
+        fun complete(model: Any?, message: String?, isSuccess: Boolean) {
+            if (!remove()) return
+            publish(model, message, isSuccess)
+            waiters.clear()
+        }
+
+        /**
+         * 领队放弃执行，通知等待者自行执行
+         */
+        fun abandon() {
+            if (!remove()) return
+            for (waiter in waiters) {
+                waiter.onFlightAbandoned()
+            }
+            waiters.clear()
+        }
+
+        /**
+         * 移除当前执行，与 [join] 在同一键上互斥
+         *
+         * @return 是否由本次调用移除
+         */
+        private fun remove(): Boolean {
+            var removed = false
+            flights.computeIfPresent(key) { _, flight ->
+                if (flight === this) {
+                    isDone = true
+                    removed = true
+                    null
+                } else flight
+            }
+            return removed
+        }
+
+        /**
+         * 等待者离开
+         */
+        fun leave(waiter: Waiter) {
+            if (isLeader(waiter)) {
+                abandon()
+                return
+            }
+            waiters.remove(waiter)
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.core
+
+/**
+ * 请求代理的步骤监听，通过 [AbstractRequestProxy.addStepObserver] 添加，
+ * 与反馈监听器收到相同的反馈，并附带反馈来源与是否为最终反馈
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 2:40 上午
+ */
+interface StepObserver<ResponseModel> {
+
+    /**
+     * 步骤反馈，在反馈线程中回调
+     *
+     * @param result 反馈结果
+     */
+    fun onStep(result: StepResult<ResponseModel>)
+
+    /**
+     * 流程链执行结束，最终反馈之后回调；
+     * 未产生最终反馈而结束（如过期数据已反馈、刷新失败），也会回调
+     */
+    fun onChainComplete()
+}
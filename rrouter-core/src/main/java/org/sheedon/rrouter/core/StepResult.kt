@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.core
+
+/**
+ * 流程链单个步骤的反馈结果
+ *
+ * @param requestType 反馈来源的请求类型，合并执行的等待者无法得知来源，为 0
+ * @param model       反馈数据，失败为空
+ * @param message     描述信息
+ * @param isSuccess   是否成功
+ * @param isComplete  是否为流程链的最终反馈
+ * @param timestamp   反馈时间，毫秒
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 2:40 上午
+ */
+data class StepResult<ResponseModel>(
+    val requestType: Int,
+    val model: ResponseModel?,
+    val message: String?,
+    val isSuccess: Boolean,
+    val isComplete: Boolean,
+    val timestamp: Long
+)
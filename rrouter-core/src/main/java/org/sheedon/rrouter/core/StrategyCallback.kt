@@ -28,4 +28,32 @@ interface StrategyCallback<T> {
 
     // 数据加载失败, 请求失败
     fun onDataNotAvailable(message: String?)
+
+    /**
+     * 可按请求类型区分反馈来源的反馈监听器。
+     * 请求工厂创建真实请求时，为每个请求传入 [forRequestType] 返回的反馈监听器，
+     * 同时执行的多个请求（如同时请求远程与本地）的反馈才能区分来源；
+     * 直接使用该监听器反馈时，来源按第一个「请求中」的流程推断。
+     */
+    interface Typed<T> : StrategyCallback<T> {
+        /**
+         * 请求类型对应的反馈监听器
+         *
+         * @param requestType 请求类型
+         */
+        fun forRequestType(requestType: Int): StrategyCallback<T>
+    }
+
+    companion object {
+        /**
+         * 获取请求类型对应的反馈监听器，不区分来源则返回 callback 本身
+         *
+         * @param callback    反馈监听器
+         * @param requestType 请求类型
+         */
+        @JvmStatic
+        fun <T> forRequestType(callback: StrategyCallback<T>, requestType: Int): StrategyCallback<T> {
+            return if (callback is Typed<T>) callback.forRequestType(requestType) else callback
+        }
+    }
 }
\ No newline at end of file
@@ -15,7 +15,6 @@
  */
 package org.sheedon.rrouter.core
 
-import android.util.SparseArray
 
 /**
  * 执行策略
@@ -44,7 +43,7 @@ interface StrategyHandle {
     </RequestCard> */
     fun <RequestCard> handleRequestStrategy(
         processChain: ProcessChain,
-        requestStrategies: SparseArray<Request<RequestCard>>,
+        requestStrategies: ImmutableIntMap<Request<RequestCard>>,
         card: RequestCard?
     ): Boolean
 
@@ -74,7 +73,7 @@ interface StrategyHandle {
         /**
          * 加载策略处理集合
          */
-        protected abstract fun loadStrategyHandlerArray(): SparseArray<StrategyHandle>
+        protected abstract fun loadStrategyHandlerArray(): ImmutableIntMap<StrategyHandle>
 
         /**
          * 加载策略执行者
@@ -83,8 +82,7 @@ interface StrategyHandle {
          * @return StrategyHandler
          */
         fun loadStrategyHandler(requestStrategyType: Int): StrategyHandle? {
-            val sparseArray = loadStrategyHandlerArray()
-            return sparseArray[requestStrategyType]
+            return loadStrategyHandlerArray()[requestStrategyType]
         }
     }
 
@@ -102,10 +100,20 @@ interface StrategyHandle {
          */
         fun loadRequestProcess(strategyType: Int): IntArray?
 
+        /**
+         * 加载策略类型对应的策略执行者，用于请求代理预先解析策略执行计划 [StrategyPlan]，
+         * 返回空则每次执行都按策略类型交由组策略执行者处理
+         *
+         * @param strategyType 请求策略类型
+         */
+        fun loadStrategyHandler(strategyType: Int): StrategyHandle? {
+            return null
+        }
+
         // 执行请求策略
         fun <RequestCard> handleRequestStrategy(
             requestStrategyType: Int, processChain: ProcessChain,
-            requestStrategies: SparseArray<Request<RequestCard>>,
+            requestStrategies: ImmutableIntMap<Request<RequestCard>>,
             card: RequestCard?
         ): Boolean
 
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.core
+
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * 策略执行计划，请求代理创建时一次性解析「策略类型 -> 策略执行者 -> 请求流程 -> 真实请求」，
+ * 之后的请求调度与反馈处理直接基于该计划执行，无需每一步都经由
+ * RRouter -> ConfigRepository -> 组策略执行者 -> 策略处理集合 查找。
+ *
+ * 设置了请求指标监听时，真实请求会被包装，用于记录请求发起事件，以及该请求自身反馈的结果与耗时。
+ *
+ * 组策略执行者无法提供具体的策略执行者时（[StrategyHandle.Responsibilities.loadStrategyHandler] 返回空），
+ * 退回到按策略类型交由组策略执行者执行。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 6:10 下午
+ */
+class StrategyPlan<RequestCard> private constructor(
+    // 请求策略类型
+    val strategyType: Int,
+    // 组策略执行者
+    private val responsibilities: StrategyHandle.Responsibilities,
+    // 策略执行者，为空则交由组策略执行者执行
+    val handler: StrategyHandle?,
+    // 请求流程
+    private val process: IntArray,
+    // 请求策略集合
+    val requestStrategies: ImmutableIntMap<Request<RequestCard>>
+) {
+
+    // 按请求流程顺序解析的真实请求
+    private val requests: List<Request<RequestCard>?> = process.map { requestStrategies[it] }
+
+    /**
+     * 创建流程链，设置状态为未开始
+     */
+    fun newProcessChain(): ProcessChain {
+        return ProcessChain(*process)
+    }
+
+    /**
+     * 流程数量
+     */
+    fun processSize(): Int = process.size
+
+    /**
+     * 获取第 index 个流程的请求类型
+     */
+    fun processAt(index: Int): Int = process[index]
+
+    /**
+     * 获取第 index 个流程对应的真实请求，不存在则返回空
+     */
+    fun requestAt(index: Int): Request<RequestCard>? = requests[index]
+
+    /**
+     * 执行请求策略
+     *
+     * @param processChain 流程链
+     * @param card         请求卡片
+     * @return 执行是否成功
+     */
+    fun dispatchRequest(processChain: ProcessChain, card: RequestCard?): Boolean {
+        val handler = handler
+            ?: return responsibilities.handleRequestStrategy(
+                strategyType, processChain, requestStrategies, card
+            )
+        return handler.handleRequestStrategy(processChain, requestStrategies, card)
+    }
+
+    /**
+     * 执行反馈处理策略
+     *
+     * @param processChain  流程链
+     * @param callback      反馈监听
+     * @param responseModel 反馈结果
+     * @param message       描述信息
+     * @param isSuccess     是否请求成功
+     * @return 是否处理成功
+     */
+    fun <ResponseModel> dispatchCallback(
+        processChain: ProcessChain,
+        callback: DataSource.Callback<ResponseModel>?,
+        responseModel: ResponseModel?, message: String?,
+        isSuccess: Boolean
+    ): Boolean {
+        val handler = handler
+            ?: return responsibilities.handleCallbackStrategy(
+                strategyType, processChain, callback,
+                responseModel, message, isSuccess
+            )
+        return handler.handleCallbackStrategy(
+            processChain, callback, responseModel,
+            message, isSuccess
+        )
+    }
+
+    /**
+     * 记录请求类型的反馈结果，由该请求的反馈监听器调用，未设置请求指标监听则忽略
+     *
+     * @param requestType 请求类型
+     * @param isSuccess   是否请求成功
+     */
+    internal fun recordResult(requestType: Int, isSuccess: Boolean) {
+        (requestStrategies[requestType] as? MeteredRequest<*>)?.onResult(isSuccess)
+    }
+
+    /**
+     * 记录请求发起事件与反馈结果的请求包装，
+     * 每次发起只记录一次反馈，超时后迟到的反馈不再计入
+     */
+    private class MeteredRequest<RequestCard>(
+        private val delegate: Request<RequestCard>,
+        private val strategyType: Int,
+        private val requestType: Int,
+        private val metrics: RequestMetrics
+    ) : Request.Wrapper<RequestCard> {
+
+        // 本次发起的时间，已记录反馈则为 0
+        private val dispatchNanos = AtomicLong()
+
+        override fun request(requestCard: RequestCard?) {
+            dispatchNanos.set(System.nanoTime())
+            metrics.onRequestDispatch(strategyType, requestType)
+            delegate.request(requestCard)
+        }
+
+        fun onResult(isSuccess: Boolean) {
+            val start = dispatchNanos.getAndSet(0)
+            if (start == 0L) return
+            metrics.onRequestResult(strategyType, requestType, isSuccess, System.nanoTime() - start)
+        }
+
+        override fun delegate(): Request<RequestCard> = delegate
+
+        override fun onRequestType(): Int = delegate.onRequestType()
+
+        override fun onCancel() = delegate.onCancel()
+
+        override fun onDestroy() = delegate.onDestroy()
+    }
+
+    companion object {
+        /**
+         * 解析策略执行计划
+         *
+         * @param responsibilities  组策略执行者
+         * @param strategyType      请求策略类型
+         * @param requestStrategies 请求策略集合
+         * @param metrics           请求指标监听，为空则不包装真实请求
+         * @return StrategyPlan
+         */
+        @JvmStatic
+        @JvmOverloads
+        fun <RequestCard> create(
+            responsibilities: StrategyHandle.Responsibilities,
+            strategyType: Int,
+            requestStrategies: ImmutableIntMap<Request<RequestCard>>,
+            metrics: RequestMetrics? = null
+        ): StrategyPlan<RequestCard> {
+            val handler = responsibilities.loadStrategyHandler(strategyType)
+            val process = (handler?.loadRequestProcess()
+                ?: responsibilities.loadRequestProcess(strategyType)
+                ?: throw NullPointerException("request process is null"))
+            var strategies = requestStrategies
+            if (metrics != null) {
+                val builder = ImmutableIntMap.Builder<Request<RequestCard>>()
+                for (index in 0 until requestStrategies.size()) {
+                    val requestType = requestStrategies.keyAt(index)
+                    builder.put(
+                        requestType,
+                        MeteredRequest(
+                            requestStrategies.valueAt(index),
+                            strategyType, requestType, metrics
+                        )
+                    )
+                }
+                strategies = builder.build()
+            }
+            return StrategyPlan(
+                strategyType, responsibilities, handler,
+                process.copyOf(), strategies
+            )
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.core
+
+import java.util.concurrent.Executor
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.ScheduledThreadPoolExecutor
+import java.util.concurrent.SynchronousQueue
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+
+/**
+ * 请求定时器，请求超时与批处理定时共享一个守护线程，
+ * 定时线程只负责发出信号，取消请求、推进流程、反馈结果与执行批次均通过 [post] 移交执行器
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 9:30 下午
+ */
+internal object TimeoutScheduler {
+
+    private val executor by lazy {
+        ScheduledThreadPoolExecutor(1) { runnable ->
+            Thread(runnable, "rrouter-timeout").apply { isDaemon = true }
+        }.apply { removeOnCancelPolicy = true }
+    }
+
+    // 默认执行器，未配置执行器时承接定时触发的后续处理
+    val worker: Executor by lazy {
+        ThreadPoolExecutor(
+            0, Int.MAX_VALUE, 60, TimeUnit.SECONDS, SynchronousQueue()
+        ) { runnable ->
+            Thread(runnable, "rrouter-worker").apply { isDaemon = true }
+        }
+    }
+
+    /**
+     * 延迟执行超时任务
+     *
+     * @param delayNanos 延迟时长，纳秒
+     * @param task       超时任务
+     */
+    fun schedule(delayNanos: Long, task: Runnable): ScheduledFuture<*> {
+        return executor.schedule(task, delayNanos, TimeUnit.NANOSECONDS)
+    }
+
+    /**
+     * 将定时触发的后续处理移交执行器，执行器拒绝时在当前线程执行，避免丢失超时反馈
+     *
+     * @param executor 执行器，为空则使用 [worker]
+     * @param task     后续处理
+     */
+    fun post(executor: Executor?, task: Runnable) {
+        try {
+            (executor ?: worker).execute(task)
+        } catch (e: RejectedExecutionException) {
+            task.run()
+        }
+    }
+}
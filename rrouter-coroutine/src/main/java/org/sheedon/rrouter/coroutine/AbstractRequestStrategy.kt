@@ -15,14 +15,19 @@
  */
 package org.sheedon.rrouter.coroutine
 
+import kotlinx.coroutines.CoroutineDispatcher
 import kotlinx.coroutines.CoroutineScope
-import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.Job
-import kotlinx.coroutines.async
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.isActive
+import kotlinx.coroutines.launch
 import org.sheedon.rrouter.core.*
+import kotlin.coroutines.cancellation.CancellationException
 
 /**
  * 抽象请求策略支持
+ * 请求运行在 coroutineScope 的子 SupervisorJob 中，单次请求失败不影响 coroutineScope；
+ * 请求被取消（重新请求、[onCancel]、[onDestroy] 或 coroutineScope 取消）后不再反馈。
  *
  * @Author: sheedon
  * @Email: sheedonsun@163.com
@@ -34,13 +39,23 @@ abstract class AbstractRequestStrategy<RequestCard, ResponseModel>(
 ) : Request<RequestCard> {
 
     private var disposable: Job? = null
+
+    // 当前请求策略的子作业，销毁时取消
+    private val supervisor = SupervisorJob(coroutineScope.coroutineContext[Job])
+
+    // 执行请求的调度器，首次请求时获取
+    private var dispatcher: CoroutineDispatcher? = null
     private var factory: Converter<Any, IRspModel<*>>?
     private var errorMessage: String
 
+    // 全局请求调度器，未设置则不限制并发
+    private val scheduler: RequestScheduler?
+
     init {
         @Suppress("UNCHECKED_CAST")
         factory = RRouter.getInstance().rspConverter as Converter<Any, IRspModel<*>>
         errorMessage = RRouter.getInstance().configRepository.getErrorMessage()
+        scheduler = RRouter.getInstance().configRepository.getRequestScheduler()
     }
 
     /**
@@ -54,34 +69,53 @@ abstract class AbstractRequestStrategy<RequestCard, ResponseModel>(
             job.cancel()
         }
 
-        disposable = coroutineScope.async(Dispatchers.IO) {
-            try {
-                val rspModel = onLoadMethod(requestCard)
-
-                if (callback == null) return@async
-                if (rspModel == null) {
-                    callback?.onDataNotAvailable(errorMessage)
-                    return@async
-                }
-                val iRspModel: IRspModel<*> = factory!!.convert(rspModel)
-                if (iRspModel.checkSuccess()) {
-                    callback?.onDataLoaded(rspModel)
-                    return@async
-                }
-                val message = iRspModel.loadMessage()
-                callback?.onDataNotAvailable(message)
-                onSuccessComplete()
+        val dispatcher = dispatcher ?: onLoadDispatcher().also { dispatcher = it }
+        disposable = coroutineScope.launch(supervisor + dispatcher) {
+            val rspModel = try {
+                loadScheduled(requestCard)
+            } catch (e: CancellationException) {
+                throw e
             } catch (e: Exception) {
-                if (e.message?.contains(CODE_CANCEL) == true) {
-                    callback?.onDataNotAvailable("")
-                } else {
-                    callback?.onDataNotAvailable(e.message)
-                }
+                if (isActive) callback?.onDataNotAvailable(e.message)
+                return@launch
+            }
+            // 加载期间被取消（如阻塞代码未响应取消），丢弃结果
+            if (!isActive || callback == null) return@launch
+            if (rspModel == null) {
+                callback?.onDataNotAvailable(errorMessage)
+                return@launch
             }
+            val iRspModel: IRspModel<*> = factory!!.convert(rspModel)
+            if (iRspModel.checkSuccess()) {
+                callback?.onDataLoaded(rspModel)
+                onSuccessComplete()
+                return@launch
+            }
+            callback?.onDataNotAvailable(iRspModel.loadMessage())
+        }
+    }
 
+    /**
+     * 设置了全局请求调度器，则获得执行许可后再加载
+     */
+    private suspend fun loadScheduled(requestCard: RequestCard?): ResponseModel? {
+        val scheduler = scheduler ?: return onLoadMethod(requestCard)
+        return scheduler.withPermit(onRequestType(), onLoadPriority()) {
+            onLoadMethod(requestCard)
         }
     }
 
+    /**
+     * 执行请求的调度器，默认为请求类型对应的调度器 [RequestDispatchers.of]
+     */
+    protected open fun onLoadDispatcher(): CoroutineDispatcher = RequestDispatchers.of(onRequestType())
+
+    /**
+     * 请求优先级，全局请求调度器排队时使用，默认为用户可见
+     * [RequestScheduler.PRIORITY_USER_VISIBLE]
+     */
+    protected open fun onLoadPriority(): Int = RequestScheduler.PRIORITY_USER_VISIBLE
+
     /**
      * 加载API 方法
      */
@@ -108,15 +142,13 @@ abstract class AbstractRequestStrategy<RequestCard, ResponseModel>(
     override fun onDestroy() {
         callback = null
         factory = null
-        val job = disposable
-        if (job != null && !job.isCompleted) {
-            job.cancel()
-        }
+        supervisor.cancel()
         disposable = null
     }
 
     companion object {
         // 取消code
+        @Deprecated("取消通过 CancellationException 处理，被取消的请求不再反馈")
         const val CODE_CANCEL = " 600 "
     }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.coroutine
+
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.suspendCancellableCoroutine
+import org.sheedon.rrouter.core.RequestBatcher
+import org.sheedon.rrouter.core.StrategyCallback
+import kotlin.coroutines.resume
+import kotlin.coroutines.resumeWithException
+
+/**
+ * 批处理请求策略，请求卡片加入 [RequestBatcher]，与其他请求合并为一次批量加载，
+ * 协程挂起等待本请求对应的结果，协程取消则取消该请求
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 10:30 下午
+ */
+abstract class BatchRequestStrategy<RequestCard, ResponseModel>(
+    coroutineScope: CoroutineScope,
+    callback: StrategyCallback<ResponseModel>?,
+    protected val batcher: RequestBatcher<RequestCard, ResponseModel>
+) : AbstractRequestStrategy<RequestCard, ResponseModel>(coroutineScope, callback) {
+
+    override suspend fun onLoadMethod(requestCard: RequestCard?): ResponseModel? {
+        return suspendCancellableCoroutine { continuation ->
+            val ticket = batcher.submit(requestCard, object : RequestBatcher.Receiver<ResponseModel> {
+                override fun onResult(model: ResponseModel?) {
+                    continuation.resume(model)
+                }
+
+                override fun onFailure(message: String?) {
+                    continuation.resumeWithException(RequestBatcher.BatchException(message))
+                }
+            })
+            continuation.invokeOnCancellation { ticket.cancel() }
+        }
+    }
+}
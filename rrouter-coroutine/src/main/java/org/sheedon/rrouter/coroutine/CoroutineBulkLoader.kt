@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.coroutine
+
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.launch
+import org.sheedon.rrouter.core.RequestBatcher
+
+/**
+ * 协程批量加载器，在 [Dispatchers.IO] 中执行挂起的批量加载方法
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 10:30 下午
+ */
+class CoroutineBulkLoader<RequestCard, ResponseModel>(
+    private val coroutineScope: CoroutineScope,
+    private val block: suspend (List<RequestCard?>) -> List<ResponseModel?>
+) : RequestBatcher.BulkLoader<RequestCard, ResponseModel> {
+
+    override fun load(
+        cards: List<RequestCard?>,
+        result: RequestBatcher.BatchResult<ResponseModel>
+    ) {
+        val job = coroutineScope.launch(Dispatchers.IO) {
+            try {
+                result.onLoaded(block(cards))
+            } catch (e: Exception) {
+                result.onFailure(e.message)
+            }
+        }
+        // 作用域已取消，批量加载不会执行
+        job.invokeOnCompletion { cause ->
+            if (cause != null) result.onFailure(cause.message)
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.coroutine
+
+import kotlinx.coroutines.CoroutineDispatcher
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.asCoroutineDispatcher
+import org.sheedon.rrouter.core.ConfigRepository
+import org.sheedon.rrouter.core.RRouter
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.coroutines.CoroutineContext
+
+/**
+ * 按请求类型划分的协程调度器，避免本地请求与远程请求在同一个线程池中相互竞争
+ * 1. 配置了执行器 [ConfigRepository.Builder.requestExecutor]，则在该执行器中执行
+ * 2. 配置了执行并发数 [ConfigRepository.Builder.requestParallelism]，则使用 Dispatchers.IO 的 limitedParallelism 视图
+ * 3. 都未配置则使用 Dispatchers.IO
+ *
+ * 调度器按请求类型创建一次，重新配置 RRouter 后重新创建。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 3:30 上午
+ */
+object RequestDispatchers {
+
+    // 创建调度器时采用的配置
+    @Volatile
+    private var repository: ConfigRepository? = null
+
+    private val dispatchers = ConcurrentHashMap<Int, RequestDispatcher>()
+
+    /**
+     * 获取请求类型对应的调度器
+     *
+     * @param requestType 请求类型
+     */
+    @JvmStatic
+    fun of(requestType: Int): RequestDispatcher {
+        val repository = RRouter.getInstance().configRepository
+        if (repository !== this.repository) {
+            synchronized(this) {
+                if (repository !== this.repository) {
+                    dispatchers.clear()
+                    this.repository = repository
+                }
+            }
+        }
+        dispatchers[requestType]?.let { return it }
+        val created = RequestDispatcher(requestType, createDelegate(repository, requestType))
+        return dispatchers.putIfAbsent(requestType, created) ?: created
+    }
+
+    /**
+     * 请求类型的调度器中等待执行的任务数，调度器未创建则返回 0
+     *
+     * @param requestType 请求类型
+     */
+    @JvmStatic
+    fun getQueueDepth(requestType: Int): Int = dispatchers[requestType]?.getQueueDepth() ?: 0
+
+    /**
+     * 已创建的调度器，以请求类型为键
+     */
+    @JvmStatic
+    fun getDispatchers(): Map<Int, RequestDispatcher> = HashMap(dispatchers)
+
+    @OptIn(ExperimentalCoroutinesApi::class)
+    private fun createDelegate(repository: ConfigRepository, requestType: Int): CoroutineDispatcher {
+        val executor = repository.getRequestExecutor(requestType)
+        if (executor != null) {
+            return executor.asCoroutineDispatcher()
+        }
+        val parallelism = repository.getRequestParallelism(requestType)
+        return if (parallelism > 0) Dispatchers.IO.limitedParallelism(parallelism) else Dispatchers.IO
+    }
+}
+
+/**
+ * 请求类型的协程调度器，委托给实际调度器执行，统计等待执行与执行中的任务数。
+ * 协程每次恢复（如 delay 结束）都是一次任务。
+ */
+class RequestDispatcher internal constructor(
+    val requestType: Int,
+    private val delegate: CoroutineDispatcher
+) : CoroutineDispatcher() {
+
+    private val queued = AtomicInteger()
+    private val running = AtomicInteger()
+
+    override fun isDispatchNeeded(context: CoroutineContext): Boolean {
+        return delegate.isDispatchNeeded(context)
+    }
+
+    override fun dispatch(context: CoroutineContext, block: Runnable) {
+        queued.incrementAndGet()
+        try {
+            delegate.dispatch(context, Task(block))
+        } catch (e: Throwable) {
+            queued.decrementAndGet()
+            throw e
+        }
+    }
+
+    /**
+     * 等待执行的任务数
+     */
+    fun getQueueDepth(): Int = queued.get()
+
+    /**
+     * 执行中的任务数
+     */
+    fun getRunningCount(): Int = running.get()
+
+    override fun toString(): String {
+        return "RequestDispatcher{requestType=$requestType, delegate=$delegate}"
+    }
+
+    private inner class Task(private val block: Runnable) : Runnable {
+        override fun run() {
+            queued.decrementAndGet()
+            running.incrementAndGet()
+            try {
+                block.run()
+            } finally {
+                running.decrementAndGet()
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.coroutine
+
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.channels.awaitClose
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.buffer
+import kotlinx.coroutines.flow.callbackFlow
+import org.sheedon.rrouter.core.AbstractRequestProxy
+import org.sheedon.rrouter.core.StepObserver
+import org.sheedon.rrouter.core.StepResult
+
+/**
+ * 以冷流的方式执行请求，每次收集发起一次 [AbstractRequestProxy.request]，
+ * 依次发射各步骤的反馈结果，流程链执行结束 [org.sheedon.rrouter.core.ProcessChain.isAllCompleted] 时流完成。
+ * 如同步请求远程和本地 [StepResult.requestType] 区分反馈来源，可直接配合 conflate、debounce、first 使用。
+ *
+ * 请求代理的当前执行与本次请求卡片一致时，不重新请求，收集当前执行的剩余反馈；
+ * 提前结束收集只移除监听，不取消执行中的请求。
+ */
+fun <RequestCard, ResponseModel> AbstractRequestProxy<RequestCard, ResponseModel>.requestFlow():
+        Flow<StepResult<ResponseModel>> = callbackFlow {
+    val observer = object : StepObserver<ResponseModel> {
+        override fun onStep(result: StepResult<ResponseModel>) {
+            trySend(result)
+            if (result.isComplete) {
+                channel.close()
+            }
+        }
+
+        override fun onChainComplete() {
+            channel.close()
+        }
+    }
+    addStepObserver(observer)
+    request()
+    awaitClose { removeStepObserver(observer) }
+}.buffer(Channel.UNLIMITED)
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.coroutine
+
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.suspendCancellableCoroutine
+import org.sheedon.rrouter.core.RequestScheduler
+
+/**
+ * 挂起直到获得执行许可，协程取消则取消排队，已获得许可则归还。
+ * 许可交付后、协程恢复前被取消，同样归还许可
+ *
+ * @param requestType 请求类型
+ * @param priority    优先级
+ * @return 许可凭证，执行完成后需调用 [RequestScheduler.Ticket.release]
+ */
+@OptIn(ExperimentalCoroutinesApi::class)
+suspend fun RequestScheduler.acquire(requestType: Int, priority: Int): RequestScheduler.Ticket {
+    return suspendCancellableCoroutine { continuation ->
+        val ticket = submit(requestType, priority) { granted ->
+            continuation.resume(granted) { granted.release() }
+        }
+        continuation.invokeOnCancellation { ticket.cancel() }
+    }
+}
+
+/**
+ * 在许可内执行 [block]，执行结束（含异常、取消）后归还许可
+ *
+ * @param requestType 请求类型
+ * @param priority    优先级
+ * @param block       执行内容
+ */
+suspend inline fun <T> RequestScheduler.withPermit(
+    requestType: Int,
+    priority: Int,
+    block: () -> T
+): T {
+    val ticket = acquire(requestType, priority)
+    try {
+        return block()
+    } finally {
+        ticket.release()
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.coroutine
+
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.cancel
+import kotlinx.coroutines.delay
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.BeforeClass
+import org.junit.Test
+import org.sheedon.rrouter.core.ConfigRepository
+import org.sheedon.rrouter.core.IRspModel
+import org.sheedon.rrouter.core.ImmutableIntMap
+import org.sheedon.rrouter.core.RRouter
+import org.sheedon.rrouter.core.StrategyCallback
+import org.sheedon.rrouter.core.StrategyHandle
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+/**
+ * 连续重新请求、取消与销毁后，被取消的请求不再反馈，只有最后一次请求反馈
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 10:10 上午
+ */
+class AbstractRequestStrategyTest {
+
+    private val scope = CoroutineScope(SupervisorJob())
+
+    private class Rsp(private val value: Int) : IRspModel<Int> {
+        override fun loadCode(): Any = 200
+        override fun loadData(): Int = value
+        override fun checkSuccess() = true
+        override fun loadMessage(): String? = null
+    }
+
+    private class Results : StrategyCallback<Rsp> {
+        val values = CopyOnWriteArrayList<Any?>()
+        private val first = CountDownLatch(1)
+
+        override fun onDataLoaded(t: Rsp) {
+            values.add(t.loadData())
+            first.countDown()
+        }
+
+        override fun onDataNotAvailable(message: String?) {
+            values.add(message)
+            first.countDown()
+        }
+
+        /**
+         * 等待第一次反馈，再留出时间接收迟到的反馈
+         */
+        fun await(): List<Any?> {
+            first.await(5, TimeUnit.SECONDS)
+            Thread.sleep(200)
+            return values
+        }
+
+        /**
+         * 不期望反馈，留出时间接收迟到的反馈
+         */
+        fun quiet(): List<Any?> {
+            Thread.sleep(300)
+            return values
+        }
+    }
+
+    /**
+     * 阻塞加载，不响应取消，放行后返回请求卡片
+     */
+    private class BlockingRequest(
+        scope: CoroutineScope, callback: StrategyCallback<Rsp>, private val gate: CountDownLatch
+    ) : AbstractRequestStrategy<Int, Rsp>(scope, callback) {
+
+        override suspend fun onLoadMethod(requestCard: Int?): Rsp {
+            gate.await()
+            return Rsp(requestCard!!)
+        }
+
+        override fun onRequestType() = 1
+    }
+
+    /**
+     * 挂起加载，响应取消
+     */
+    private class SuspendingRequest(
+        scope: CoroutineScope, callback: StrategyCallback<Rsp>
+    ) : AbstractRequestStrategy<Int, Rsp>(scope, callback) {
+
+        override suspend fun onLoadMethod(requestCard: Int?): Rsp {
+            delay(20)
+            return Rsp(requestCard!!)
+        }
+
+        override fun onRequestType() = 1
+    }
+
+    @After
+    fun tearDown() {
+        scope.cancel()
+    }
+
+    @Test
+    fun churnWithBlockingLoadsDeliversOnlyLast() {
+        val gate = CountDownLatch(1)
+        val results = Results()
+        val request = BlockingRequest(scope, results, gate)
+
+        for (card in 1..CHURN) {
+            request.request(card)
+        }
+        gate.countDown()
+        assertEquals(listOf<Any?>(CHURN), results.await())
+    }
+
+    @Test
+    fun churnWithSuspendingLoadsDeliversOnlyLast() {
+        val results = Results()
+        val request = SuspendingRequest(scope, results)
+
+        for (card in 1..CHURN) {
+            request.request(card)
+        }
+        assertEquals(listOf<Any?>(CHURN), results.await())
+    }
+
+    @Test
+    fun cancelledRequestDoesNotCallBack() {
+        val gate = CountDownLatch(1)
+        val results = Results()
+        val request = BlockingRequest(scope, results, gate)
+
+        for (card in 1..CHURN) {
+            request.request(card)
+        }
+        request.onCancel()
+        gate.countDown()
+        assertEquals(emptyList<Any?>(), results.quiet())
+    }
+
+    @Test
+    fun destroyedRequestDoesNotCallBack() {
+        val gate = CountDownLatch(1)
+        val results = Results()
+        val request = BlockingRequest(scope, results, gate)
+
+        request.request(1)
+        request.onDestroy()
+        gate.countDown()
+        assertEquals(emptyList<Any?>(), results.quiet())
+    }
+
+    @Test
+    fun cancelledScopeDoesNotCallBack() {
+        val gate = CountDownLatch(1)
+        val results = Results()
+        val request = BlockingRequest(scope, results, gate)
+
+        request.request(1)
+        scope.cancel()
+        gate.countDown()
+        assertEquals(emptyList<Any?>(), results.quiet())
+    }
+
+    companion object {
+        // 连续重新请求的次数
+        private const val CHURN = 500
+
+        @BeforeClass
+        @JvmStatic
+        fun setUp() {
+            if (RRouter.isInstalled()) return
+            RRouter.setUp(
+                ConfigRepository.Builder()
+                    .factory(object : StrategyHandle.Factory() {
+                        override fun loadStrategyHandlerArray(): ImmutableIntMap<StrategyHandle> {
+                            return ImmutableIntMap.Builder<StrategyHandle>().build()
+                        }
+                    })
+                    .build()
+            )
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.loom
+
+import org.sheedon.rrouter.core.*
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Future
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * 抽象请求策略支持，[onLoadMethod] 为普通的阻塞代码（如 JDBC、阻塞式 HTTP 客户端），
+ * 在虚拟线程中执行，阻塞时只挂起虚拟线程，不占用平台线程。
+ *
+ * 取消时中断执行线程，并丢弃本次执行的结果，不再反馈。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 1:45 上午
+ */
+abstract class AbstractRequestStrategy<RequestCard, ResponseModel> @JvmOverloads constructor(
+    protected var callback: StrategyCallback<ResponseModel>?,
+    private val executor: ExecutorService = VirtualThreads.DEFAULT
+) : Request<RequestCard> {
+
+    @Volatile
+    private var current: Execution? = null
+    private var factory: Converter<Any, IRspModel<*>>?
+    private var errorMessage: String
+
+    // 全局请求调度器，未设置则不限制并发
+    private val scheduler: RequestScheduler?
+
+    init {
+        @Suppress("UNCHECKED_CAST")
+        factory = RRouter.getInstance().rspConverter as Converter<Any, IRspModel<*>>
+        errorMessage = RRouter.getInstance().configRepository.getErrorMessage()
+        scheduler = RRouter.getInstance().configRepository.getRequestScheduler()
+    }
+
+    /**
+     * 请求操作
+     *
+     * @param requestCard 请求卡片
+     */
+    override fun request(requestCard: RequestCard?) {
+        current?.cancel()
+        val execution = Execution(requestCard)
+        current = execution
+
+        val scheduler = scheduler
+        if (scheduler == null) {
+            execution.start(null)
+            return
+        }
+        execution.ticket = scheduler.submit(onRequestType(), onLoadPriority()) { ticket ->
+            execution.start(ticket)
+        }
+        if (execution.isCancelled()) execution.ticket?.cancel()
+    }
+
+    /**
+     * 执行加载并反馈，已取消则不反馈
+     */
+    private fun load(execution: Execution) {
+        try {
+            val rspModel = onLoadMethod(execution.requestCard)
+            if (execution.isCancelled() || callback == null) return
+            if (rspModel == null) {
+                callback?.onDataNotAvailable(errorMessage)
+                return
+            }
+            val iRspModel: IRspModel<*> = factory!!.convert(rspModel)
+            if (iRspModel.checkSuccess()) {
+                callback?.onDataLoaded(rspModel)
+                onSuccessComplete()
+                return
+            }
+            callback?.onDataNotAvailable(iRspModel.loadMessage())
+        } catch (e: InterruptedException) {
+            // 取消导致的中断，不反馈
+            if (!execution.isCancelled()) callback?.onDataNotAvailable(e.message)
+        } catch (e: Exception) {
+            if (!execution.isCancelled()) callback?.onDataNotAvailable(e.message)
+        } finally {
+            execution.ticket?.release()
+        }
+    }
+
+    /**
+     * 加载API 方法，阻塞执行，需响应线程中断以支持取消
+     */
+    @Throws(Exception::class)
+    protected abstract fun onLoadMethod(requestCard: RequestCard?): ResponseModel?
+
+    /**
+     * 请求优先级，全局请求调度器排队时使用，默认为用户可见
+     * [RequestScheduler.PRIORITY_USER_VISIBLE]
+     */
+    protected open fun onLoadPriority(): Int = RequestScheduler.PRIORITY_USER_VISIBLE
+
+    /**
+     * 成功返回结果
+     */
+    protected open fun onSuccessComplete() {}
+
+    /**
+     * 取消，中断执行中的请求
+     */
+    override fun onCancel() {
+        current?.cancel()
+        current = null
+    }
+
+    /**
+     * 销毁
+     */
+    override fun onDestroy() {
+        onCancel()
+        callback = null
+        factory = null
+    }
+
+    /**
+     * 单次执行
+     */
+    private inner class Execution(val requestCard: RequestCard?) {
+        private val cancelled = AtomicBoolean()
+
+        @Volatile
+        var ticket: RequestScheduler.Ticket? = null
+
+        @Volatile
+        private var future: Future<*>? = null
+
+        fun isCancelled() = cancelled.get()
+
+        /**
+         * 提交到执行器，已取消则归还许可
+         */
+        fun start(ticket: RequestScheduler.Ticket?) {
+            // 许可可能在 submit 返回前授予，先记录以便执行完成后归还
+            this.ticket = ticket
+            if (isCancelled()) {
+                ticket?.release()
+                return
+            }
+            future = executor.submit { load(this) }
+            if (isCancelled()) future?.cancel(true)
+        }
+
+        fun cancel() {
+            if (!cancelled.compareAndSet(false, true)) return
+            future?.cancel(true)
+            ticket?.cancel()
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.loom
+
+import org.sheedon.rrouter.core.StrategyCallback
+
+/**
+ * 默认空请求策略
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 1:50 上午
+ */
+class NullRequestStrategy(
+    callback: StrategyCallback<Any>?
+) : AbstractRequestStrategy<Any, Any>(callback) {
+    override fun onLoadMethod(requestCard: Any?): Any {
+        return requestCard ?: Any()
+    }
+
+    override fun request(requestCard: Any?) {}
+    override fun onRequestType(): Int {
+        return 0
+    }
+
+    override fun onCancel() {}
+    override fun onDestroy() {}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.loom
+
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * 虚拟线程执行器
+ * 运行在 JDK 21+ 时创建「每任务一个虚拟线程」的执行器，
+ * 低版本 JDK 退回到平台线程的缓存线程池（守护线程），便于同一产物在不同运行环境中使用。
+ *
+ * 通过反射调用 Executors.newVirtualThreadPerTaskExecutor，模块编译目标仍为 1.8。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 1:40 上午
+ */
+object VirtualThreads {
+
+    private val factoryMethod = try {
+        Executors::class.java.getMethod("newVirtualThreadPerTaskExecutor")
+    } catch (e: NoSuchMethodException) {
+        null
+    }
+
+    /**
+     * 当前运行环境是否支持虚拟线程
+     */
+    @JvmStatic
+    fun isSupported(): Boolean = factoryMethod != null
+
+    /**
+     * 创建每任务一个虚拟线程的执行器，不支持则创建平台线程的缓存线程池
+     */
+    @JvmStatic
+    fun newExecutor(): ExecutorService {
+        val method = factoryMethod ?: return Executors.newCachedThreadPool(PlatformThreadFactory())
+        return method.invoke(null) as ExecutorService
+    }
+
+    /**
+     * 默认共享执行器，虚拟线程无需池化，所有请求策略共享即可
+     */
+    @JvmStatic
+    val DEFAULT: ExecutorService by lazy { newExecutor() }
+
+    private class PlatformThreadFactory : ThreadFactory {
+        private val index = AtomicInteger()
+
+        override fun newThread(runnable: Runnable): Thread {
+            return Thread(runnable, "rrouter-loom-" + index.incrementAndGet()).apply {
+                isDaemon = true
+            }
+        }
+    }
+}
@@ -15,69 +15,56 @@
  */
 package org.sheedon.rrouter.rxjava
 
-import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers
 import io.reactivex.rxjava3.core.Observable
+import io.reactivex.rxjava3.core.Scheduler
 import io.reactivex.rxjava3.disposables.Disposable
-import io.reactivex.rxjava3.functions.Consumer
-import io.reactivex.rxjava3.schedulers.Schedulers
 import org.sheedon.rrouter.core.*
 
 /**
- * 抽象请求策略支持
+ * 抽象请求策略支持，订阅与观察的调度器由 [RxSchedulerConfig] 按请求类型配置
  *
  * @Author: sheedon
  * @Email: sheedonsun@163.com
  * @Date: 2021/11/15 10:37 下午
  */
 abstract class AbstractRequestStrategy<RequestCard, ResponseModel>(
-    protected var callback: StrategyCallback<ResponseModel>?
-) : Request<RequestCard> {
+    callback: StrategyCallback<ResponseModel>?
+) : BaseRequestStrategy<RequestCard, ResponseModel>(callback) {
 
-    private var disposable: Disposable? = null
-    private var factory: Converter<ResponseModel, IRspModel<*>>?
-    private var errorMessage: String
-
-    init {
-        @Suppress("UNCHECKED_CAST")
-        factory = RRouter.getInstance().rspConverter as Converter<ResponseModel, IRspModel<*>>
-        errorMessage = RRouter.getInstance().configRepository.getErrorMessage()
+    @Suppress("UPPER_BOUND_VIOLATED_BASED_ON_JAVA_ANNOTATIONS")
+    internal override fun subscribe(
+        requestCard: RequestCard?,
+        subscribeOn: Scheduler,
+        observeOn: Scheduler?
+    ): Disposable {
+        var observable = loadScheduled(requestCard).subscribeOn(subscribeOn)
+        if (observeOn != null) {
+            observable = observable.observeOn(observeOn)
+        }
+        return observable.subscribe({ deliver(it) }) {
+            deliverError(it.message)
+        }
     }
 
     /**
-     * 请求操作
-     *
-     * @param requestCard 请求卡片
+     * 设置了全局请求调度器，则获得执行许可后再订阅，结束（含异常、取消）后归还许可
      */
-    @Suppress("UPPER_BOUND_VIOLATED_BASED_ON_JAVA_ANNOTATIONS",
-        "UPPER_BOUND_VIOLATED_BASED_ON_JAVA_ANNOTATIONS"
-    )
-    override fun request(requestCard: RequestCard?) {
-        val job = disposable
-        if (job != null && !job.isDisposed) {
-            job.dispose()
-        }
-
-        disposable = onLoadMethod(requestCard)
-            .subscribeOn(Schedulers.io())
-            .observeOn(AndroidSchedulers.mainThread())
-            .subscribe(object : Consumer<ResponseModel> {
-                override fun accept(rspModel: ResponseModel) {
-                    if (callback == null) return
-
-                    val iRspModel: IRspModel<*> = factory!!.convert(rspModel)
-
-                    if (iRspModel.checkSuccess()) {
-                        callback?.onDataLoaded(rspModel)
-                    }else{
-                        val message = iRspModel.loadMessage()
-                        callback?.onDataNotAvailable(message)
-                    }
-                    onSuccessComplete()
-                }
-
-            }) {
-                callback?.onDataNotAvailable(it.message)
+    @Suppress("UPPER_BOUND_VIOLATED_BASED_ON_JAVA_ANNOTATIONS")
+    private fun loadScheduled(requestCard: RequestCard?): Observable<ResponseModel> {
+        val scheduler = scheduler ?: return onLoadMethod(requestCard)
+        return Observable.defer {
+            val permit = Permit()
+            Observable.create<RequestScheduler.Ticket> { emitter ->
+                permit.attach(scheduler.submit(onRequestType(), onLoadPriority()) { granted ->
+                    emitter.onNext(granted)
+                    emitter.onComplete()
+                })
+            }.concatMap {
+                onLoadMethod(requestCard)
+            }.doFinally {
+                permit.finish()
             }
+        }
     }
 
     /**
@@ -85,32 +72,4 @@ abstract class AbstractRequestStrategy<RequestCard, ResponseModel>(
      */
     @Suppress("UPPER_BOUND_VIOLATED_BASED_ON_JAVA_ANNOTATIONS")
     protected abstract fun onLoadMethod(requestCard: RequestCard?): Observable<ResponseModel>
-
-    /**
-     * 成功返回结果
-     */
-    protected open fun onSuccessComplete() {}
-
-    /**
-     * 取消
-     */
-    override fun onCancel() {
-        val job = disposable
-        if (job != null && !job.isDisposed) {
-            job.dispose()
-        }
-    }
-
-    /**
-     * 销毁
-     */
-    override fun onDestroy() {
-        callback = null
-        factory = null
-        val job = disposable
-        if (job != null && !job.isDisposed) {
-            job.dispose()
-        }
-        disposable = null
-    }
-}
\ No newline at end of file
+}
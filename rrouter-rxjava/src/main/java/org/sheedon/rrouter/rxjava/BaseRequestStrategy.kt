@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.rxjava
+
+import io.reactivex.rxjava3.core.Scheduler
+import io.reactivex.rxjava3.disposables.Disposable
+import org.sheedon.rrouter.core.*
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * RxJava 请求策略的公共部分：反馈结果核实、订阅的取消与销毁、调度器与全局请求调度器的许可，
+ * 由 [AbstractRequestStrategy]（Observable）、[SingleRequestStrategy]、[MaybeRequestStrategy] 实现订阅
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 4:00 上午
+ */
+abstract class BaseRequestStrategy<RequestCard, ResponseModel> internal constructor(
+    protected var callback: StrategyCallback<ResponseModel>?
+) : Request<RequestCard> {
+
+    private var disposable: Disposable? = null
+    private var factory: Converter<ResponseModel, IRspModel<*>>?
+    internal val errorMessage: String
+
+    // 全局请求调度器，未设置则不限制并发
+    internal val scheduler: RequestScheduler?
+
+    // 调度器配置
+    private val schedulerConfig: RxSchedulerConfig
+
+    init {
+        @Suppress("UNCHECKED_CAST")
+        factory = RRouter.getInstance().rspConverter as Converter<ResponseModel, IRspModel<*>>
+        errorMessage = RRouter.getInstance().configRepository.getErrorMessage()
+        scheduler = RRouter.getInstance().configRepository.getRequestScheduler()
+        schedulerConfig = RxSchedulerConfig.get()
+    }
+
+    /**
+     * 请求操作
+     *
+     * @param requestCard 请求卡片
+     */
+    override fun request(requestCard: RequestCard?) {
+        val job = disposable
+        if (job != null && !job.isDisposed) {
+            job.dispose()
+        }
+
+        val requestType = onRequestType()
+        disposable = subscribe(
+            requestCard,
+            schedulerConfig.subscribeScheduler(requestType),
+            schedulerConfig.observeScheduler(requestType)
+        )
+    }
+
+    /**
+     * 订阅加载方法
+     *
+     * @param requestCard 请求卡片
+     * @param subscribeOn 订阅调度器
+     * @param observeOn   观察调度器，为空则不切换线程
+     * @return 订阅
+     */
+    internal abstract fun subscribe(
+        requestCard: RequestCard?,
+        subscribeOn: Scheduler,
+        observeOn: Scheduler?
+    ): Disposable
+
+    /**
+     * 核实结果并反馈
+     */
+    internal fun deliver(rspModel: ResponseModel) {
+        if (callback == null) return
+
+        val iRspModel: IRspModel<*> = factory!!.convert(rspModel)
+
+        if (iRspModel.checkSuccess()) {
+            callback?.onDataLoaded(rspModel)
+        } else {
+            val message = iRspModel.loadMessage()
+            callback?.onDataNotAvailable(message)
+        }
+        onSuccessComplete()
+    }
+
+    /**
+     * 反馈失败
+     */
+    internal fun deliverError(message: String?) {
+        callback?.onDataNotAvailable(message)
+    }
+
+    /**
+     * 请求优先级，全局请求调度器排队时使用，默认为用户可见
+     * [RequestScheduler.PRIORITY_USER_VISIBLE]
+     */
+    protected open fun onLoadPriority(): Int = RequestScheduler.PRIORITY_USER_VISIBLE
+
+    /**
+     * 成功返回结果
+     */
+    protected open fun onSuccessComplete() {}
+
+    /**
+     * 取消
+     */
+    override fun onCancel() {
+        val job = disposable
+        if (job != null && !job.isDisposed) {
+            job.dispose()
+        }
+    }
+
+    /**
+     * 销毁
+     */
+    override fun onDestroy() {
+        callback = null
+        factory = null
+        val job = disposable
+        if (job != null && !job.isDisposed) {
+            job.dispose()
+        }
+        disposable = null
+    }
+
+    /**
+     * 单次订阅的执行许可，订阅结束（含异常、取消）时取消排队或归还许可
+     */
+    internal class Permit {
+        private val finished = AtomicBoolean()
+
+        @Volatile
+        private var ticket: RequestScheduler.Ticket? = null
+
+        fun attach(ticket: RequestScheduler.Ticket) {
+            this.ticket = ticket
+            if (finished.get()) ticket.cancel()
+        }
+
+        fun finish() {
+            if (finished.compareAndSet(false, true)) ticket?.cancel()
+        }
+    }
+}
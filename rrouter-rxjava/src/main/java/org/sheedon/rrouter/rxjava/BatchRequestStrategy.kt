@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.rxjava
+
+import io.reactivex.rxjava3.core.Observable
+import org.sheedon.rrouter.core.RRouter
+import org.sheedon.rrouter.core.RequestBatcher
+import org.sheedon.rrouter.core.StrategyCallback
+
+/**
+ * 批处理请求策略，请求卡片加入 [RequestBatcher]，与其他请求合并为一次批量加载，
+ * 订阅取消则取消该请求；结果为空视为无数据，按失败处理
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 10:30 下午
+ */
+abstract class BatchRequestStrategy<RequestCard, ResponseModel : Any>(
+    callback: StrategyCallback<ResponseModel>?,
+    protected val batcher: RequestBatcher<RequestCard, ResponseModel>
+) : AbstractRequestStrategy<RequestCard, ResponseModel>(callback) {
+
+    override fun onLoadMethod(requestCard: RequestCard?): Observable<ResponseModel> {
+        return Observable.create { emitter ->
+            val ticket = batcher.submit(requestCard, object : RequestBatcher.Receiver<ResponseModel> {
+                override fun onResult(model: ResponseModel?) {
+                    if (model == null) {
+                        emitter.tryOnError(
+                            RequestBatcher.BatchException(
+                                RRouter.getInstance().configRepository.getErrorMessage()
+                            )
+                        )
+                        return
+                    }
+                    emitter.onNext(model)
+                    emitter.onComplete()
+                }
+
+                override fun onFailure(message: String?) {
+                    emitter.tryOnError(RequestBatcher.BatchException(message))
+                }
+            })
+            emitter.setCancellable { ticket.cancel() }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.rxjava
+
+import io.reactivex.rxjava3.core.Observable
+import io.reactivex.rxjava3.schedulers.Schedulers
+import org.sheedon.rrouter.core.RequestBatcher
+
+/**
+ * RxJava 批量加载器，在 [Schedulers.io] 中订阅批量加载方法，取第一个结果
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 10:30 下午
+ */
+class RxBulkLoader<RequestCard, ResponseModel>(
+    private val block: (List<RequestCard?>) -> Observable<List<ResponseModel?>>
+) : RequestBatcher.BulkLoader<RequestCard, ResponseModel> {
+
+    override fun load(
+        cards: List<RequestCard?>,
+        result: RequestBatcher.BatchResult<ResponseModel>
+    ) {
+        block(cards)
+            .firstOrError()
+            .subscribeOn(Schedulers.io())
+            .subscribe({ result.onLoaded(it) }) { result.onFailure(it.message) }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.rxjava
+
+import io.reactivex.rxjava3.core.BackpressureStrategy
+import io.reactivex.rxjava3.core.Flowable
+import io.reactivex.rxjava3.core.Observable
+import io.reactivex.rxjava3.core.ObservableEmitter
+import org.sheedon.rrouter.core.*
+import java.util.concurrent.CancellationException
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * 响应式请求代理，将 [AbstractRequestProxy] 的执行包装为 [Observable]，
+ * 依次发射各步骤的反馈结果 [StepResult]，流程链执行结束时完成，可直接与其他 Rx 操作符组合。
+ *
+ * 1. 订阅时才发起请求，请求卡片一致（按 [CardFingerprints.keyOf] 比较）的并发订阅共享同一次执行，
+ *    后订阅者先收到已发射的步骤结果
+ * 2. 请求代理同时只执行一个流程链，不一致的请求卡片开始执行时，
+ *    上一次执行的订阅以 [AbstractRequestProxy.MESSAGE_SUPERSEDED] 的 CancellationException 结束
+ * 3. 共享执行的全部订阅均已取消，则取消执行中的请求 [AbstractRequestProxy.cancel]
+ *
+ * 反馈在策略反馈的线程中发射，需切换线程时自行 observeOn。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 4:30 上午
+ */
+class RxRequestProxy<RequestCard, ResponseModel>(
+    private val proxy: AbstractRequestProxy<RequestCard, ResponseModel>
+) {
+
+    private val lock = Any()
+
+    // 请求卡片对应的共享执行，执行结束或全部订阅取消后移除
+    private val shared = HashMap<Any?, Observable<StepResult<ResponseModel>>>()
+
+    // 当前执行
+    private var current: Run? = null
+
+    /**
+     * 执行请求，返回各步骤的反馈结果
+     *
+     * @param requestCard 请求卡片
+     * @return 步骤反馈结果，流程链执行结束时完成
+     */
+    fun request(requestCard: RequestCard): Observable<StepResult<ResponseModel>> {
+        val key = CardFingerprints.keyOf(requestCard)
+        synchronized(lock) {
+            shared[key]?.let { return it }
+            lateinit var observable: Observable<StepResult<ResponseModel>>
+            observable = Observable.create<StepResult<ResponseModel>> { emitter ->
+                start(Run(requestCard, emitter.serialize()))
+            }.doFinally {
+                synchronized(lock) {
+                    if (shared[key] === observable) shared.remove(key)
+                }
+            }.replay().refCount()
+            shared[key] = observable
+            return observable
+        }
+    }
+
+    /**
+     * 执行请求，返回各步骤的反馈结果，背压采用缓存全部结果
+     *
+     * @see request
+     */
+    fun requestFlowable(requestCard: RequestCard): Flowable<StepResult<ResponseModel>> {
+        return request(requestCard).toFlowable(BackpressureStrategy.BUFFER)
+    }
+
+    /**
+     * 执行请求，只取最终结果，请求失败则以 [DataNotAvailableException] 结束
+     *
+     * @param requestCard 请求卡片
+     * @return 最终结果，先反馈过期数据再刷新的策略取最后一次成功的数据
+     */
+    fun requestResult(requestCard: RequestCard): Observable<ResponseModel> {
+        return request(requestCard)
+            .reduce(Pair<StepResult<ResponseModel>?, StepResult<ResponseModel>?>(null, null)) { acc, step ->
+                Pair(if (step.isSuccess) step else acc.first, step)
+            }
+            .flatMapObservable { (success, last) ->
+                val model = success?.model
+                when {
+                    model != null -> Observable.just(model)
+                    else -> Observable.error(DataNotAvailableException(last?.message))
+                }
+            }
+    }
+
+    /**
+     * 开始执行，取代上一次执行
+     */
+    private fun start(run: Run) {
+        val previous = synchronized(lock) {
+            current.also { current = run }
+        }
+        previous?.supersede()
+        run.emitter.setCancellable { run.dispose() }
+        proxy.addStepObserver(run)
+        proxy.request(run.requestCard)
+    }
+
+    /**
+     * 单次执行，接收该执行的步骤反馈
+     */
+    private inner class Run(
+        val requestCard: RequestCard,
+        val emitter: ObservableEmitter<StepResult<ResponseModel>>
+    ) : StepObserver<ResponseModel> {
+
+        private val finished = AtomicBoolean()
+
+        override fun onStep(result: StepResult<ResponseModel>) {
+            if (finished.get()) return
+            emitter.onNext(result)
+            if (result.isComplete) {
+                onChainComplete()
+            }
+        }
+
+        override fun onChainComplete() {
+            if (finish()) {
+                emitter.onComplete()
+            }
+        }
+
+        /**
+         * 被不一致的请求卡片取代
+         */
+        fun supersede() {
+            if (finish()) {
+                emitter.tryOnError(CancellationException(AbstractRequestProxy.MESSAGE_SUPERSEDED))
+            }
+        }
+
+        /**
+         * 全部订阅已取消，仍在执行则取消请求
+         */
+        fun dispose() {
+            if (!finished.compareAndSet(false, true)) return
+            proxy.removeStepObserver(this)
+            val isCurrent = synchronized(lock) {
+                (current === this).also { if (it) current = null }
+            }
+            if (isCurrent) {
+                proxy.cancel()
+            }
+        }
+
+        private fun finish(): Boolean {
+            if (!finished.compareAndSet(false, true)) return false
+            proxy.removeStepObserver(this)
+            synchronized(lock) {
+                if (current === this) current = null
+            }
+            return true
+        }
+    }
+}
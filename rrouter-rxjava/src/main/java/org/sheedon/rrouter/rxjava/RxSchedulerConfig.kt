@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.rxjava
+
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers
+import io.reactivex.rxjava3.core.Scheduler
+import io.reactivex.rxjava3.schedulers.Schedulers
+import org.sheedon.rrouter.core.ConfigRepository
+import org.sheedon.rrouter.core.ImmutableIntMap
+import org.sheedon.rrouter.core.RRouter
+
+/**
+ * RxJava 请求策略的调度器配置，按请求类型指定订阅（执行请求）与观察（反馈）的调度器，
+ * 通过 [ConfigRepository.Builder.extension] 设置：
+ *
+ * ```
+ * ConfigRepository.Builder()
+ *     .extension(RxSchedulerConfig::class.java, RxSchedulerConfig.Builder()
+ *         .subscribeOn(TYPE_LOCAL_REQUEST, diskScheduler)
+ *         .observeOnDirect()
+ *         .build())
+ * ```
+ *
+ * 未配置时在 [Schedulers.io] 中订阅；Android 中在主线程反馈，
+ * 非 Android 环境（JVM 服务、单元测试）不切换线程，直接在订阅线程中反馈。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 4:00 上午
+ */
+class RxSchedulerConfig private constructor(builder: Builder) {
+
+    private val subscribeOn = builder.subscribeOn.build()
+    private val observeOn = builder.observeOn.build()
+    private val defaultSubscribeOn = builder.defaultSubscribeOn
+    private val defaultObserveOn = builder.defaultObserveOn
+
+    /**
+     * 请求类型的订阅调度器
+     *
+     * @param requestType 请求类型
+     */
+    fun subscribeScheduler(requestType: Int): Scheduler {
+        return subscribeOn[requestType] ?: defaultSubscribeOn ?: Schedulers.io()
+    }
+
+    /**
+     * 请求类型的观察调度器，不切换线程则返回空
+     *
+     * @param requestType 请求类型
+     */
+    fun observeScheduler(requestType: Int): Scheduler? {
+        val scheduler = observeOn[requestType] ?: defaultObserveOn ?: return mainThread
+        return if (scheduler === DIRECT) null else scheduler
+    }
+
+    class Builder {
+        internal val subscribeOn = ImmutableIntMap.Builder<Scheduler>()
+        internal val observeOn = ImmutableIntMap.Builder<Scheduler>()
+        internal var defaultSubscribeOn: Scheduler? = null
+        internal var defaultObserveOn: Scheduler? = null
+
+        /**
+         * 请求类型的订阅调度器，如本地请求使用单独的磁盘调度器
+         */
+        fun subscribeOn(requestType: Int, scheduler: Scheduler) = apply {
+            this.subscribeOn.put(requestType, scheduler)
+        }
+
+        /**
+         * 未单独配置的请求类型的订阅调度器，默认 [Schedulers.io]
+         */
+        fun subscribeOn(scheduler: Scheduler) = apply {
+            this.defaultSubscribeOn = scheduler
+        }
+
+        /**
+         * 请求类型的观察调度器
+         */
+        fun observeOn(requestType: Int, scheduler: Scheduler) = apply {
+            this.observeOn.put(requestType, scheduler)
+        }
+
+        /**
+         * 未单独配置的请求类型的观察调度器，默认 Android 主线程
+         */
+        fun observeOn(scheduler: Scheduler) = apply {
+            this.defaultObserveOn = scheduler
+        }
+
+        /**
+         * 请求类型不切换线程，在订阅线程中直接反馈，适用于反馈给另一个后台处理流程
+         */
+        fun observeOnDirect(requestType: Int) = observeOn(requestType, DIRECT)
+
+        /**
+         * 未单独配置的请求类型不切换线程，在订阅线程中直接反馈
+         */
+        fun observeOnDirect() = observeOn(DIRECT)
+
+        fun build(): RxSchedulerConfig {
+            return RxSchedulerConfig(this)
+        }
+    }
+
+    companion object {
+        // 不切换线程的标记
+        private val DIRECT: Scheduler = Schedulers.trampoline()
+
+        private val DEFAULT = Builder().build()
+
+        // Android 主线程调度器，非 Android 环境为空
+        private val mainThread: Scheduler? by lazy { loadMainThread() }
+
+        /**
+         * 当前配置，未设置则为默认配置
+         */
+        @JvmStatic
+        fun get(): RxSchedulerConfig {
+            return RRouter.getInstance().configRepository.getExtension(RxSchedulerConfig::class.java)
+                ?: DEFAULT
+        }
+
+        private fun loadMainThread(): Scheduler? {
+            return try {
+                Class.forName("android.os.Looper")
+                AndroidSchedulers.mainThread()
+            } catch (e: ClassNotFoundException) {
+                null
+            } catch (e: LinkageError) {
+                // 未依赖 rxandroid，或 android.jar 桩实现
+                null
+            } catch (e: RuntimeException) {
+                null
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.rxjava
+
+import io.reactivex.rxjava3.core.Scheduler
+import io.reactivex.rxjava3.core.Single
+import io.reactivex.rxjava3.disposables.Disposable
+import org.sheedon.rrouter.core.*
+
+/**
+ * 单结果请求策略，加载方法返回 [Single]，适用于只有一个结果的请求（如 Retrofit 的 Single 接口），
+ * 订阅与观察的调度器由 [RxSchedulerConfig] 按请求类型配置
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 4:00 上午
+ */
+abstract class SingleRequestStrategy<RequestCard, ResponseModel>(
+    callback: StrategyCallback<ResponseModel>?
+) : BaseRequestStrategy<RequestCard, ResponseModel>(callback) {
+
+    @Suppress("UPPER_BOUND_VIOLATED_BASED_ON_JAVA_ANNOTATIONS")
+    internal override fun subscribe(
+        requestCard: RequestCard?,
+        subscribeOn: Scheduler,
+        observeOn: Scheduler?
+    ): Disposable {
+        var single = loadScheduled(requestCard).subscribeOn(subscribeOn)
+        if (observeOn != null) {
+            single = single.observeOn(observeOn)
+        }
+        return single.subscribe({ deliver(it) }) {
+            deliverError(it.message)
+        }
+    }
+
+    /**
+     * 设置了全局请求调度器，则获得执行许可后再订阅，结束（含异常、取消）后归还许可
+     */
+    @Suppress("UPPER_BOUND_VIOLATED_BASED_ON_JAVA_ANNOTATIONS")
+    private fun loadScheduled(requestCard: RequestCard?): Single<ResponseModel> {
+        val scheduler = scheduler ?: return onLoadMethod(requestCard)
+        return Single.defer {
+            val permit = Permit()
+            Single.create<RequestScheduler.Ticket> { emitter ->
+                permit.attach(scheduler.submit(onRequestType(), onLoadPriority()) { granted ->
+                    emitter.onSuccess(granted)
+                })
+            }.flatMap {
+                onLoadMethod(requestCard)
+            }.doFinally {
+                permit.finish()
+            }
+        }
+    }
+
+    /**
+     * 加载API 方法
+     */
+    @Suppress("UPPER_BOUND_VIOLATED_BASED_ON_JAVA_ANNOTATIONS")
+    protected abstract fun onLoadMethod(requestCard: RequestCard?): Single<ResponseModel>
+}
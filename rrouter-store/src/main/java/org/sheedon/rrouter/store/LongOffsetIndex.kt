@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.store
+
+/**
+ * 记录键到文件偏移量的索引，线性探测的开放寻址表，键与偏移量分别存于基本类型数组，
+ * 每条记录约占 12 字节（负载不超过 1/2），不产生装箱对象。
+ * 偏移量 0 为空槽位，文件头之后的偏移量均大于 0。非线程安全，由 [MappedStore] 加锁访问。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 5:00 上午
+ */
+internal class LongOffsetIndex(expectedSize: Int = 16) {
+
+    private var keys: LongArray
+    private var offsets: IntArray
+    private var mask: Int
+    private var shift: Int
+    private var size = 0
+
+    init {
+        var capacity = 16
+        while (capacity < expectedSize * 2) {
+            capacity = capacity shl 1
+        }
+        keys = LongArray(capacity)
+        offsets = IntArray(capacity)
+        mask = capacity - 1
+        shift = 64 - Integer.numberOfTrailingZeros(capacity)
+    }
+
+    /**
+     * 记录数
+     */
+    fun size(): Int = size
+
+    /**
+     * 获取键对应的偏移量，不存在则返回 -1
+     */
+    fun get(key: Long): Int {
+        var slot = slotOf(key)
+        while (true) {
+            val offset = offsets[slot]
+            if (offset == 0) return -1
+            if (keys[slot] == key) return offset
+            slot = (slot + 1) and mask
+        }
+    }
+
+    /**
+     * 写入键对应的偏移量
+     *
+     * @return 原偏移量，不存在则返回 -1
+     */
+    fun put(key: Long, offset: Int): Int {
+        var slot = slotOf(key)
+        while (true) {
+            val current = offsets[slot]
+            if (current == 0) break
+            if (keys[slot] == key) {
+                offsets[slot] = offset
+                return current
+            }
+            slot = (slot + 1) and mask
+        }
+        keys[slot] = key
+        offsets[slot] = offset
+        if (++size * 2 > offsets.size) {
+            resize(offsets.size shl 1)
+        }
+        return -1
+    }
+
+    /**
+     * 移除键，后续探测链上的记录向前移动，不留删除标记
+     *
+     * @return 原偏移量，不存在则返回 -1
+     */
+    fun remove(key: Long): Int {
+        var slot = slotOf(key)
+        while (true) {
+            val offset = offsets[slot]
+            if (offset == 0) return -1
+            if (keys[slot] == key) {
+                shiftBack(slot)
+                size--
+                return offset
+            }
+            slot = (slot + 1) and mask
+        }
+    }
+
+    /**
+     * 遍历全部记录
+     */
+    fun forEach(action: (key: Long, offset: Int) -> Unit) {
+        val keys = keys
+        val offsets = offsets
+        for (slot in offsets.indices) {
+            if (offsets[slot] != 0) {
+                action(keys[slot], offsets[slot])
+            }
+        }
+    }
+
+    /**
+     * 拷贝当前索引
+     */
+    fun copy(): LongOffsetIndex {
+        val copy = LongOffsetIndex()
+        copy.keys = keys.copyOf()
+        copy.offsets = offsets.copyOf()
+        copy.mask = mask
+        copy.shift = shift
+        copy.size = size
+        return copy
+    }
+
+    private fun slotOf(key: Long): Int {
+        return ((key * MULTIPLIER) ushr shift).toInt()
+    }
+
+    /**
+     * 空出槽位，将探测链上后续记录移到离起始槽位更近的位置
+     */
+    private fun shiftBack(removed: Int) {
+        var hole = removed
+        var slot = removed
+        while (true) {
+            slot = (slot + 1) and mask
+            if (offsets[slot] == 0) break
+            val home = slotOf(keys[slot])
+            // 起始槽位不在 (hole, slot] 内的记录可前移到空槽位
+            val stays = if (hole <= slot) {
+                home in (hole + 1)..slot
+            } else {
+                home > hole || home <= slot
+            }
+            if (!stays) {
+                keys[hole] = keys[slot]
+                offsets[hole] = offsets[slot]
+                hole = slot
+            }
+        }
+        keys[hole] = 0
+        offsets[hole] = 0
+    }
+
+    private fun resize(capacity: Int) {
+        val oldKeys = keys
+        val oldOffsets = offsets
+        keys = LongArray(capacity)
+        offsets = IntArray(capacity)
+        mask = capacity - 1
+        shift = 64 - Integer.numberOfTrailingZeros(capacity)
+        for (slot in oldOffsets.indices) {
+            val offset = oldOffsets[slot]
+            if (offset == 0) continue
+            var target = slotOf(oldKeys[slot])
+            while (offsets[target] != 0) {
+                target = (target + 1) and mask
+            }
+            keys[target] = oldKeys[slot]
+            offsets[target] = offset
+        }
+    }
+
+    private companion object {
+        private const val MULTIPLIER = -0x61c8864680b583ebL
+    }
+}
@@ -0,0 +1,608 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.store
+
+import org.sheedon.rrouter.core.ResponseCodec
+import java.io.Closeable
+import java.io.File
+import java.io.IOException
+import java.io.RandomAccessFile
+import java.nio.ByteBuffer
+import java.nio.MappedByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import java.util.concurrent.Executor
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import java.util.zip.CRC32
+
+/**
+ * 基于内存映射文件的键值存储，只追加写入，以 64 位键索引字节数组
+ * 1. 写入与删除均追加一条记录，内存中只保留「键 -> 记录偏移量」的紧凑索引，读取直接从映射内存拷贝，
+ *    或通过 [ResponseCodec] 直接在映射内存上编码写入、解码读取，不经过中间字节数组
+ * 2. 每条记录带 CRC32 校验，记录长度最后写入，进程崩溃时未写完的记录长度为 0 或校验失败，
+ *    重新打开时从该记录截断，之前的记录不受影响；[Builder.syncWrites] 开启时每次写入后刷盘，防止断电丢失
+ * 3. 失效记录占比超过 [Builder.compactionRatio] 时在后台压缩，只拷贝有效记录到新文件后原子替换，
+ *    压缩期间的写入在替换前追加到新文件
+ *
+ * 单个文件最大 2GB，同一文件同时只能由一个实例打开。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 5:00 上午
+ */
+class MappedStore private constructor(builder: Builder) : Closeable {
+
+    private val file: File = builder.file ?: throw IllegalArgumentException("file == null")
+    private val initialSize = builder.initialSize
+    private val syncWrites = builder.syncWrites
+    private val compactionRatio = builder.compactionRatio
+    private val minCompactionBytes = builder.minCompactionBytes
+    private val executor: Executor = builder.executor ?: COMPACTION_EXECUTOR
+
+    private val lock = Any()
+
+    // 压缩锁，同时只执行一次压缩
+    private val compactionLock = Any()
+
+    private var channel: FileChannel
+    private var buffer: MappedByteBuffer
+    private var index = LongOffsetIndex()
+
+    // 下一条记录的写入位置
+    private var writePosition = HEADER_SIZE
+
+    // 有效写入记录的字节数
+    private var liveBytes = 0L
+
+    private var closed = false
+    private var compactionScheduled = false
+    private var compactionCount = 0L
+
+    private val crc = CRC32()
+
+    init {
+        File(file.path + COMPACT_SUFFIX).delete()
+        channel = RandomAccessFile(file, "rw").channel
+        try {
+            val size = channel.size()
+            buffer = channel.map(
+                FileChannel.MapMode.READ_WRITE, 0,
+                roundUp(maxOf(size, initialSize.toLong()))
+            )
+            if (size < HEADER_SIZE) {
+                buffer.putInt(0, MAGIC)
+                buffer.putInt(4, VERSION)
+            } else {
+                if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                    throw IOException("not a store file: $file")
+                }
+                recover()
+            }
+        } catch (e: IOException) {
+            channel.close()
+            throw e
+        }
+    }
+
+    /**
+     * 读取键对应的值
+     *
+     * @param key 键
+     * @return 值，不存在则返回空
+     */
+    fun get(key: Long): ByteArray? {
+        synchronized(lock) {
+            checkOpen()
+            val offset = index.get(key)
+            if (offset < 0) return null
+            val value = ByteArray(buffer.getInt(offset + VALUE_LENGTH))
+            val source = buffer.duplicate()
+            source.position(offset + RECORD_HEADER_SIZE)
+            source.get(value)
+            return value
+        }
+    }
+
+    /**
+     * 读取键对应的值并在映射内存上直接解码，不拷贝为字节数组。
+     * 记录只追加不覆盖，压缩替换文件后原映射仍然有效，因此解码不持锁。
+     *
+     * @param key   键
+     * @param codec 编解码，只能读取该记录的值
+     * @return 结果model，不存在则返回空
+     */
+    fun <T> get(key: Long, codec: ResponseCodec<T>): T? {
+        val source: ByteBuffer
+        synchronized(lock) {
+            checkOpen()
+            val offset = index.get(key)
+            if (offset < 0) return null
+            source = buffer.duplicate()
+            source.limit(offset + buffer.getInt(offset))
+            source.position(offset + RECORD_HEADER_SIZE)
+        }
+        return codec.decode(source.slice())
+    }
+
+    /**
+     * 键对应的值的写入时间
+     *
+     * @param key 键
+     * @return 写入时间（System.currentTimeMillis），不存在则返回 -1
+     */
+    fun writtenAt(key: Long): Long {
+        synchronized(lock) {
+            checkOpen()
+            val offset = index.get(key)
+            return if (offset < 0) -1 else buffer.getLong(offset + WRITTEN_AT)
+        }
+    }
+
+    /**
+     * 是否存在键
+     */
+    fun contains(key: Long): Boolean = synchronized(lock) {
+        checkOpen()
+        index.get(key) >= 0
+    }
+
+    /**
+     * 写入键值
+     *
+     * @param key   键
+     * @param value 值
+     */
+    @Throws(IOException::class)
+    fun put(key: Long, value: ByteArray) {
+        synchronized(lock) {
+            checkOpen()
+            val offset = append(key, OP_PUT, value.size) { it.put(value) }
+            updateIndex(key, offset)
+        }
+    }
+
+    /**
+     * 写入键值，直接编码到映射内存
+     *
+     * @param key   键
+     * @param value 结果model
+     * @param codec 编解码，写入的字节数需与 [ResponseCodec.sizeOf] 一致
+     */
+    @Throws(IOException::class)
+    fun <T> put(key: Long, value: T, codec: ResponseCodec<T>) {
+        val size = codec.sizeOf(value)
+        synchronized(lock) {
+            checkOpen()
+            val offset = append(key, OP_PUT, size) { target ->
+                codec.encode(value, target)
+                if (target.hasRemaining()) {
+                    throw IllegalStateException(
+                        "codec wrote ${target.position()} bytes, sizeOf returned $size"
+                    )
+                }
+            }
+            updateIndex(key, offset)
+        }
+    }
+
+    private fun updateIndex(key: Long, offset: Int) {
+        val old = index.put(key, offset)
+        if (old >= 0) {
+            liveBytes -= buffer.getInt(old)
+        }
+        liveBytes += buffer.getInt(offset)
+        scheduleCompactionIfNeeded()
+    }
+
+    /**
+     * 删除键
+     *
+     * @param key 键
+     * @return 是否存在并删除
+     */
+    @Throws(IOException::class)
+    fun remove(key: Long): Boolean {
+        synchronized(lock) {
+            checkOpen()
+            val old = index.get(key)
+            if (old < 0) return false
+            append(key, OP_DELETE, 0, null)
+            index.remove(key)
+            liveBytes -= buffer.getInt(old)
+            scheduleCompactionIfNeeded()
+            return true
+        }
+    }
+
+    /**
+     * 记录数
+     */
+    fun size(): Int = synchronized(lock) { index.size() }
+
+    /**
+     * 文件已使用的字节数
+     */
+    fun getFileBytes(): Long = synchronized(lock) { writePosition.toLong() }
+
+    /**
+     * 有效记录的字节数，含文件头
+     */
+    fun getLiveBytes(): Long = synchronized(lock) { liveBytes + HEADER_SIZE }
+
+    /**
+     * 已完成的压缩次数
+     */
+    fun getCompactionCount(): Long = synchronized(lock) { compactionCount }
+
+    /**
+     * 在当前线程压缩文件，只保留有效记录
+     */
+    @Throws(IOException::class)
+    fun compact() {
+        synchronized(compactionLock) {
+            compactLocked()
+        }
+    }
+
+    /**
+     * 刷盘
+     */
+    fun sync() {
+        synchronized(lock) {
+            if (!closed) buffer.force()
+        }
+    }
+
+    /**
+     * 刷盘并关闭文件
+     */
+    override fun close() {
+        synchronized(lock) {
+            if (closed) return
+            closed = true
+            buffer.force()
+            channel.close()
+        }
+    }
+
+    /**
+     * 追加一条记录，记录长度最后写入，写入值失败则清除已写入的字节
+     *
+     * @param valueLength 值的字节数
+     * @param writer      写入值，参数为该值所在的映射区域
+     * @return 记录偏移量
+     */
+    private fun append(key: Long, op: Byte, valueLength: Int, writer: ((ByteBuffer) -> Unit)?): Int {
+        val length = RECORD_HEADER_SIZE + valueLength
+        if (length.toLong() + writePosition > MAX_FILE_SIZE) {
+            throw IOException("store file exceeds ${MAX_FILE_SIZE shr 20}MB: $file")
+        }
+        ensureCapacity(writePosition + length)
+        val offset = writePosition
+        val target = buffer
+        target.putLong(offset + KEY, key)
+        target.putLong(offset + WRITTEN_AT, System.currentTimeMillis())
+        target.put(offset + OP, op)
+        target.putInt(offset + VALUE_LENGTH, valueLength)
+        if (writer != null) {
+            val slice = target.duplicate()
+            slice.limit(offset + length)
+            slice.position(offset + RECORD_HEADER_SIZE)
+            try {
+                writer(slice.slice())
+            } catch (e: Throwable) {
+                for (position in offset until offset + length) {
+                    target.put(position, 0)
+                }
+                throw e
+            }
+        }
+        target.putInt(offset + CHECKSUM, checksum(target, offset, length))
+        target.putInt(offset, length)
+        writePosition += length
+        if (syncWrites) {
+            target.force()
+        }
+        return offset
+    }
+
+    /**
+     * 记录校验值，覆盖校验值之后的全部字节
+     */
+    private fun checksum(source: ByteBuffer, offset: Int, length: Int): Int {
+        val slice = source.duplicate()
+        slice.limit(offset + length)
+        slice.position(offset + KEY)
+        crc.reset()
+        crc.update(slice)
+        return crc.value.toInt()
+    }
+
+    /**
+     * 扩大映射区域，按 2 倍增长
+     */
+    private fun ensureCapacity(required: Int) {
+        if (required <= buffer.capacity()) return
+        var capacity = buffer.capacity().toLong()
+        while (capacity < required) {
+            capacity = capacity shl 1
+        }
+        buffer = channel.map(
+            FileChannel.MapMode.READ_WRITE, 0,
+            minOf(roundUp(capacity), MAX_FILE_SIZE.toLong())
+        )
+    }
+
+    /**
+     * 重新打开时按顺序重放记录，重建索引，遇到未写完或校验失败的记录则截断
+     */
+    private fun recover() {
+        val limit = buffer.capacity()
+        var offset = HEADER_SIZE
+        while (offset + RECORD_HEADER_SIZE <= limit) {
+            val length = buffer.getInt(offset)
+            if (length < RECORD_HEADER_SIZE || length > limit - offset) break
+            if (buffer.getInt(offset + VALUE_LENGTH) != length - RECORD_HEADER_SIZE) break
+            if (checksum(buffer, offset, length) != buffer.getInt(offset + CHECKSUM)) break
+            apply(buffer, offset)
+            offset += length
+        }
+        writePosition = offset
+        // 清除未写完的记录，避免之后的短记录与残留字节拼成看似完整的记录
+        if (offset + 4 <= limit && buffer.getInt(offset) != 0) {
+            for (position in offset until limit) {
+                buffer.put(position, 0)
+            }
+            buffer.force()
+        }
+    }
+
+    /**
+     * 将记录应用到索引
+     */
+    private fun apply(source: ByteBuffer, offset: Int) {
+        val key = source.getLong(offset + KEY)
+        if (source.get(offset + OP) == OP_PUT) {
+            val old = index.put(key, offset)
+            if (old >= 0) liveBytes -= source.getInt(old)
+            liveBytes += source.getInt(offset)
+        } else {
+            val old = index.remove(key)
+            if (old >= 0) liveBytes -= source.getInt(old)
+        }
+    }
+
+    private fun scheduleCompactionIfNeeded() {
+        if (compactionScheduled || compactionRatio <= 0) return
+        val used = writePosition - HEADER_SIZE
+        if (writePosition < minCompactionBytes || used - liveBytes < used * compactionRatio) return
+        compactionScheduled = true
+        executor.execute {
+            try {
+                compact()
+            } catch (e: IOException) {
+                // 压缩失败不影响原文件，下次写入时再尝试
+            } finally {
+                synchronized(lock) { compactionScheduled = false }
+            }
+        }
+    }
+
+    /**
+     * 压缩文件
+     * 1. 持锁记录当前索引与写入位置
+     * 2. 不持锁按偏移量顺序拷贝有效记录到临时文件
+     * 3. 持锁拷贝期间新追加的记录，刷盘后原子替换原文件并重新映射
+     */
+    private fun compactLocked() {
+        val snapshot: LongOffsetIndex
+        val source: MappedByteBuffer
+        val end: Int
+        synchronized(lock) {
+            if (closed) return
+            snapshot = index.copy()
+            source = buffer
+            end = writePosition
+        }
+
+        // 按原文件中的顺序拷贝
+        val offsets = IntArray(snapshot.size())
+        var count = 0
+        snapshot.forEach { _, offset -> offsets[count++] = offset }
+        offsets.sort()
+
+        val temp = File(file.path + COMPACT_SUFFIX)
+        temp.delete()
+        val target = RandomAccessFile(temp, "rw").channel
+        try {
+            val compacted = LongOffsetIndex(snapshot.size())
+            val header = ByteBuffer.allocate(HEADER_SIZE)
+            header.putInt(MAGIC).putInt(VERSION).flip()
+            target.write(header)
+            var position = HEADER_SIZE
+            for (offset in offsets) {
+                position = copyRecord(source, offset, target, position, compacted)
+            }
+
+            synchronized(lock) {
+                if (closed) return
+                // 拷贝期间追加的记录
+                var offset = end
+                while (offset < writePosition) {
+                    position = copyRecord(buffer, offset, target, position, compacted)
+                    offset += buffer.getInt(offset)
+                }
+                target.force(true)
+                target.close()
+                Files.move(
+                    temp.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE
+                )
+                channel.close()
+                channel = RandomAccessFile(file, "rw").channel
+                buffer = channel.map(
+                    FileChannel.MapMode.READ_WRITE, 0,
+                    roundUp(maxOf(position.toLong() * 2, initialSize.toLong()))
+                )
+                index = compacted
+                writePosition = position
+                compactionCount++
+            }
+        } finally {
+            if (target.isOpen) target.close()
+            temp.delete()
+        }
+    }
+
+    /**
+     * 拷贝一条记录到目标文件并更新索引
+     *
+     * @return 目标文件的下一个写入位置
+     */
+    private fun copyRecord(
+        source: ByteBuffer, offset: Int,
+        target: FileChannel, position: Int,
+        compacted: LongOffsetIndex
+    ): Int {
+        val length = source.getInt(offset)
+        val slice = source.duplicate()
+        slice.limit(offset + length)
+        slice.position(offset)
+        var written = position.toLong()
+        while (slice.hasRemaining()) {
+            written += target.write(slice, written)
+        }
+        val key = source.getLong(offset + KEY)
+        if (source.get(offset + OP) == OP_PUT) {
+            compacted.put(key, position)
+        } else {
+            compacted.remove(key)
+        }
+        return position + length
+    }
+
+    private fun checkOpen() {
+        if (closed) throw IllegalStateException("store closed: $file")
+    }
+
+    class Builder {
+        internal var file: File? = null
+        internal var initialSize = DEFAULT_INITIAL_SIZE
+        internal var syncWrites = false
+        internal var compactionRatio = 0.5
+        internal var minCompactionBytes = DEFAULT_MIN_COMPACTION_BYTES
+        internal var executor: Executor? = null
+
+        /**
+         * 存储文件，不存在则创建
+         */
+        fun file(file: File) = apply {
+            this.file = file
+        }
+
+        /**
+         * 初始映射大小，默认 64KB，之后按 2 倍增长
+         */
+        fun initialSize(bytes: Int) = apply {
+            if (bytes < HEADER_SIZE) {
+                throw IllegalArgumentException("initialSize < $HEADER_SIZE")
+            }
+            this.initialSize = bytes
+        }
+
+        /**
+         * 每次写入后刷盘，防止断电时丢失已返回的写入，默认关闭，只保证进程崩溃时不丢失
+         */
+        fun syncWrites(syncWrites: Boolean) = apply {
+            this.syncWrites = syncWrites
+        }
+
+        /**
+         * 失效记录占比达到该比例时后台压缩，默认 0.5，0 为不自动压缩
+         */
+        fun compactionRatio(ratio: Double) = apply {
+            if (ratio < 0 || ratio >= 1) {
+                throw IllegalArgumentException("ratio must be in [0, 1)")
+            }
+            this.compactionRatio = ratio
+        }
+
+        /**
+         * 文件达到该大小才自动压缩，默认 1MB
+         */
+        fun minCompactionBytes(bytes: Int) = apply {
+            if (bytes < 0) {
+                throw IllegalArgumentException("bytes < 0")
+            }
+            this.minCompactionBytes = bytes
+        }
+
+        /**
+         * 后台压缩的执行器，默认共享的单个守护线程
+         */
+        fun compactionExecutor(executor: Executor) = apply {
+            this.executor = executor
+        }
+
+        /**
+         * 打开存储文件，重放已有记录
+         */
+        @Throws(IOException::class)
+        fun build(): MappedStore {
+            return MappedStore(this)
+        }
+    }
+
+    companion object {
+        // 文件头：魔数 + 版本号
+        private const val MAGIC = 0x52525354
+        private const val VERSION = 1
+        private const val HEADER_SIZE = 8
+
+        // 记录：长度(4) 校验值(4) 键(8) 写入时间(8) 操作(1) 值长度(4) 值
+        private const val CHECKSUM = 4
+        private const val KEY = 8
+        private const val WRITTEN_AT = 16
+        private const val OP = 24
+        private const val VALUE_LENGTH = 25
+        private const val RECORD_HEADER_SIZE = 29
+
+        private const val OP_PUT: Byte = 1
+        private const val OP_DELETE: Byte = 2
+
+        private const val PAGE_SIZE = 4096
+        private const val MAX_FILE_SIZE = Int.MAX_VALUE - PAGE_SIZE + 1
+        private const val DEFAULT_INITIAL_SIZE = 64 * 1024
+        private const val DEFAULT_MIN_COMPACTION_BYTES = 1024 * 1024
+
+        private const val COMPACT_SUFFIX = ".compact"
+
+        private val COMPACTION_EXECUTOR: Executor by lazy {
+            ThreadPoolExecutor(
+                1, 1, 30, TimeUnit.SECONDS, LinkedBlockingQueue()
+            ) { runnable ->
+                Thread(runnable, "rrouter-store-compaction").apply { isDaemon = true }
+            }.apply { allowCoreThreadTimeOut(true) }
+        }
+
+        private fun roundUp(size: Long): Long {
+            return (size + PAGE_SIZE - 1) / PAGE_SIZE * PAGE_SIZE
+        }
+    }
+}
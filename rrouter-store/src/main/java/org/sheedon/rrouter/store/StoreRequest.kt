@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.store
+
+import org.sheedon.rrouter.core.CardFingerprints
+import org.sheedon.rrouter.core.Request
+import org.sheedon.rrouter.core.ResponseCodec
+import org.sheedon.rrouter.core.StrategyCallback
+import org.sheedon.rrouter.strategy.DispatchKeys
+import org.sheedon.rrouter.strategy.StrategyConfig
+import org.sheedon.rrouter.strategy.WriteThroughRequest
+import java.io.IOException
+
+/**
+ * 持久化的本地请求，从 [MappedStore] 中同步读取结果，不切换线程。
+ * 有记录则反馈成功，无记录则反馈失败 [MESSAGE_MISS]。
+ *
+ * 作为 [org.sheedon.rrouter.strategy.BaseRequestStrategyFactory.onCreateRealLocalRequestStrategy]
+ * 的返回值时，远程请求成功的结果自动写入，如
+ * [StrategyConfig.STRATEGY.TYPE_NOT_DATA_TO_LOCATION] 无需另外维护本地数据。
+ *
+ * 存储键由「命名空间 + 请求卡片键」组成，需在不同进程中一致，请求卡片键按以下顺序获取：
+ * 1. 指定的 [KeyFunction]
+ * 2. 标注 @Fingerprint 生成的指纹
+ * 3. 字符串、基本类型、枚举及由它们组成的数组、集合，按内容计算
+ * 其他请求卡片无法得到稳定的键，读写时抛出 IllegalArgumentException。
+ * 命名空间默认取请求工厂类名，开启混淆时应指定固定的命名空间。
+ *
+ * 结果model通过 [ResponseCodec] 直接在映射内存上编解码，标注 @Codec 的结果model可使用
+ * [org.sheedon.rrouter.core.ResponseCodecs.require] 获取生成的编解码。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 5:00 上午
+ */
+class StoreRequest<RequestCard, ResponseModel> @JvmOverloads constructor(
+    private val store: MappedStore,
+    private val codec: ResponseCodec<ResponseModel>,
+    namespace: String,
+    private var callback: StrategyCallback<ResponseModel>?,
+    private val keyFunction: KeyFunction<RequestCard>? = null
+) : WriteThroughRequest<RequestCard, ResponseModel> {
+
+    private val namespaceHash = CardFingerprints.hash(namespace)
+
+    // 执行中的远程请求的存储键，按发起顺序与反馈对应
+    private val remoteKeys = DispatchKeys<Long>()
+
+    @JvmOverloads
+    constructor(
+        store: MappedStore,
+        codec: ResponseCodec<ResponseModel>,
+        namespace: Class<*>,
+        callback: StrategyCallback<ResponseModel>?,
+        keyFunction: KeyFunction<RequestCard>? = null
+    ) : this(store, codec, namespace.name, callback, keyFunction)
+
+    /**
+     * 读取本地记录
+     *
+     * @param requestCard 请求卡片
+     */
+    override fun request(requestCard: RequestCard?) {
+        val value = read(keyOf(requestCard))
+        if (value == null) {
+            callback?.onDataNotAvailable(MESSAGE_MISS)
+            return
+        }
+        callback?.onDataLoaded(value)
+    }
+
+    /**
+     * 请求卡片对应的本地记录已写入的时长
+     *
+     * @param requestCard 请求卡片
+     * @return 已写入时长，毫秒，无记录则返回 -1
+     */
+    fun ageOf(requestCard: RequestCard?): Long {
+        val writtenAt = store.writtenAt(keyOf(requestCard))
+        return if (writtenAt < 0) -1 else maxOf(0, System.currentTimeMillis() - writtenAt)
+    }
+
+    /**
+     * 写入请求卡片对应的结果
+     */
+    @Throws(IOException::class)
+    fun write(requestCard: RequestCard?, model: ResponseModel) {
+        store.put(keyOf(requestCard), model, codec)
+    }
+
+    /**
+     * 删除请求卡片对应的记录
+     */
+    @Throws(IOException::class)
+    fun remove(requestCard: RequestCard?): Boolean {
+        return store.remove(keyOf(requestCard))
+    }
+
+    /**
+     * 读取并解码，数据不兼容则删除该记录，删除失败（如存储已关闭）则视为无记录
+     */
+    private fun read(key: Long): ResponseModel? {
+        return try {
+            store.get(key, codec)
+        } catch (e: RuntimeException) {
+            try {
+                store.remove(key)
+            } catch (ignored: Exception) {
+            }
+            null
+        }
+    }
+
+    private fun keyOf(requestCard: RequestCard?): Long {
+        val card = keyFunction?.keyOf(requestCard)
+            ?: CardFingerprints.stableFingerprintOf(requestCard)
+            ?: throw IllegalArgumentException(
+                "no stable key for ${requestCard!!.javaClass.name}, " +
+                        "annotate it with @Fingerprint or provide a KeyFunction"
+            )
+        return CardFingerprints.finish(CardFingerprints.mix(namespaceHash, card))
+    }
+
+    /**
+     * 包装远程请求，发起请求前记录本次发起的存储键，结果写入产生它的那次发起的存储键
+     */
+    override fun wrapRemoteRequest(request: Request<RequestCard>?): Request<RequestCard>? {
+        request ?: return null
+        return object : Request.Wrapper<RequestCard> {
+            override fun delegate(): Request<RequestCard> = request
+
+            override fun request(requestCard: RequestCard?) {
+                remoteKeys.onDispatch(keyOf(requestCard))
+                request.request(requestCard)
+            }
+
+            override fun onRequestType(): Int = request.onRequestType()
+
+            override fun onCancel() {
+                remoteKeys.onCancel()
+                request.onCancel()
+            }
+
+            override fun onDestroy() {
+                remoteKeys.onCancel()
+                request.onDestroy()
+            }
+        }
+    }
+
+    /**
+     * 包装远程请求的反馈监听器，请求成功则写入本地，
+     * 写入失败（如磁盘已满、编解码长度不符、存储已关闭）不影响反馈
+     */
+    override fun wrapRemoteCallback(
+        callback: StrategyCallback<ResponseModel>
+    ): StrategyCallback<ResponseModel> {
+        return object : StrategyCallback<ResponseModel> {
+            override fun onDataLoaded(t: ResponseModel) {
+                val key = remoteKeys.onResult()
+                if (key != null && t != null) {
+                    try {
+                        store.put(key, t, codec)
+                    } catch (e: Exception) {
+                        // 本地数据仅作兜底，写入失败不影响本次反馈
+                    }
+                }
+                callback.onDataLoaded(t)
+            }
+
+            override fun onDataNotAvailable(message: String?) {
+                remoteKeys.onResult()
+                callback.onDataNotAvailable(message)
+            }
+        }
+    }
+
+    override fun onRequestType(): Int {
+        return StrategyConfig.REQUEST.TYPE_LOCAL_REQUEST
+    }
+
+    override fun onCancel() {}
+
+    override fun onDestroy() {
+        callback = null
+        remoteKeys.onCancel()
+    }
+
+    /**
+     * 请求卡片的存储键，同一请求卡片在不同进程中需返回相同的值
+     */
+    fun interface KeyFunction<RequestCard> {
+        fun keyOf(requestCard: RequestCard?): Long
+    }
+
+    companion object {
+        // 本地无记录
+        const val MESSAGE_MISS = "store miss"
+    }
+}
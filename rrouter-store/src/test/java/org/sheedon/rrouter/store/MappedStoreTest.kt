@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.store
+
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+import java.io.RandomAccessFile
+import java.util.Random
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+/**
+ * MappedStore 重新打开、未写完记录截断与并发写入下的压缩
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 7:30 上午
+ */
+class MappedStoreTest {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private fun open(
+        file: File,
+        compactionRatio: Double = 0.0,
+        builder: MappedStore.Builder = MappedStore.Builder()
+    ): MappedStore {
+        return builder.file(file)
+            .initialSize(4096)
+            .compactionRatio(compactionRatio)
+            .build()
+    }
+
+    @Test
+    fun reopenRestoresRecords() {
+        val file = File(folder.root, "kv.store")
+        val expected = HashMap<Long, ByteArray>()
+        var store = open(file)
+        val random = Random(1)
+        repeat(2000) {
+            val key = random.nextInt(300).toLong()
+            if (random.nextInt(5) == 0) {
+                store.remove(key)
+                expected.remove(key)
+            } else {
+                val value = ByteArray(random.nextInt(200))
+                random.nextBytes(value)
+                store.put(key, value)
+                expected[key] = value
+            }
+        }
+        val writtenAt = store.writtenAt(expected.keys.first())
+        val fileBytes = store.getFileBytes()
+        val liveBytes = store.getLiveBytes()
+        store.close()
+
+        store = open(file)
+        assertContent(expected, store)
+        assertEquals(writtenAt, store.writtenAt(expected.keys.first()))
+        assertEquals(fileBytes, store.getFileBytes())
+        assertEquals(liveBytes, store.getLiveBytes())
+
+        store.compact()
+        store.close()
+        store = open(file)
+        assertContent(expected, store)
+        assertEquals(store.getLiveBytes(), store.getFileBytes())
+        store.close()
+    }
+
+    @Test
+    fun corruptedTailIsTruncated() {
+        val file = File(folder.root, "corrupted.store")
+        var store = open(file)
+        store.put(1L, byteArrayOf(1))
+        store.put(2L, byteArrayOf(2))
+        val end = store.getFileBytes()
+        store.put(3L, byteArrayOf(3, 3, 3))
+        store.close()
+
+        // 修改最后一条记录的键，校验失败
+        RandomAccessFile(file, "rw").use {
+            it.seek(end + 10)
+            it.write(it.read() xor 0xFF)
+        }
+
+        store = open(file)
+        assertFalse(store.contains(3L))
+        assertArrayEquals(byteArrayOf(1), store.get(1L))
+        assertArrayEquals(byteArrayOf(2), store.get(2L))
+        assertEquals(end, store.getFileBytes())
+
+        // 截断后写入的记录在重新打开后仍然有效
+        store.put(4L, byteArrayOf(4))
+        store.close()
+        store = open(file)
+        assertEquals(3, store.size())
+        assertArrayEquals(byteArrayOf(4), store.get(4L))
+        store.close()
+    }
+
+    @Test
+    fun unfinishedTailIsTruncated() {
+        val file = File(folder.root, "unfinished.store")
+        var store = open(file)
+        store.put(1L, byteArrayOf(1))
+        val end = store.getFileBytes()
+        store.put(2L, ByteArray(64) { 7 })
+        store.close()
+
+        // 记录长度最后写入，进程崩溃时长度为 0
+        RandomAccessFile(file, "rw").use {
+            it.seek(end)
+            it.writeInt(0)
+        }
+
+        store = open(file)
+        assertFalse(store.contains(2L))
+        assertEquals(end, store.getFileBytes())
+
+        // 残留字节已清除，更短的新记录不会与其拼接
+        store.put(3L, byteArrayOf(3))
+        store.close()
+        store = open(file)
+        assertEquals(2, store.size())
+        assertArrayEquals(byteArrayOf(1), store.get(1L))
+        assertArrayEquals(byteArrayOf(3), store.get(3L))
+        assertNull(store.get(2L))
+        store.close()
+    }
+
+    @Test
+    fun compactionUnderConcurrentWrites() {
+        val file = File(folder.root, "concurrent.store")
+        val compaction = Executors.newSingleThreadExecutor()
+        val store = open(
+            file, 0.5,
+            MappedStore.Builder()
+                .minCompactionBytes(16 * 1024)
+                .compactionExecutor(compaction)
+        )
+        val writers = 4
+        val pool = Executors.newFixedThreadPool(writers)
+        // 每个线程写入各自的键区间，记录各键最后写入的值
+        val expected = Array(writers) { HashMap<Long, ByteArray>() }
+        val futures = (0 until writers).map { thread ->
+            pool.submit {
+                val random = Random(thread.toLong())
+                repeat(20000) {
+                    val key = thread * 1000L + random.nextInt(500)
+                    if (random.nextInt(10) == 0) {
+                        store.remove(key)
+                        expected[thread].remove(key)
+                    } else {
+                        val value = ByteArray(16 + random.nextInt(64))
+                        random.nextBytes(value)
+                        store.put(key, value)
+                        expected[thread][key] = value
+                    }
+                }
+            }
+        }
+        futures.forEach { it.get() }
+        pool.shutdown()
+        compaction.shutdown()
+        assertTrue(compaction.awaitTermination(10, TimeUnit.SECONDS))
+
+        val merged = HashMap<Long, ByteArray>()
+        expected.forEach { merged.putAll(it) }
+        assertTrue(store.getCompactionCount() > 0)
+        assertContent(merged, store)
+        store.close()
+
+        val reopened = open(file)
+        assertContent(merged, reopened)
+        reopened.close()
+        assertFalse(File(file.path + ".compact").exists())
+    }
+
+    private fun assertContent(expected: Map<Long, ByteArray>, store: MappedStore) {
+        assertEquals(expected.size, store.size())
+        for ((key, value) in expected) {
+            assertArrayEquals("key $key", value, store.get(key))
+        }
+    }
+}
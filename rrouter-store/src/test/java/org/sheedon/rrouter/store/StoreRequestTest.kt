@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.store
+
+import org.junit.Assert.assertEquals
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.sheedon.rrouter.core.Request
+import org.sheedon.rrouter.core.ResponseCodecs
+import org.sheedon.rrouter.core.StrategyCallback
+import java.io.File
+
+/**
+ * StoreRequest 的存储键在重新打开后保持一致，无法得到稳定键的请求卡片被拒绝
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 7:30 上午
+ */
+class StoreRequestTest {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private class Card(val id: Int)
+
+    private enum class Tab { HOME, MINE }
+
+    private class Recorder : StrategyCallback<String> {
+        var result: String? = null
+
+        override fun onDataLoaded(t: String) {
+            result = t
+        }
+
+        override fun onDataNotAvailable(message: String?) {
+            result = message
+        }
+    }
+
+    /**
+     * 由测试控制反馈时机的远程请求
+     */
+    private class PendingRequest : Request<String> {
+        val cards = ArrayList<String?>()
+
+        override fun request(requestCard: String?) {
+            cards.add(requestCard)
+        }
+
+        override fun onRequestType() = 0
+        override fun onCancel() {}
+        override fun onDestroy() {}
+    }
+
+    private fun open(file: File) = MappedStore.Builder().file(file).build()
+
+    @Test
+    fun contentKeysSurviveReopen() {
+        val file = File(folder.root, "request.store")
+        var store = open(file)
+        StoreRequest<Any, String>(store, ResponseCodecs.STRING, "user", null).apply {
+            write("user-1", "a")
+            write(listOf(1, "page", Tab.MINE), "b")
+        }
+        store.close()
+
+        store = open(file)
+        val recorder = Recorder()
+        val request = StoreRequest<Any, String>(store, ResponseCodecs.STRING, "user", recorder)
+        request.request("user-1")
+        assertEquals("a", recorder.result)
+        request.request(listOf(1, "page", Tab.MINE))
+        assertEquals("b", recorder.result)
+        request.request("user-2")
+        assertEquals(StoreRequest.MESSAGE_MISS, recorder.result)
+
+        // 命名空间不同则键不同
+        val other = Recorder()
+        StoreRequest<Any, String>(store, ResponseCodecs.STRING, "order", other).request("user-1")
+        assertEquals(StoreRequest.MESSAGE_MISS, other.result)
+        store.close()
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun identityCardIsRejected() {
+        val store = open(File(folder.root, "identity.store"))
+        try {
+            StoreRequest<Card, String>(store, ResponseCodecs.STRING, "card", null)
+                .write(Card(1), "a")
+        } finally {
+            store.close()
+        }
+    }
+
+    @Test
+    fun keyFunctionSurvivesReopen() {
+        val file = File(folder.root, "function.store")
+        val keyFunction = StoreRequest.KeyFunction<Card> { it!!.id.toLong() }
+        var store = open(file)
+        StoreRequest(store, ResponseCodecs.STRING, "card", null, keyFunction).write(Card(1), "a")
+        store.close()
+
+        store = open(file)
+        val recorder = Recorder()
+        val request = StoreRequest(store, ResponseCodecs.STRING, "card", recorder, keyFunction)
+        request.request(Card(1))
+        assertEquals("a", recorder.result)
+        assertEquals(true, request.remove(Card(1)))
+        request.request(Card(1))
+        assertEquals(StoreRequest.MESSAGE_MISS, recorder.result)
+        store.close()
+    }
+
+    @Test
+    fun lateResultIsWrittenUnderItsOwnCard() {
+        val store = open(File(folder.root, "late.store"))
+        val request = StoreRequest<String, String>(store, ResponseCodecs.STRING, "user", null)
+        val remote = request.wrapRemoteRequest(PendingRequest())!!
+        val recorder = Recorder()
+        val callback = request.wrapRemoteCallback(recorder)
+
+        // 先发起 a 再发起 b，a 的结果迟到
+        remote.request("a")
+        remote.request("b")
+        callback.onDataLoaded("A")
+        callback.onDataLoaded("B")
+
+        val local = Recorder()
+        val reader = StoreRequest<String, String>(store, ResponseCodecs.STRING, "user", local)
+        reader.request("a")
+        assertEquals("A", local.result)
+        reader.request("b")
+        assertEquals("B", local.result)
+
+        // 取消后迟到的反馈不写入
+        remote.request("c")
+        remote.onCancel()
+        callback.onDataLoaded("C")
+        reader.request("c")
+        assertEquals(StoreRequest.MESSAGE_MISS, local.result)
+        store.close()
+    }
+
+    @Test
+    fun writeFailureStillDelivers() {
+        val store = open(File(folder.root, "closed.store"))
+        val request = StoreRequest<String, String>(store, ResponseCodecs.STRING, "user", null)
+        val remote = request.wrapRemoteRequest(PendingRequest())!!
+        val recorder = Recorder()
+        val callback = request.wrapRemoteCallback(recorder)
+
+        remote.request("a")
+        store.close()
+        callback.onDataLoaded("A")
+        assertEquals("A", recorder.result)
+
+        // 读取已关闭的存储视为无记录
+        val local = Recorder()
+        StoreRequest<String, String>(store, ResponseCodecs.STRING, "user", local).request("a")
+        assertEquals(StoreRequest.MESSAGE_MISS, local.result)
+    }
+}
@@ -15,10 +15,15 @@
  */
 package org.sheedon.rrouter.strategy
 
-import android.util.SparseArray
+import org.sheedon.rrouter.core.ImmutableIntMap
 import org.sheedon.rrouter.core.Request
 import org.sheedon.rrouter.core.RequestFactory
 import org.sheedon.rrouter.core.StrategyCallback
+import org.sheedon.rrouter.strategy.breaker.CircuitBreaker
+import org.sheedon.rrouter.strategy.breaker.CircuitBreakerRegistry
+import org.sheedon.rrouter.strategy.breaker.CircuitBreakerRequest
+import org.sheedon.rrouter.strategy.cache.CacheRequest
+import org.sheedon.rrouter.strategy.cache.ResponseCache
 
 /**
  * 基础请求策略实现工厂
@@ -30,28 +35,86 @@ import org.sheedon.rrouter.core.StrategyCallback
 open class BaseRequestStrategyFactory<RequestCard, ResponseModel> :
     RequestFactory<RequestCard, ResponseModel>() {
     // 请求策略
-    private var requestStrategies: SparseArray<Request<RequestCard>>? = null
+    private var requestStrategies: ImmutableIntMap<Request<RequestCard>>? = null
 
 
     override fun createRequestStrategies(
         callback: StrategyCallback<ResponseModel>
-    ): SparseArray<Request<RequestCard>> {
+    ): ImmutableIntMap<Request<RequestCard>> {
         var strategies = requestStrategies
         if (strategies == null) {
-            strategies = SparseArray<Request<RequestCard>>()
-            strategies.put(
-                StrategyConfig.REQUEST.TYPE_LOCAL_REQUEST,
-                onCreateRealLocalRequestStrategy(callback)
+            val builder = ImmutableIntMap.Builder<Request<RequestCard>>()
+            // 每个请求使用携带自身请求类型的反馈监听器，同时执行的请求可区分反馈来源
+            val cacheCallback = StrategyCallback.forRequestType(
+                callback, StrategyConfig.REQUEST.TYPE_CACHE_REQUEST
             )
-            strategies.put(
-                StrategyConfig.REQUEST.TYPE_REMOTE_REQUEST,
-                onCreateRealRemoteRequestStrategy(callback)
+            val localCallback = StrategyCallback.forRequestType(
+                callback, StrategyConfig.REQUEST.TYPE_LOCAL_REQUEST
             )
+            var remoteCallback = StrategyCallback.forRequestType(
+                callback, StrategyConfig.REQUEST.TYPE_REMOTE_REQUEST
+            )
+            // 优先缓存、过期重验证策略，只有网络请求成功的结果写入缓存，缓存写入时间即为数据新鲜度；
+            // 本地请求是网络不可用时的兜底，其结果不代表最新数据，不写入缓存
+            var cacheRequest: CacheRequest<RequestCard, ResponseModel>? = null
+            when (onLoadRequestStrategyType()) {
+                StrategyConfig.STRATEGY.TYPE_CACHE_FIRST,
+                StrategyConfig.STRATEGY.TYPE_STALE_WHILE_REVALIDATE -> {
+                    cacheRequest = onCreateRealCacheRequestStrategy(cacheCallback)
+                    if (cacheRequest != null) {
+                        builder.put(StrategyConfig.REQUEST.TYPE_CACHE_REQUEST, cacheRequest)
+                        remoteCallback = cacheRequest.wrapCallback(remoteCallback)
+                    }
+                }
+            }
+            val localRequest = onCreateRealLocalRequestStrategy(localCallback)
+            builder.put(StrategyConfig.REQUEST.TYPE_LOCAL_REQUEST, localRequest)
+            // 本地请求可写入，远程请求成功的结果同步写入本地
+            @Suppress("UNCHECKED_CAST")
+            val writeThrough = localRequest as? WriteThroughRequest<RequestCard, ResponseModel>
+            if (writeThrough != null) {
+                remoteCallback = writeThrough.wrapRemoteCallback(remoteCallback)
+            }
+            // 开启熔断，远程请求由熔断器保护
+            val breaker = onLoadCircuitBreaker()
+            if (breaker == null) {
+                builder.put(
+                    StrategyConfig.REQUEST.TYPE_REMOTE_REQUEST,
+                    createRemoteRequest(remoteCallback, writeThrough, cacheRequest)
+                )
+            } else {
+                val breakerRequest =
+                    CircuitBreakerRequest<RequestCard, ResponseModel>(breaker, remoteCallback)
+                builder.put(
+                    StrategyConfig.REQUEST.TYPE_REMOTE_REQUEST,
+                    breakerRequest.wrap(
+                        createRemoteRequest(
+                            breakerRequest.wrapCallback(remoteCallback), writeThrough, cacheRequest
+                        )
+                    )
+                )
+            }
+            strategies = builder.build()
             requestStrategies = strategies
         }
         return strategies
     }
 
+    /**
+     * 创建远程请求，本地请求可写入、开启缓存时，由其记录每次发起的请求卡片作为写入的键
+     */
+    private fun createRemoteRequest(
+        callback: StrategyCallback<ResponseModel>,
+        writeThrough: WriteThroughRequest<RequestCard, ResponseModel>?,
+        cacheRequest: CacheRequest<RequestCard, ResponseModel>?
+    ): Request<RequestCard>? {
+        var request = onCreateRealRemoteRequestStrategy(callback)
+        if (cacheRequest != null) {
+            request = cacheRequest.wrapRequest(request)
+        }
+        return if (writeThrough == null) request else writeThrough.wrapRemoteRequest(request)
+    }
+
     /**
      * 加载请求策略类型
      * 由实际创建的请求策略提供策略类型
@@ -64,7 +127,8 @@ open class BaseRequestStrategyFactory<RequestCard, ResponseModel> :
     }
 
     /**
-     * 创建真实的本地请求策略
+     * 创建真实的本地请求策略，
+     * 返回 [WriteThroughRequest] 则远程请求成功的结果自动写入本地
      *
      * @param callback 反馈监听器
      * @return Request<RequestCard></RequestCard>, ResponseModel>
@@ -87,15 +151,48 @@ open class BaseRequestStrategyFactory<RequestCard, ResponseModel> :
         return null
     }
 
+    /**
+     * 创建缓存请求策略，仅在策略类型为 [StrategyConfig.STRATEGY.TYPE_CACHE_FIRST]
+     * 或 [StrategyConfig.STRATEGY.TYPE_STALE_WHILE_REVALIDATE] 时调用
+     *
+     * @param callback 反馈监听器
+     * @return CacheRequest<RequestCard, ResponseModel>
+     */
+    protected open fun onCreateRealCacheRequestStrategy(
+        callback: StrategyCallback<ResponseModel>
+    ): CacheRequest<RequestCard, ResponseModel>? {
+        return CacheRequest(onLoadResponseCache(), javaClass, callback)
+    }
+
+    /**
+     * 加载响应缓存，默认使用共享缓存 [ResponseCache.DEFAULT]
+     *
+     * @return ResponseCache
+     */
+    protected open fun onLoadResponseCache(): ResponseCache {
+        return ResponseCache.DEFAULT
+    }
+
+    /**
+     * 加载远程请求的熔断器，默认不开启，
+     * 可返回 [CircuitBreakerRegistry.breakerOf] 按请求工厂类型共享熔断状态
+     *
+     * @return CircuitBreaker
+     */
+    protected open fun onLoadCircuitBreaker(): CircuitBreaker? {
+        return null
+    }
+
     override fun onCancel() {
         if (requestStrategies != null) {
-            destroyByKey(StrategyConfig.REQUEST.TYPE_REMOTE_REQUEST)
-            destroyByKey(StrategyConfig.REQUEST.TYPE_LOCAL_REQUEST)
+            cancelByKey(StrategyConfig.REQUEST.TYPE_REMOTE_REQUEST)
+            cancelByKey(StrategyConfig.REQUEST.TYPE_LOCAL_REQUEST)
+            cancelByKey(StrategyConfig.REQUEST.TYPE_CACHE_REQUEST)
         }
     }
 
     /**
-     * 根据key 销毁请求
+     * 根据key 取消请求
      *
      * @param key 请求策略key
      */
@@ -110,7 +207,7 @@ open class BaseRequestStrategyFactory<RequestCard, ResponseModel> :
         if (requestStrategies != null) {
             destroyByKey(StrategyConfig.REQUEST.TYPE_REMOTE_REQUEST)
             destroyByKey(StrategyConfig.REQUEST.TYPE_LOCAL_REQUEST)
-            requestStrategies!!.clear()
+            destroyByKey(StrategyConfig.REQUEST.TYPE_CACHE_REQUEST)
         }
         requestStrategies = null
     }
@@ -121,10 +218,6 @@ open class BaseRequestStrategyFactory<RequestCard, ResponseModel> :
      * @param key 请求策略key
      */
     protected open fun destroyByKey(key: Int) {
-        val request: Request<RequestCard>? = requestStrategies!![key]
-        if (request != null) {
-            request.onDestroy()
-            requestStrategies!!.remove(key)
-        }
+        requestStrategies?.get(key)?.onDestroy()
     }
 }
\ No newline at end of file
@@ -26,4 +26,5 @@ public interface DefaultRequestType {
 
     int TYPE_REMOTE_REQUEST = 1;// 远程请求
     int TYPE_LOCAL_REQUEST = 2;// 本地请求
+    int TYPE_CACHE_REQUEST = 3;// 缓存请求
 }
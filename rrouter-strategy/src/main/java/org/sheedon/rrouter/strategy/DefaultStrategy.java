@@ -28,4 +28,8 @@ public interface DefaultStrategy {
     int TYPE_SYNC_REMOTE_AND_LOCATION = 2;// 同步请求，本地和远程（网络）
     int TYPE_NOT_DATA_TO_LOCATION = 3;//优先远程（网络）请求，远程（网络）请求失败，搜索本地数据 「类似无网络登陆」
     int TYPE_ONLY_LOCAL = 4;// 单一本地请求
+    int TYPE_CACHE_FIRST = 5;// 优先缓存，未命中取远程（网络），远程（网络）请求失败，搜索本地数据
+    int TYPE_HEDGED = 6;// 对冲请求，远程（网络）请求超过对冲延迟未反馈，同时请求本地，以先到的成功结果为准
+    int TYPE_STALE_WHILE_REVALIDATE = 7;// 过期重验证，先反馈缓存/本地数据，数据过期则后台请求远程（网络）刷新，有变化再反馈
+    int TYPE_ADAPTIVE = 8;// 自适应，按远程（网络）/本地的耗时与成功率决定请求顺序，无数据取另一方
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.strategy
+
+import java.util.ArrayDeque
+
+/**
+ * 按发起顺序记录执行中请求的写入键，供写入结果的反馈监听器取回「产生该结果的那次发起」的键，
+ * 而不是最近一次发起的键。
+ * 1. 发起请求时记录键，反馈（成功或失败）时按发起顺序取出
+ * 2. 取消请求时清空，按 [org.sheedon.rrouter.core.Request.onCancel] 的约定，已取消的请求不再反馈；
+ *    取消后仍迟到的反馈取不到键，不写入
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 9:00 上午
+ */
+class DispatchKeys<Key> {
+
+    // 执行中发起的写入键，不写入的发起以 NONE 占位
+    private val keys = ArrayDeque<Any>()
+
+    /**
+     * 发起请求，记录本次发起的写入键
+     *
+     * @param key 写入键，为空则本次发起的结果不写入
+     */
+    fun onDispatch(key: Key?) {
+        synchronized(keys) { keys.addLast(key ?: NONE) }
+    }
+
+    /**
+     * 收到反馈，取出最早一次仍在执行的发起的写入键
+     *
+     * @return 写入键，无执行中的发起或该发起不写入则返回空
+     */
+    @Suppress("UNCHECKED_CAST")
+    fun onResult(): Key? {
+        val key = synchronized(keys) { keys.pollFirst() }
+        return if (key == null || key === NONE) null else key as Key
+    }
+
+    /**
+     * 取消请求，执行中的发起不再写入
+     */
+    fun onCancel() {
+        synchronized(keys) { keys.clear() }
+    }
+
+    private companion object {
+        val NONE = Any()
+    }
+}
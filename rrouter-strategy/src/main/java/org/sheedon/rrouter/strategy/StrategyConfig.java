@@ -15,13 +15,16 @@
  */
 package org.sheedon.rrouter.strategy;
 
-import android.util.SparseArray;
-
+import org.sheedon.rrouter.core.ImmutableIntMap;
 import org.sheedon.rrouter.core.StrategyHandle;
+import org.sheedon.rrouter.strategy.handler.AdaptiveStrategyHandler;
+import org.sheedon.rrouter.strategy.handler.CacheFirstStrategyHandler;
+import org.sheedon.rrouter.strategy.handler.HedgedStrategyHandler;
 import org.sheedon.rrouter.strategy.handler.NotDataToLocationStrategyHandler;
 import org.sheedon.rrouter.strategy.handler.NotDataToRemoteStrategyHandler;
 import org.sheedon.rrouter.strategy.handler.OnlyLocalStrategyHandler;
 import org.sheedon.rrouter.strategy.handler.OnlyRemoteStrategyHandler;
+import org.sheedon.rrouter.strategy.handler.StaleWhileRevalidateStrategyHandler;
 import org.sheedon.rrouter.strategy.handler.SyncRemoteAndLocationStrategyHandler;
 
 /**
@@ -49,13 +52,15 @@ public interface StrategyConfig {
     /**
      * 策略执行集合
      */
-    SparseArray<StrategyHandle> strategyHandlerArray = new SparseArray<StrategyHandle>() {
-        {
-            put(STRATEGY.TYPE_ONLY_REMOTE, new OnlyRemoteStrategyHandler());
-            put(STRATEGY.TYPE_NOT_DATA_TO_REMOTE, new NotDataToRemoteStrategyHandler());
-            put(STRATEGY.TYPE_SYNC_REMOTE_AND_LOCATION, new SyncRemoteAndLocationStrategyHandler());
-            put(STRATEGY.TYPE_NOT_DATA_TO_LOCATION, new NotDataToLocationStrategyHandler());
-            put(STRATEGY.TYPE_ONLY_LOCAL, new OnlyLocalStrategyHandler());
-        }
-    };
+    ImmutableIntMap<StrategyHandle> strategyHandlerArray = new ImmutableIntMap.Builder<StrategyHandle>()
+            .put(STRATEGY.TYPE_ONLY_REMOTE, new OnlyRemoteStrategyHandler())
+            .put(STRATEGY.TYPE_NOT_DATA_TO_REMOTE, new NotDataToRemoteStrategyHandler())
+            .put(STRATEGY.TYPE_SYNC_REMOTE_AND_LOCATION, new SyncRemoteAndLocationStrategyHandler())
+            .put(STRATEGY.TYPE_NOT_DATA_TO_LOCATION, new NotDataToLocationStrategyHandler())
+            .put(STRATEGY.TYPE_ONLY_LOCAL, new OnlyLocalStrategyHandler())
+            .put(STRATEGY.TYPE_CACHE_FIRST, new CacheFirstStrategyHandler())
+            .put(STRATEGY.TYPE_HEDGED, new HedgedStrategyHandler())
+            .put(STRATEGY.TYPE_STALE_WHILE_REVALIDATE, new StaleWhileRevalidateStrategyHandler())
+            .put(STRATEGY.TYPE_ADAPTIVE, new AdaptiveStrategyHandler())
+            .build();
 }
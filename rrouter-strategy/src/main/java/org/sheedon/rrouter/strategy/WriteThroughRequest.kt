@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.strategy
+
+import org.sheedon.rrouter.core.Request
+import org.sheedon.rrouter.core.StrategyCallback
+
+/**
+ * 可写入的本地请求，远程请求成功的结果同步写入本地，本地兜底数据无需额外代码维护。
+ * [BaseRequestStrategyFactory.onCreateRealLocalRequestStrategy] 返回该类型时，
+ * 请求工厂自动包装远程请求与其反馈监听器。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 5:00 上午
+ */
+interface WriteThroughRequest<RequestCard, ResponseModel> : Request<RequestCard> {
+
+    /**
+     * 包装远程请求，记录远程请求的请求卡片作为写入的键
+     *
+     * @param request 真实远程请求
+     * @return 记录请求卡片的远程请求，真实请求为空则返回空
+     */
+    fun wrapRemoteRequest(request: Request<RequestCard>?): Request<RequestCard>?
+
+    /**
+     * 包装远程请求的反馈监听器，请求成功则写入本地
+     *
+     * @param callback 反馈监听器
+     * @return 写入本地的反馈监听器
+     */
+    fun wrapRemoteCallback(callback: StrategyCallback<ResponseModel>): StrategyCallback<ResponseModel>
+}
@@ -0,0 +1,411 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.strategy.breaker
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
+
+/**
+ * 远程请求熔断器，按最近 [Builder.windowSize] 次请求的结果统计失败率与慢请求率
+ * 1. 关闭：放行全部请求，失败率或慢请求率超过阈值则打开
+ * 2. 打开：拒绝请求，策略执行者跳过远程请求直接请求本地，持续 [Builder.waitDurationInOpen] 后进入半开
+ * 3. 半开：放行 [Builder.permittedCallsInHalfOpen] 个探测请求，全部反馈后按阈值决定关闭或重新打开
+ *
+ * 打开到半开在下一次 [tryAcquire] 时切换，探测请求可以是远程请求本身，
+ * 也可以由 [scheduleProbe] 定时发起的 [Probe]。
+ *
+ * 由 [CircuitBreakerRegistry] 按请求工厂类型创建，同一类型的请求代理共享熔断状态。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 11:55 下午
+ */
+class CircuitBreaker private constructor(
+    val name: String,
+    builder: Builder
+) {
+
+    private val failureRateThreshold = builder.failureRateThreshold
+    private val slowCallRateThreshold = builder.slowCallRateThreshold
+    private val slowCallDurationNanos = builder.slowCallDurationNanos
+    private val windowSize = builder.windowSize
+    private val minimumCalls = builder.minimumCalls
+    private val waitInOpenNanos = builder.waitInOpenNanos
+    private val permittedInHalfOpen = builder.permittedInHalfOpen
+
+    private val listeners = CopyOnWriteArrayList<StateListener>()
+
+    // 环形窗口，记录每次请求的结果
+    private val window = ByteArray(windowSize)
+    private var windowIndex = 0
+    private var windowCount = 0
+    private var failureCount = 0
+    private var slowCount = 0
+
+    @Volatile
+    private var state = State.CLOSED
+
+    // 打开的时间
+    private var openedAt = 0L
+
+    // 半开状态已放行的探测请求数
+    private var halfOpenPermits = 0
+
+    /**
+     * 请求是否可执行，半开状态下占用一个探测名额，
+     * 占用后需调用 [onResult] 或 [release] 归还
+     *
+     * @return 是否放行
+     */
+    fun tryAcquire(): Boolean {
+        if (state == State.CLOSED) return true
+        var changed: State? = null
+        val permitted = synchronized(this) {
+            if (state == State.OPEN && System.nanoTime() - openedAt >= waitInOpenNanos) {
+                changed = transitionLocked(State.HALF_OPEN)
+            }
+            when (state) {
+                State.CLOSED -> true
+                State.OPEN -> false
+                State.HALF_OPEN -> if (halfOpenPermits < permittedInHalfOpen) {
+                    halfOpenPermits++
+                    true
+                } else false
+            }
+        }
+        changed?.let { notify(it, State.HALF_OPEN) }
+        return permitted
+    }
+
+    /**
+     * 记录放行请求的结果
+     *
+     * @param isSuccess     是否成功
+     * @param durationNanos 请求耗时，纳秒
+     */
+    fun onResult(isSuccess: Boolean, durationNanos: Long) {
+        val isSlow = slowCallDurationNanos > 0 && durationNanos >= slowCallDurationNanos
+        var from: State? = null
+        var to: State? = null
+        synchronized(this) {
+            // 打开期间反馈的是打开前放行的请求，不计入统计
+            val current = state
+            if (current == State.OPEN) return
+            record(!isSuccess, isSlow)
+            val target = when (current) {
+                State.CLOSED -> if (isTripped()) State.OPEN else null
+                State.HALF_OPEN -> if (windowCount >= permittedInHalfOpen) {
+                    if (isTripped()) State.OPEN else State.CLOSED
+                } else null
+                State.OPEN -> null
+            }
+            if (target != null) {
+                from = transitionLocked(target)
+                to = target
+            }
+        }
+        if (from != null) notify(from!!, to!!)
+    }
+
+    /**
+     * 归还未反馈的放行名额（如请求被取消），不计入统计
+     */
+    fun release() {
+        if (state != State.HALF_OPEN) return
+        synchronized(this) {
+            if (state == State.HALF_OPEN && halfOpenPermits > windowCount) {
+                halfOpenPermits--
+            }
+        }
+    }
+
+    /**
+     * 放行的请求被取消，耗时达到慢请求阈值则计为成功的慢请求，否则归还名额
+     *
+     * @param durationNanos 取消前的耗时，纳秒
+     */
+    fun onCancelled(durationNanos: Long) {
+        if (slowCallDurationNanos > 0 && durationNanos >= slowCallDurationNanos) {
+            onResult(true, durationNanos)
+            return
+        }
+        release()
+    }
+
+    /**
+     * 执行一次探测请求：打开持续时长已过或处于半开时占用一个探测名额执行 [probe]，并按结果决定关闭或重新打开。
+     * 关闭、仍在打开持续时长内或探测名额已满时不执行。
+     * 没有业务请求时熔断器停留在打开状态，可通过 [scheduleProbe] 定时探测远程是否恢复。
+     *
+     * @param probe 探测请求
+     * @return 是否执行了探测
+     */
+    fun probe(probe: Probe): Boolean {
+        if (state == State.CLOSED || !tryAcquire()) return false
+        val start = System.nanoTime()
+        val isSuccess = try {
+            probe.call()
+        } catch (e: Exception) {
+            false
+        }
+        onResult(isSuccess, System.nanoTime() - start)
+        return true
+    }
+
+    /**
+     * 按固定间隔在 [executor] 中执行 [probe]，取消返回的 ScheduledFuture 即停止探测
+     *
+     * @param executor 定时执行器
+     * @param probe    探测请求
+     * @param period   探测间隔
+     * @param unit     间隔单位
+     * @return ScheduledFuture
+     */
+    fun scheduleProbe(
+        executor: ScheduledExecutorService,
+        probe: Probe,
+        period: Long,
+        unit: TimeUnit
+    ): ScheduledFuture<*> {
+        if (period <= 0) {
+            throw IllegalArgumentException("period <= 0")
+        }
+        return executor.scheduleWithFixedDelay({ this.probe(probe) }, period, period, unit)
+    }
+
+    /**
+     * 当前状态
+     */
+    fun getState(): State = state
+
+    /**
+     * 当前窗口的失败率，百分比，请求数未达到最小请求数则返回 -1
+     */
+    fun getFailureRate(): Float = synchronized(this) {
+        if (windowCount < minCallsLocked()) -1f else failureCount * 100f / windowCount
+    }
+
+    /**
+     * 当前窗口的慢请求率，百分比，请求数未达到最小请求数则返回 -1
+     */
+    fun getSlowCallRate(): Float = synchronized(this) {
+        if (windowCount < minCallsLocked()) -1f else slowCount * 100f / windowCount
+    }
+
+    /**
+     * 强制打开
+     */
+    fun transitionToOpen() = transition(State.OPEN)
+
+    /**
+     * 强制关闭并清空统计
+     */
+    fun reset() = transition(State.CLOSED)
+
+    /**
+     * 添加状态变化监听
+     */
+    fun addStateListener(listener: StateListener) {
+        listeners.add(listener)
+    }
+
+    fun removeStateListener(listener: StateListener) {
+        listeners.remove(listener)
+    }
+
+    private fun transition(target: State) {
+        val from = synchronized(this) { transitionLocked(target) }
+        notify(from, target)
+    }
+
+    /**
+     * 切换状态并清空统计
+     *
+     * @return 切换前的状态
+     */
+    private fun transitionLocked(target: State): State {
+        val from = state
+        state = target
+        if (target == State.OPEN) {
+            openedAt = System.nanoTime()
+        }
+        halfOpenPermits = 0
+        windowIndex = 0
+        windowCount = 0
+        failureCount = 0
+        slowCount = 0
+        window.fill(0)
+        return from
+    }
+
+    private fun notify(from: State, to: State) {
+        if (from == to) return
+        for (listener in listeners) {
+            listener.onStateChanged(this, from, to)
+        }
+    }
+
+    private fun record(isFailure: Boolean, isSlow: Boolean) {
+        val outcome = (if (isFailure) FLAG_FAILURE else 0) or (if (isSlow) FLAG_SLOW else 0)
+        if (windowCount == windowSize) {
+            val old = window[windowIndex].toInt()
+            if (old and FLAG_FAILURE != 0) failureCount--
+            if (old and FLAG_SLOW != 0) slowCount--
+        } else {
+            windowCount++
+        }
+        window[windowIndex] = outcome.toByte()
+        windowIndex = (windowIndex + 1) % windowSize
+        if (isFailure) failureCount++
+        if (isSlow) slowCount++
+    }
+
+    private fun minCallsLocked(): Int {
+        return if (state == State.HALF_OPEN) permittedInHalfOpen else minimumCalls
+    }
+
+    private fun isTripped(): Boolean {
+        if (windowCount < minCallsLocked()) return false
+        if (failureCount * 100f / windowCount >= failureRateThreshold) return true
+        return slowCallDurationNanos > 0 && slowCount * 100f / windowCount >= slowCallRateThreshold
+    }
+
+    override fun toString(): String {
+        return "CircuitBreaker{name=$name, state=$state}"
+    }
+
+    /**
+     * 熔断状态
+     */
+    enum class State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * 探测请求，在调用线程中同步执行
+     */
+    fun interface Probe {
+        /**
+         * @return 远程是否可用，抛出异常视为失败
+         */
+        fun call(): Boolean
+    }
+
+    /**
+     * 状态变化监听
+     */
+    fun interface StateListener {
+        /**
+         * 状态变化，在触发变化的线程中回调
+         *
+         * @param breaker 熔断器
+         * @param from    原状态
+         * @param to      新状态
+         */
+        fun onStateChanged(breaker: CircuitBreaker, from: State, to: State)
+    }
+
+    class Builder {
+        internal var failureRateThreshold = 50f
+        internal var slowCallRateThreshold = 100f
+        internal var slowCallDurationNanos = 0L
+        internal var windowSize = 20
+        internal var minimumCalls = 10
+        internal var waitInOpenNanos = TimeUnit.SECONDS.toNanos(10)
+        internal var permittedInHalfOpen = 3
+
+        /**
+         * 失败率阈值，百分比，达到则打开
+         */
+        fun failureRateThreshold(threshold: Float) = apply {
+            if (threshold <= 0 || threshold > 100) {
+                throw IllegalArgumentException("threshold must be in (0, 100]")
+            }
+            this.failureRateThreshold = threshold
+        }
+
+        /**
+         * 慢请求阈值，耗时达到 duration 视为慢请求，慢请求率达到 rateThreshold 则打开
+         */
+        fun slowCallThreshold(rateThreshold: Float, duration: Long, unit: TimeUnit) = apply {
+            if (rateThreshold <= 0 || rateThreshold > 100) {
+                throw IllegalArgumentException("rateThreshold must be in (0, 100]")
+            }
+            if (duration <= 0) {
+                throw IllegalArgumentException("duration <= 0")
+            }
+            this.slowCallRateThreshold = rateThreshold
+            this.slowCallDurationNanos = unit.toNanos(duration)
+        }
+
+        /**
+         * 统计窗口大小，即最近的请求数
+         */
+        fun windowSize(windowSize: Int) = apply {
+            if (windowSize < 1) {
+                throw IllegalArgumentException("windowSize < 1")
+            }
+            this.windowSize = windowSize
+        }
+
+        /**
+         * 计算失败率所需的最小请求数
+         */
+        fun minimumCalls(minimumCalls: Int) = apply {
+            if (minimumCalls < 1) {
+                throw IllegalArgumentException("minimumCalls < 1")
+            }
+            this.minimumCalls = minimumCalls
+        }
+
+        /**
+         * 打开状态的持续时长，之后进入半开
+         */
+        fun waitDurationInOpen(duration: Long, unit: TimeUnit) = apply {
+            if (duration < 0) {
+                throw IllegalArgumentException("duration < 0")
+            }
+            this.waitInOpenNanos = unit.toNanos(duration)
+        }
+
+        /**
+         * 半开状态放行的探测请求数
+         */
+        fun permittedCallsInHalfOpen(permitted: Int) = apply {
+            if (permitted < 1) {
+                throw IllegalArgumentException("permitted < 1")
+            }
+            this.permittedInHalfOpen = permitted
+        }
+
+        fun build(name: String): CircuitBreaker {
+            if (minimumCalls > windowSize) {
+                throw IllegalArgumentException("minimumCalls > windowSize")
+            }
+            if (permittedInHalfOpen > windowSize) {
+                throw IllegalArgumentException("permittedCallsInHalfOpen > windowSize")
+            }
+            return CircuitBreaker(name, this)
+        }
+    }
+
+    companion object {
+        private const val FLAG_FAILURE = 1
+        private const val FLAG_SLOW = 2
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.strategy.breaker
+
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * 熔断器注册表，按请求工厂类型创建并持有熔断器，同一类型共享熔断状态。
+ * 请求工厂通过重写 BaseRequestStrategyFactory.onLoadCircuitBreaker 返回 [breakerOf] 开启熔断。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 11:58 下午
+ */
+class CircuitBreakerRegistry private constructor(builder: Builder) {
+
+    private val defaultConfig = builder.defaultConfig
+    private val configs = HashMap(builder.configs)
+    private val listener = builder.listener
+
+    private val breakers = ConcurrentHashMap<Class<*>, CircuitBreaker>()
+
+    /**
+     * 获取请求类型对应的熔断器，不存在则按配置创建
+     *
+     * @param requestType 请求类型，一般为请求工厂类型
+     * @return CircuitBreaker
+     */
+    fun breakerOf(requestType: Class<*>): CircuitBreaker {
+        breakers[requestType]?.let { return it }
+        val config = configs[requestType] ?: defaultConfig
+        val breaker = config.build(requestType.name)
+        listener?.let { breaker.addStateListener(it) }
+        return breakers.putIfAbsent(requestType, breaker) ?: breaker
+    }
+
+    /**
+     * 已创建的熔断器
+     */
+    fun getBreakers(): Map<Class<*>, CircuitBreaker> = HashMap(breakers)
+
+    /**
+     * 当前状态为 [state] 的熔断器
+     */
+    fun breakersIn(state: CircuitBreaker.State): List<CircuitBreaker> {
+        return breakers.values.filter { it.getState() == state }
+    }
+
+    /**
+     * 重置全部熔断器
+     */
+    fun resetAll() {
+        breakers.values.forEach { it.reset() }
+    }
+
+    class Builder {
+        internal var defaultConfig = CircuitBreaker.Builder()
+        internal val configs = HashMap<Class<*>, CircuitBreaker.Builder>()
+        internal var listener: CircuitBreaker.StateListener? = null
+
+        /**
+         * 默认熔断配置
+         */
+        fun defaultConfig(config: CircuitBreaker.Builder) = apply {
+            this.defaultConfig = config
+        }
+
+        /**
+         * 指定请求类型的熔断配置
+         */
+        fun config(requestType: Class<*>, config: CircuitBreaker.Builder) = apply {
+            configs[requestType] = config
+        }
+
+        /**
+         * 全部熔断器的状态变化监听
+         */
+        fun stateListener(listener: CircuitBreaker.StateListener) = apply {
+            this.listener = listener
+        }
+
+        fun build(): CircuitBreakerRegistry {
+            return CircuitBreakerRegistry(this)
+        }
+    }
+}
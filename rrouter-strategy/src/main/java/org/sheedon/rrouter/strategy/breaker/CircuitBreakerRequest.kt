@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.strategy.breaker
+
+import org.sheedon.rrouter.core.Request
+import org.sheedon.rrouter.core.StrategyCallback
+import org.sheedon.rrouter.strategy.StrategyConfig
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * 受熔断器保护的远程请求，记录真实请求的结果与耗时。
+ * 策略执行者在熔断打开时通过 [tryAcquire] 得知需跳过远程请求；
+ * 未经策略执行者判断而直接请求时，熔断打开则立即反馈失败 [MESSAGE_OPEN]。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 11:59 下午
+ */
+class CircuitBreakerRequest<RequestCard, ResponseModel>(
+    private val breaker: CircuitBreaker,
+    private var callback: StrategyCallback<ResponseModel>?
+) : Request<RequestCard>, Request.TimeoutAware {
+
+    // 真实远程请求
+    private var request: Request<RequestCard>? = null
+
+    // 已由 tryAcquire 取得放行
+    private val acquired = AtomicBoolean()
+
+    // 真实请求执行中
+    private val inFlight = AtomicBoolean()
+
+    @Volatile
+    private var startNanos = 0L
+
+    /**
+     * 熔断器
+     */
+    fun getBreaker(): CircuitBreaker = breaker
+
+    /**
+     * 判断是否放行，放行则保留到下一次 [request]
+     *
+     * @return 是否放行
+     */
+    fun tryAcquire(): Boolean {
+        if (acquired.get()) return true
+        if (!breaker.tryAcquire()) return false
+        acquired.set(true)
+        return true
+    }
+
+    /**
+     * 设置真实远程请求
+     *
+     * @param request 真实远程请求
+     * @return 真实请求为空则返回空
+     */
+    fun wrap(request: Request<RequestCard>?): CircuitBreakerRequest<RequestCard, ResponseModel>? {
+        this.request = request ?: return null
+        return this
+    }
+
+    /**
+     * 包装远程请求的反馈监听器，记录结果与耗时
+     *
+     * @param callback 反馈监听器
+     * @return 记录结果的反馈监听器
+     */
+    fun wrapCallback(callback: StrategyCallback<ResponseModel>?): StrategyCallback<ResponseModel> {
+        return object : StrategyCallback<ResponseModel> {
+            override fun onDataLoaded(t: ResponseModel) {
+                complete(true)
+                callback?.onDataLoaded(t)
+            }
+
+            override fun onDataNotAvailable(message: String?) {
+                complete(false)
+                callback?.onDataNotAvailable(message)
+            }
+        }
+    }
+
+    private fun complete(isSuccess: Boolean) {
+        if (inFlight.compareAndSet(true, false)) {
+            breaker.onResult(isSuccess, System.nanoTime() - startNanos)
+        }
+    }
+
+    override fun request(requestCard: RequestCard?) {
+        val request = request ?: return
+        if (!acquired.getAndSet(false) && !breaker.tryAcquire()) {
+            callback?.onDataNotAvailable(MESSAGE_OPEN)
+            return
+        }
+        startNanos = System.nanoTime()
+        inFlight.set(true)
+        request.request(requestCard)
+    }
+
+    override fun onRequestType(): Int {
+        return StrategyConfig.REQUEST.TYPE_REMOTE_REQUEST
+    }
+
+    /**
+     * 请求超时或超过整体截止时长，执行中的请求计为失败
+     */
+    override fun onTimeout() {
+        complete(false)
+    }
+
+    /**
+     * 取消请求，执行中的请求耗时已达到慢请求阈值则计为慢请求，
+     * 否则归还放行名额，不计入统计；超时取消已由 [onTimeout] 计为失败
+     */
+    override fun onCancel() {
+        if (inFlight.compareAndSet(true, false)) {
+            breaker.onCancelled(System.nanoTime() - startNanos)
+        }
+        if (acquired.getAndSet(false)) {
+            breaker.release()
+        }
+        request?.onCancel()
+    }
+
+    override fun onDestroy() {
+        onCancel()
+        request?.onDestroy()
+        request = null
+        callback = null
+    }
+
+    companion object {
+        // 熔断打开，拒绝远程请求
+        const val MESSAGE_OPEN = "circuit breaker open"
+    }
+}
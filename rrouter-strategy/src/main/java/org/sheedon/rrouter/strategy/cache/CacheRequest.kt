@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.strategy.cache
+
+import org.sheedon.rrouter.core.CardFingerprints
+import org.sheedon.rrouter.core.DataCloneable
+import org.sheedon.rrouter.core.FreezableCard
+import org.sheedon.rrouter.core.Request
+import org.sheedon.rrouter.core.StrategyCallback
+import org.sheedon.rrouter.strategy.DispatchKeys
+import org.sheedon.rrouter.strategy.StrategyConfig
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * 缓存请求，从 [ResponseCache] 中同步读取结果，不切换线程。
+ * 命中则直接反馈成功，未命中则反馈失败，由策略执行者继续执行后续的远程/本地请求。
+ *
+ * 请求卡片作为缓存键的一部分，存在指纹则按指纹与字段比较，否则需正确实现 equals/hashCode，
+ * 未重写 equals 的请求卡片（按对象标识比较）不读写缓存。
+ * 写入时以发起该请求时的请求卡片为键，可变的请求卡片需实现 DataCloneable，写入前拷贝为快照。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 4:20 下午
+ */
+class CacheRequest<RequestCard, ResponseModel>(
+    private val cache: ResponseCache,
+    private val namespace: Class<*>,
+    private var callback: StrategyCallback<ResponseModel>?
+) : Request<RequestCard> {
+
+    // 被包装请求执行中的写入键
+    private val writeKeys = DispatchKeys<Key>()
+
+    /**
+     * 读取缓存
+     *
+     * @param requestCard 请求卡片
+     */
+    @Suppress("UNCHECKED_CAST")
+    override fun request(requestCard: RequestCard?) {
+        val value = if (isCacheable(requestCard)) cache.get(keyOf(requestCard)) else null
+        if (value == null) {
+            callback?.onDataNotAvailable(MESSAGE_MISS)
+            return
+        }
+        callback?.onDataLoaded(value as ResponseModel)
+    }
+
+    /**
+     * 请求卡片对应的缓存记录已写入的时长
+     *
+     * @param requestCard 请求卡片
+     * @return 已写入时长，纳秒，未命中则返回 -1
+     */
+    fun ageOf(requestCard: RequestCard?): Long {
+        if (!isCacheable(requestCard)) return -1
+        return cache.ageOf(keyOf(requestCard))
+    }
+
+    /**
+     * 包装结果需写入缓存的请求，发起时记录本次请求卡片的写入键
+     *
+     * @param request 真实请求
+     * @return 记录写入键的请求，真实请求为空则返回空
+     */
+    fun wrapRequest(request: Request<RequestCard>?): Request<RequestCard>? {
+        request ?: return null
+        return object : Request.Wrapper<RequestCard> {
+            override fun request(requestCard: RequestCard?) {
+                writeKeys.onDispatch(writeKeyOf(requestCard))
+                request.request(requestCard)
+            }
+
+            override fun delegate(): Request<RequestCard> = request
+
+            override fun onRequestType(): Int = request.onRequestType()
+
+            override fun onCancel() {
+                writeKeys.onCancel()
+                request.onCancel()
+            }
+
+            override fun onDestroy() {
+                writeKeys.onCancel()
+                request.onDestroy()
+            }
+        }
+    }
+
+    /**
+     * 包装 [wrapRequest] 所包装请求的反馈监听器，请求成功则以产生该结果的请求卡片写入缓存
+     *
+     * @param callback 反馈监听器
+     * @return 写入缓存的反馈监听器
+     */
+    fun wrapCallback(callback: StrategyCallback<ResponseModel>): StrategyCallback<ResponseModel> {
+        return object : StrategyCallback<ResponseModel> {
+            override fun onDataLoaded(t: ResponseModel) {
+                val key = writeKeys.onResult()
+                if (key != null && t != null) {
+                    cache.put(key, t)
+                }
+                callback.onDataLoaded(t)
+            }
+
+            override fun onDataNotAvailable(message: String?) {
+                writeKeys.onResult()
+                callback.onDataNotAvailable(message)
+            }
+        }
+    }
+
+    /**
+     * 读取使用的缓存键
+     */
+    private fun keyOf(requestCard: RequestCard?): Key {
+        return Key(namespace, CardFingerprints.keyOf(requestCard))
+    }
+
+    /**
+     * 写入使用的缓存键，可变的请求卡片拷贝为快照，之后修改请求卡片不影响已写入的键
+     *
+     * @return 缓存键，请求卡片不可缓存或拷贝失败则返回空
+     */
+    private fun writeKeyOf(requestCard: RequestCard?): Key? {
+        if (!isCacheable(requestCard)) return null
+        val isSnapshot = requestCard !is DataCloneable ||
+                (requestCard is FreezableCard && requestCard.isFrozen())
+        val snapshot = if (isSnapshot) {
+            requestCard
+        } else {
+            try {
+                (requestCard as DataCloneable).clone()
+            } catch (e: CloneNotSupportedException) {
+                return null
+            }
+        }
+        return Key(namespace, CardFingerprints.keyOf(snapshot))
+    }
+
+    override fun onRequestType(): Int {
+        return StrategyConfig.REQUEST.TYPE_CACHE_REQUEST
+    }
+
+    override fun onCancel() {}
+
+    override fun onDestroy() {
+        callback = null
+        writeKeys.onCancel()
+    }
+
+    /**
+     * 缓存键，由「请求工厂类型 + 请求卡片」组成，请求卡片存在指纹则按指纹比较
+     */
+    private data class Key(val namespace: Class<*>, val card: Any?)
+
+    companion object {
+        // 缓存未命中
+        const val MESSAGE_MISS = "cache miss"
+
+        // 未生成指纹的请求卡片类型是否重写了 equals
+        private val equalsOverridden = ConcurrentHashMap<Class<*>, Boolean>()
+
+        /**
+         * 请求卡片是否可作为缓存键，未生成指纹且未重写 equals 的请求卡片按对象标识比较，
+         * 修改后仍会命中修改前写入的记录，不可缓存
+         */
+        private fun isCacheable(card: Any?): Boolean {
+            if (card == null || CardFingerprints.of(card) != null) return true
+            return equalsOverridden.getOrPut(card.javaClass) {
+                card.javaClass.getMethod("equals", Any::class.java).declaringClass != Any::class.java
+            }
+        }
+    }
+}
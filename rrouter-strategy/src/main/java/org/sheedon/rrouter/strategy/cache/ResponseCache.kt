@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.strategy.cache
+
+import java.util.concurrent.TimeUnit
+
+/**
+ * 内存响应缓存，按请求卡片缓存请求结果
+ * 1. 按容量限制缓存大小，容量由 [Sizer] 计算，默认每条记录为 1
+ * 2. 超出容量按最近最少使用（LRU）淘汰
+ * 3. 写入超过存活时间（TTL）的记录视为失效
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 4:05 下午
+ */
+class ResponseCache private constructor(builder: Builder) {
+
+    // 最大容量
+    private val maxSize: Long = builder.maxSize
+
+    // 存活时间，纳秒
+    private val expireAfterWriteNanos: Long = builder.expireAfterWriteNanos
+
+    // 容量计算
+    private val sizer: Sizer = builder.sizer
+
+    // 按访问顺序排列的记录
+    private val entries = LinkedHashMap<Any, Entry>(16, 0.75f, true)
+
+    // 当前容量
+    private var size: Long = 0
+
+    private var hitCount: Long = 0
+    private var missCount: Long = 0
+    private var evictionCount: Long = 0
+
+    /**
+     * 获取缓存结果，记录不存在或已失效则返回空
+     *
+     * @param key 缓存键
+     */
+    fun get(key: Any): Any? {
+        synchronized(this) {
+            val entry = entries[key]
+            if (entry == null) {
+                missCount++
+                return null
+            }
+            if (entry.isExpired(System.nanoTime())) {
+                removeEntry(key, entry)
+                missCount++
+                return null
+            }
+            hitCount++
+            return entry.value
+        }
+    }
+
+    /**
+     * 获取缓存记录已写入的时长，不计入命中统计
+     *
+     * @param key 缓存键
+     * @return 已写入时长，纳秒，记录不存在或已失效则返回 -1
+     */
+    fun ageOf(key: Any): Long {
+        synchronized(this) {
+            val entry = entries[key] ?: return -1
+            val now = System.nanoTime()
+            if (entry.isExpired(now)) return -1
+            return now - entry.writtenAt
+        }
+    }
+
+    /**
+     * 写入缓存结果，单条容量超过最大容量则不缓存
+     *
+     * @param key   缓存键
+     * @param value 缓存结果
+     */
+    fun put(key: Any, value: Any) {
+        val entrySize = sizer.sizeOf(key, value)
+        if (entrySize < 0) {
+            throw IllegalStateException("Negative size: $key=$value")
+        }
+        synchronized(this) {
+            val previous = entries.remove(key)
+            if (previous != null) {
+                size -= previous.size
+            }
+            if (entrySize > maxSize) {
+                return
+            }
+            val now = System.nanoTime()
+            entries[key] = Entry(value, entrySize, now, now + expireAfterWriteNanos)
+            size += entrySize
+            trimToSize()
+        }
+    }
+
+    /**
+     * 移除缓存结果
+     */
+    fun remove(key: Any) {
+        synchronized(this) {
+            val entry = entries[key] ?: return
+            removeEntry(key, entry)
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    fun clear() {
+        synchronized(this) {
+            entries.clear()
+            size = 0
+        }
+    }
+
+    /**
+     * 当前容量
+     */
+    fun size(): Long = synchronized(this) { size }
+
+    fun hitCount(): Long = synchronized(this) { hitCount }
+
+    fun missCount(): Long = synchronized(this) { missCount }
+
+    fun evictionCount(): Long = synchronized(this) { evictionCount }
+
+    private fun removeEntry(key: Any, entry: Entry) {
+        entries.remove(key)
+        size -= entry.size
+    }
+
+    /**
+     * 淘汰最近最少使用的记录，直到容量不超过最大容量
+     */
+    private fun trimToSize() {
+        val iterator = entries.entries.iterator()
+        while (size > maxSize && iterator.hasNext()) {
+            val eldest = iterator.next()
+            iterator.remove()
+            size -= eldest.value.size
+            evictionCount++
+        }
+    }
+
+    private class Entry(val value: Any, val size: Int, val writtenAt: Long, val expireAt: Long) {
+        fun isExpired(now: Long): Boolean = now - expireAt >= 0
+    }
+
+    /**
+     * 缓存记录容量计算
+     */
+    fun interface Sizer {
+        fun sizeOf(key: Any, value: Any): Int
+    }
+
+    class Builder {
+        internal var maxSize: Long = 64
+        internal var expireAfterWriteNanos: Long = TimeUnit.MINUTES.toNanos(1)
+        internal var sizer: Sizer = Sizer { _, _ -> 1 }
+
+        /**
+         * 最大容量
+         *
+         * @param maxSize 最大容量
+         * @return Builder
+         */
+        fun maxSize(maxSize: Long) = apply {
+            if (maxSize <= 0) {
+                throw IllegalArgumentException("maxSize <= 0")
+            }
+            this.maxSize = maxSize
+        }
+
+        /**
+         * 写入后的存活时间
+         *
+         * @param duration 时长
+         * @param unit     时长单位
+         * @return Builder
+         */
+        fun expireAfterWrite(duration: Long, unit: TimeUnit) = apply {
+            if (duration <= 0) {
+                throw IllegalArgumentException("duration <= 0")
+            }
+            this.expireAfterWriteNanos = unit.toNanos(duration)
+        }
+
+        /**
+         * 记录容量计算
+         *
+         * @param sizer 容量计算
+         * @return Builder
+         */
+        fun sizer(sizer: Sizer) = apply {
+            this.sizer = sizer
+        }
+
+        fun build(): ResponseCache {
+            return ResponseCache(this)
+        }
+    }
+
+    companion object {
+        /**
+         * 默认共享缓存，64 条记录，存活 1 分钟
+         */
+        @JvmStatic
+        val DEFAULT: ResponseCache by lazy {
+            Builder().build()
+        }
+    }
+}
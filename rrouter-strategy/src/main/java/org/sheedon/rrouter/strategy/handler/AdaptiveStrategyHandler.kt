@@ -0,0 +1,374 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.strategy.handler
+
+import org.sheedon.rrouter.core.DataSource
+import org.sheedon.rrouter.core.ImmutableIntMap
+import org.sheedon.rrouter.core.ProcessChain
+import org.sheedon.rrouter.core.Request
+import org.sheedon.rrouter.strategy.StrategyConfig
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.TimeUnit
+
+/**
+ * 自适应请求顺序，按远程（网络）/本地请求的指数加权移动平均（EWMA）耗时与成功率，
+ * 为每次请求决定先远程后本地，还是先本地后远程，无数据/失败则取另一方。
+ *
+ * 顺序 A -> B 得到数据的期望耗时为 latency(A) + (1 - success(A)) * latency(B)，
+ * 另一顺序的期望耗时低于当前顺序超过 [Builder.hysteresis] 比例才切换，避免来回切换。
+ * 每 [Builder.exploreInterval] 次请求按另一顺序执行一次，刷新后置请求的统计。
+ *
+ * 统计按策略执行者共享，即使用该策略类型的全部请求共享同一份统计，
+ * 可通过 [Builder] 创建多个实例并注册为不同的策略类型区分统计。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 0:30 上午
+ */
+class AdaptiveStrategyHandler private constructor(
+    builder: Builder
+) : BaseStrategyHandler() {
+
+    private val alpha = builder.alpha
+    private val hysteresis = builder.hysteresis
+    private val minSamples = builder.minSamples
+    private val exploreInterval = builder.exploreInterval
+
+    private val lock = Any()
+    private val remoteStats = Stats()
+    private val localStats = Stats()
+
+    // 当前优先顺序，是否先远程
+    private var remoteFirst = true
+
+    private var requestCount = 0L
+    private var switchCount = 0L
+    private var exploreCount = 0L
+
+    private val listeners = CopyOnWriteArrayList<DecisionListener>()
+
+    constructor() : this(Builder())
+
+    /**
+     * 默认请求流程，远程 -> 本地，每次请求前按统计调整顺序
+     */
+    override fun loadRequestProcess(): IntArray {
+        return intArrayOf(
+            StrategyConfig.REQUEST.TYPE_REMOTE_REQUEST,
+            StrategyConfig.REQUEST.TYPE_LOCAL_REQUEST
+        )
+    }
+
+    /**
+     * 流程开始前决定请求顺序，不存在的请求直接跳过，记录请求发起时间
+     */
+    override fun <RequestCard> handleRealRequestStrategy(
+        processChain: ProcessChain,
+        requestStrategies: ImmutableIntMap<Request<RequestCard>>,
+        card: RequestCard?
+    ): Boolean {
+        var state = processChain.attachment as? AdaptiveState
+        if (state == null) {
+            state = AdaptiveState()
+            processChain.attachment = state
+            if (decide()) {
+                processChain.reorder(*REMOTE_FIRST)
+            } else {
+                processChain.reorder(*LOCAL_FIRST)
+            }
+        }
+
+        while (!processChain.isAllCompleted()) {
+            val request = requestStrategies[processChain.getProcess()]
+            if (request != null) {
+                state.startNanos = System.nanoTime()
+                return super.handleRealRequestStrategy(processChain, requestStrategies, card)
+            }
+            if (!processChain.compareAndSetCurrentStatus(
+                    ProcessChain.STATUS_NORMAL,
+                    ProcessChain.STATUS_COMPLETED
+                )
+            ) {
+                return false
+            }
+        }
+        return false
+    }
+
+    /**
+     * 记录当前请求的耗时与结果，请求成功则完成全部流程并反馈，
+     * 失败则进入下一流程，最后一个流程失败才反馈失败
+     *
+     * @param processChain    流程链
+     * @param callback        反馈监听
+     * @param model           结果model
+     * @param message         描述信息
+     * @param isSuccess       是否请求成功
+     * @param <ResponseModel> 结果model类型
+     * @return 是否处理成功
+    </ResponseModel> */
+    override fun <ResponseModel> handleRealCallbackStrategy(
+        processChain: ProcessChain,
+        callback: DataSource.Callback<ResponseModel>?,
+        model: ResponseModel?, message: String?,
+        isSuccess: Boolean
+    ): Boolean {
+        val requestType = processChain.getProcess()
+        // 状态由「发送中」原子更新为「完成」，失败则说明状态并非「发送中」，反馈执行失败
+        if (!completeCurrentStatus(processChain)) {
+            return false
+        }
+        val state = processChain.attachment as? AdaptiveState
+        if (state != null) {
+            record(requestType, isSuccess, System.nanoTime() - state.startNanos)
+        }
+        if (isSuccess) {
+            processChain.updateAllStatusToCompleted()
+        }
+        if (processChain.isAllCompleted()) {
+            handleCallback(callback, model, message, isSuccess)
+        }
+        return true
+    }
+
+    /**
+     * 决定本次请求的顺序
+     *
+     * @return 是否先远程
+     */
+    private fun decide(): Boolean {
+        var changed: Decision? = null
+        val first = synchronized(lock) {
+            requestCount++
+            val candidate = evaluate()
+            if (candidate != remoteFirst) {
+                remoteFirst = candidate
+                switchCount++
+                changed = snapshotLocked()
+            }
+            if (exploreInterval > 0 && requestCount % exploreInterval == 0L) {
+                exploreCount++
+                !remoteFirst
+            } else remoteFirst
+        }
+        changed?.let { decision -> listeners.forEach { it.onDecisionChanged(decision) } }
+        return first
+    }
+
+    /**
+     * 按期望耗时评估优先顺序，样本不足或差距未超过滞后比例则保持当前顺序
+     */
+    private fun evaluate(): Boolean {
+        if (remoteStats.samples < minSamples || localStats.samples < minSamples) {
+            return remoteFirst
+        }
+        val remoteFirstCost = expectedCost(remoteStats, localStats)
+        val localFirstCost = expectedCost(localStats, remoteStats)
+        return if (remoteFirst) {
+            !(localFirstCost < remoteFirstCost * (1 - hysteresis))
+        } else {
+            remoteFirstCost < localFirstCost * (1 - hysteresis)
+        }
+    }
+
+    private fun expectedCost(first: Stats, second: Stats): Double {
+        return first.latency + (1 - first.successRate) * second.latency
+    }
+
+    private fun record(requestType: Int, isSuccess: Boolean, durationNanos: Long) {
+        val stats = when (requestType) {
+            StrategyConfig.REQUEST.TYPE_REMOTE_REQUEST -> remoteStats
+            StrategyConfig.REQUEST.TYPE_LOCAL_REQUEST -> localStats
+            else -> return
+        }
+        synchronized(lock) {
+            stats.update(alpha, isSuccess, durationNanos.toDouble())
+        }
+    }
+
+    /**
+     * 当前决策与统计
+     */
+    fun getDecision(): Decision = synchronized(lock) { snapshotLocked() }
+
+    /**
+     * 添加决策变化监听
+     */
+    fun addDecisionListener(listener: DecisionListener) {
+        listeners.add(listener)
+    }
+
+    fun removeDecisionListener(listener: DecisionListener) {
+        listeners.remove(listener)
+    }
+
+    /**
+     * 清空统计与计数，恢复默认顺序
+     */
+    fun reset() {
+        synchronized(lock) {
+            remoteStats.clear()
+            localStats.clear()
+            remoteFirst = true
+            requestCount = 0
+            switchCount = 0
+            exploreCount = 0
+        }
+    }
+
+    private fun snapshotLocked(): Decision {
+        val ready = remoteStats.samples >= minSamples && localStats.samples >= minSamples
+        return Decision(
+            remoteFirst,
+            TimeUnit.NANOSECONDS.toMicros(remoteStats.latency.toLong()),
+            remoteStats.successRate, remoteStats.samples,
+            TimeUnit.NANOSECONDS.toMicros(localStats.latency.toLong()),
+            localStats.successRate, localStats.samples,
+            if (ready) TimeUnit.NANOSECONDS.toMicros(expectedCost(remoteStats, localStats).toLong()) else -1,
+            if (ready) TimeUnit.NANOSECONDS.toMicros(expectedCost(localStats, remoteStats).toLong()) else -1,
+            requestCount, switchCount, exploreCount
+        )
+    }
+
+    /**
+     * 单个请求类型的 EWMA 统计
+     */
+    private class Stats {
+        // 耗时，纳秒
+        var latency = 0.0
+        var successRate = 1.0
+        var samples = 0L
+
+        fun update(alpha: Double, isSuccess: Boolean, durationNanos: Double) {
+            val success = if (isSuccess) 1.0 else 0.0
+            if (samples == 0L) {
+                latency = durationNanos
+                successRate = success
+            } else {
+                latency += alpha * (durationNanos - latency)
+                successRate += alpha * (success - successRate)
+            }
+            samples++
+        }
+
+        fun clear() {
+            latency = 0.0
+            successRate = 1.0
+            samples = 0
+        }
+    }
+
+    /**
+     * 单次流程执行的状态
+     */
+    private class AdaptiveState {
+        // 当前请求的发起时间
+        @Volatile
+        var startNanos = 0L
+    }
+
+    /**
+     * 决策快照，耗时单位为微秒，样本不足时期望耗时为 -1
+     */
+    data class Decision(
+        val remoteFirst: Boolean,
+        val remoteLatencyMicros: Long,
+        val remoteSuccessRate: Double,
+        val remoteSamples: Long,
+        val localLatencyMicros: Long,
+        val localSuccessRate: Double,
+        val localSamples: Long,
+        val remoteFirstCostMicros: Long,
+        val localFirstCostMicros: Long,
+        val requestCount: Long,
+        val switchCount: Long,
+        val exploreCount: Long
+    )
+
+    /**
+     * 决策变化监听
+     */
+    fun interface DecisionListener {
+        /**
+         * 优先顺序切换，在发起请求的线程中回调
+         *
+         * @param decision 切换后的决策
+         */
+        fun onDecisionChanged(decision: Decision)
+    }
+
+    class Builder {
+        internal var alpha = 0.2
+        internal var hysteresis = 0.2
+        internal var minSamples = 5
+        internal var exploreInterval = 50
+
+        /**
+         * EWMA 平滑系数，越大越偏向最近的样本
+         */
+        fun alpha(alpha: Double) = apply {
+            if (alpha <= 0 || alpha > 1) {
+                throw IllegalArgumentException("alpha must be in (0, 1]")
+            }
+            this.alpha = alpha
+        }
+
+        /**
+         * 滞后比例，另一顺序的期望耗时低于当前顺序超过该比例才切换
+         */
+        fun hysteresis(hysteresis: Double) = apply {
+            if (hysteresis < 0 || hysteresis >= 1) {
+                throw IllegalArgumentException("hysteresis must be in [0, 1)")
+            }
+            this.hysteresis = hysteresis
+        }
+
+        /**
+         * 远程与本地均达到该样本数才开始按统计决策
+         */
+        fun minSamples(minSamples: Int) = apply {
+            if (minSamples < 1) {
+                throw IllegalArgumentException("minSamples < 1")
+            }
+            this.minSamples = minSamples
+        }
+
+        /**
+         * 探测间隔，每隔该请求数按另一顺序执行一次，0 为不探测
+         */
+        fun exploreInterval(interval: Int) = apply {
+            if (interval < 0) {
+                throw IllegalArgumentException("interval < 0")
+            }
+            this.exploreInterval = interval
+        }
+
+        fun build(): AdaptiveStrategyHandler {
+            return AdaptiveStrategyHandler(this)
+        }
+    }
+
+    companion object {
+        private val REMOTE_FIRST = intArrayOf(
+            StrategyConfig.REQUEST.TYPE_REMOTE_REQUEST,
+            StrategyConfig.REQUEST.TYPE_LOCAL_REQUEST
+        )
+        private val LOCAL_FIRST = intArrayOf(
+            StrategyConfig.REQUEST.TYPE_LOCAL_REQUEST,
+            StrategyConfig.REQUEST.TYPE_REMOTE_REQUEST
+        )
+    }
+}
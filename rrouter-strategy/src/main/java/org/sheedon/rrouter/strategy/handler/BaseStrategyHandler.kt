@@ -15,11 +15,12 @@
  */
 package org.sheedon.rrouter.strategy.handler
 
-import android.util.SparseArray
 import org.sheedon.rrouter.core.DataSource
+import org.sheedon.rrouter.core.ImmutableIntMap
 import org.sheedon.rrouter.core.StrategyHandle
 import org.sheedon.rrouter.core.ProcessChain
 import org.sheedon.rrouter.core.Request
+import org.sheedon.rrouter.strategy.breaker.CircuitBreakerRequest
 
 /**
  * 基础策略执行者
@@ -39,7 +40,7 @@ abstract class BaseStrategyHandler : StrategyHandle {
     </RequestCard> */
     override fun <RequestCard> handleRequestStrategy(
         processChain: ProcessChain,
-        requestStrategies: SparseArray<Request<RequestCard>>,
+        requestStrategies: ImmutableIntMap<Request<RequestCard>>,
         card: RequestCard?
     ): Boolean {
         return handleRealRequestStrategy(processChain, requestStrategies, card)
@@ -56,7 +57,7 @@ abstract class BaseStrategyHandler : StrategyHandle {
     </RequestCard> */
     protected open fun <RequestCard> handleRealRequestStrategy(
         processChain: ProcessChain,
-        requestStrategies: SparseArray<Request<RequestCard>>,
+        requestStrategies: ImmutableIntMap<Request<RequestCard>>,
         card: RequestCard?
     ): Boolean {
         // 拿到当前进度对应的请求
@@ -67,18 +68,49 @@ abstract class BaseStrategyHandler : StrategyHandle {
             return false
         }
 
-        // 状态并非「未发送」，则请求失败
-        if (processChain.getCurrentStatus() != ProcessChain.STATUS_NORMAL) {
+        // 熔断打开且存在后续流程，跳过远程请求
+        if (isCircuitOpen(processChain, request)) {
+            if (!processChain.compareAndSetCurrentStatus(
+                    ProcessChain.STATUS_NORMAL,
+                    ProcessChain.STATUS_COMPLETED
+                )
+            ) {
+                processChain.updateCurrentStatus(ProcessChain.STATUS_COMPLETED)
+                return false
+            }
+            return handleRealRequestStrategy(processChain, requestStrategies, card)
+        }
+
+        // 状态由「未发送」原子更新为「请求中」，失败则说明状态并非「未发送」，请求失败
+        if (!processChain.compareAndSetCurrentStatus(
+                ProcessChain.STATUS_NORMAL,
+                ProcessChain.STATUS_REQUESTING
+            )
+        ) {
             processChain.updateCurrentStatus(ProcessChain.STATUS_COMPLETED)
             return false
         }
 
         // 请求任务
-        processChain.updateCurrentStatus(ProcessChain.STATUS_REQUESTING)
         request.request(card)
         return true
     }
 
+    /**
+     * 当前请求受熔断器保护且熔断器拒绝放行，并且当前流程不是最后一个流程，
+     * 最后一个流程不跳过，由熔断请求直接反馈失败
+     *
+     * @param processChain 流程链
+     * @param request      当前流程的请求
+     * @return 是否跳过当前请求
+     */
+    protected fun isCircuitOpen(processChain: ProcessChain, request: Request<*>): Boolean {
+        val breakerRequest = Request.unwrap(request)
+        return breakerRequest is CircuitBreakerRequest<*, *>
+                && processChain.getProgress() < processChain.size() - 1
+                && !breakerRequest.tryAcquire()
+    }
+
     /**
      * 处理反馈代理
      *
@@ -130,16 +162,33 @@ abstract class BaseStrategyHandler : StrategyHandle {
         message: String?,
         isSuccess: Boolean
     ): Boolean {
-        // 状态并非「发送中」，则反馈执行失败
-        if (processChain.getCurrentStatus() != ProcessChain.STATUS_REQUESTING) {
-            processChain.updateCurrentStatus(ProcessChain.STATUS_COMPLETED)
+        // 状态由「发送中」原子更新为「完成」，失败则说明状态并非「发送中」，反馈执行失败
+        if (!completeCurrentStatus(processChain)) {
             return false
         }
-        processChain.updateCurrentStatus(ProcessChain.STATUS_COMPLETED)
         handleCallback(callback, model, message, isSuccess)
         return true
     }
 
+    /**
+     * 完成当前流程，当前状态由「发送中」原子更新为「完成」，进度进1
+     * 同一流程的多个反馈只有一个能更新成功
+     *
+     * @param processChain 流程链
+     * @return 是否更新成功，失败则将当前流程置为完成
+     */
+    protected fun completeCurrentStatus(processChain: ProcessChain): Boolean {
+        if (processChain.compareAndSetCurrentStatus(
+                ProcessChain.STATUS_REQUESTING,
+                ProcessChain.STATUS_COMPLETED
+            )
+        ) {
+            return true
+        }
+        processChain.updateCurrentStatus(ProcessChain.STATUS_COMPLETED)
+        return false
+    }
+
     /**
      * 处理反馈结果
      *
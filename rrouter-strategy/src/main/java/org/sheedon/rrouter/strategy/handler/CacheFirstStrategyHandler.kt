@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.strategy.handler
+
+import org.sheedon.rrouter.core.DataSource
+import org.sheedon.rrouter.core.ProcessChain
+import org.sheedon.rrouter.strategy.StrategyConfig
+
+/**
+ * 优先缓存，未命中取网络，网络无数据取本地
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 4:30 下午
+ */
+class CacheFirstStrategyHandler : BaseStrategyHandler() {
+    /**
+     * 请求流程，缓存 -> 网络 -> 本地
+     */
+    override fun loadRequestProcess(): IntArray {
+        return intArrayOf(
+            StrategyConfig.REQUEST.TYPE_CACHE_REQUEST,
+            StrategyConfig.REQUEST.TYPE_REMOTE_REQUEST,
+            StrategyConfig.REQUEST.TYPE_LOCAL_REQUEST
+        )
+    }
+
+    /**
+     * 类型为优先缓存请求 [StrategyConfig.STRATEGY.TYPE_CACHE_FIRST]，
+     * 当前进度为 [ProcessChain.STATUS_REQUESTING]，则执行反馈操作，
+     * 请求成功则完成全部流程并反馈，失败则进入下一流程，最后一个流程失败才反馈失败
+     *
+     * @param processChain    流程链
+     * @param callback        反馈监听
+     * @param model           结果model
+     * @param message         描述信息
+     * @param isSuccess       是否请求成功
+     * @param <ResponseModel> 结果model类型
+     * @return 是否处理成功
+    </ResponseModel> */
+    override fun <ResponseModel> handleRealCallbackStrategy(
+        processChain: ProcessChain,
+        callback: DataSource.Callback<ResponseModel>?,
+        model: ResponseModel?, message: String?,
+        isSuccess: Boolean
+    ): Boolean {
+        // 状态由「发送中」原子更新为「完成」，失败则说明状态并非「发送中」，反馈执行失败
+        if (!completeCurrentStatus(processChain)) {
+            return false
+        }
+        if (isSuccess) {
+            processChain.updateAllStatusToCompleted()
+        }
+        if (processChain.isAllCompleted()) {
+            handleCallback(callback, model, message, isSuccess)
+        }
+        return true
+    }
+}
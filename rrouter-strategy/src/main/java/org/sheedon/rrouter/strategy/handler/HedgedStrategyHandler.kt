@@ -0,0 +1,427 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.strategy.handler
+
+import org.sheedon.rrouter.core.DataSource
+import org.sheedon.rrouter.core.ImmutableIntMap
+import org.sheedon.rrouter.core.LatencyHistogram
+import org.sheedon.rrouter.core.ProcessChain
+import org.sheedon.rrouter.core.Request
+import org.sheedon.rrouter.strategy.StrategyConfig
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.ScheduledThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * 对冲请求，先发起主请求，主请求在对冲延迟内未反馈，则同时发起备用请求，
+ * 以先到达的成功结果为准，并取消其余请求。
+ * 1. 主请求在对冲延迟内失败，直接发起备用请求（与优先网络，失败取本地一致）
+ * 2. 对冲延迟可固定，也可根据主请求已观测到的耗时百分位（默认 p95）自适应
+ * 3. 所有已发起的请求均失败，才反馈失败
+ *
+ * 对冲的备用请求在对冲定时线程中发起。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 8:40 下午
+ */
+class HedgedStrategyHandler private constructor(builder: Builder) : BaseStrategyHandler() {
+
+    // 主请求类型
+    private val primaryType = builder.primaryType
+
+    // 备用请求类型
+    private val secondaryType = builder.secondaryType
+
+    // 固定对冲延迟，自适应时为样本不足时的默认值
+    private val hedgeDelayNanos = builder.hedgeDelayNanos
+
+    // 是否根据主请求耗时百分位自适应对冲延迟
+    private val adaptive = builder.adaptive
+    private val percentile = builder.percentile
+    private val minSamples = builder.minSamples
+    private val minDelayNanos = builder.minDelayNanos
+    private val maxDelayNanos = builder.maxDelayNanos
+
+    // 主请求耗时，对冲后备用请求胜出时以主请求被取消前的耗时记录
+    private val primaryLatency = LatencyHistogram()
+
+    // 当前对冲延迟，自适应时按样本定期刷新
+    @Volatile
+    private var currentDelayNanos = builder.hedgeDelayNanos
+
+    // 自适应样本计数，用于控制刷新频率
+    private val sampleCount = AtomicLong()
+
+    // 请求次数
+    private val requestCount = AtomicLong()
+
+    // 对冲触发次数
+    private val hedgeCount = AtomicLong()
+
+    constructor() : this(Builder())
+
+    /**
+     * 请求流程，主请求 -> 备用请求
+     */
+    override fun loadRequestProcess(): IntArray {
+        return intArrayOf(primaryType, secondaryType)
+    }
+
+    /**
+     * 首次调度发起主请求，并按对冲延迟安排备用请求；
+     * 主请求失败后的再次调度，发起备用请求
+     */
+    @Suppress("UNCHECKED_CAST")
+    override fun <RequestCard> handleRealRequestStrategy(
+        processChain: ProcessChain,
+        requestStrategies: ImmutableIntMap<Request<RequestCard>>,
+        card: RequestCard?
+    ): Boolean {
+        val state = processChain.attachment as? HedgeState<RequestCard>
+        if (state != null) {
+            // 备用请求已发起或无需发起，流程交由已发起的请求反馈
+            dispatchSecondary(processChain, state, false)
+            return true
+        }
+
+        // 状态由「未发送」原子更新为「请求中」，失败则说明状态并非「未发送」，请求失败
+        if (!processChain.compareAndSetStatus(
+                PRIMARY_INDEX,
+                ProcessChain.STATUS_NORMAL,
+                ProcessChain.STATUS_REQUESTING
+            )
+        ) {
+            processChain.updateCurrentStatus(ProcessChain.STATUS_COMPLETED)
+            return false
+        }
+
+        val primary = requestStrategies[primaryType]
+        val secondary = requestStrategies[secondaryType]
+        if (primary == null && secondary == null) {
+            processChain.updateAllStatusToCompleted()
+            return false
+        }
+
+        val newState = HedgeState(primary, secondary, card)
+        processChain.attachment = newState
+        requestCount.incrementAndGet()
+
+        // 主请求不存在，直接发起备用请求
+        if (primary == null) {
+            processChain.compareAndSetCurrentStatus(
+                ProcessChain.STATUS_REQUESTING,
+                ProcessChain.STATUS_COMPLETED
+            )
+            dispatchSecondary(processChain, newState, false)
+            return true
+        }
+
+        newState.dispatched.incrementAndGet()
+        if (secondary != null) {
+            newState.future = SCHEDULER.schedule(
+                { dispatchSecondary(processChain, newState, true) },
+                currentDelayNanos, TimeUnit.NANOSECONDS
+            )
+        }
+        primary.request(card)
+        return true
+    }
+
+    /**
+     * 发起备用请求，同一流程只发起一次
+     *
+     * @param isHedge 是否由对冲延迟触发
+     * @return 是否发起
+     */
+    private fun <RequestCard> dispatchSecondary(
+        processChain: ProcessChain,
+        state: HedgeState<RequestCard>,
+        isHedge: Boolean
+    ): Boolean {
+        val secondary = state.secondary ?: return false
+        if (state.done.get() || processChain.attachment !== state) return false
+
+        // 先计入已发起数，保证失败反馈判断「全部失败」时不会遗漏正在发起的备用请求
+        state.dispatched.incrementAndGet()
+        if (!processChain.compareAndSetStatus(
+                SECONDARY_INDEX,
+                ProcessChain.STATUS_NORMAL,
+                ProcessChain.STATUS_REQUESTING
+            )
+        ) {
+            state.dispatched.decrementAndGet()
+            return false
+        }
+        if (isHedge) {
+            state.hedged = true
+            hedgeCount.incrementAndGet()
+        }
+        secondary.request(state.card)
+        return true
+    }
+
+    /**
+     * 按先到先得处理，反馈来源通过 [DataSource.SourceCallback] 区分：
+     * 1. 成功，完成全部流程并反馈，对冲后取消落败的请求
+     * 2. 失败，已发起的请求全部失败且无备用请求可发起，反馈失败
+     * 3. 失败，备用请求尚未发起，完成主请求流程，由代理继续调度备用请求
+     *
+     * 主请求每次完成（含对冲后）均记录耗时，避免只记录对冲延迟内完成的样本而使自适应延迟持续偏小。
+     */
+    override fun <ResponseModel> handleCallbackStrategy(
+        processChain: ProcessChain,
+        callback: DataSource.Callback<ResponseModel>?,
+        model: ResponseModel?,
+        message: String?,
+        isSuccess: Boolean
+    ): Boolean {
+        val state = processChain.attachment as? HedgeState<*> ?: return false
+        val source = (callback as? DataSource.SourceCallback)?.getRequestType() ?: 0
+        if (source == primaryType) {
+            completePrimary(state)
+        }
+        // 已反馈，或流程已被外部完成（如超过截止时长）
+        if (state.done.get() || processChain.isAllCompleted()) {
+            return false
+        }
+
+        if (isSuccess) {
+            if (!state.done.compareAndSet(false, true)) {
+                return false
+            }
+            finish(processChain, state)
+            // 对冲后两个请求都已发起，取消落败的请求
+            if (state.hedged) {
+                cancelLoser(state, source)
+            }
+            handleCallback(callback, model, message, true)
+            return true
+        }
+
+        val failed = state.failed.incrementAndGet()
+        val secondaryPending = state.secondary != null &&
+                processChain.getStatus(SECONDARY_INDEX) == ProcessChain.STATUS_NORMAL
+        if (!secondaryPending && failed >= state.dispatched.get()) {
+            if (!state.done.compareAndSet(false, true)) {
+                return false
+            }
+            finish(processChain, state)
+            handleCallback(callback, model, message, false)
+            return true
+        }
+
+        // 完成主请求流程，进入备用请求流程
+        if (processChain.getProgress() == PRIMARY_INDEX) {
+            processChain.compareAndSetCurrentStatus(
+                ProcessChain.STATUS_REQUESTING,
+                ProcessChain.STATUS_COMPLETED
+            )
+        }
+        return true
+    }
+
+    /**
+     * 取消落败的请求，备用请求胜出时主请求以已耗时记录（实际耗时不小于该值）；
+     * 来源未知则取消全部请求，已完成的请求取消无副作用
+     */
+    private fun cancelLoser(state: HedgeState<*>, winner: Int) {
+        if (winner != primaryType) {
+            completePrimary(state)
+            state.primary?.onCancel()
+        }
+        if (winner != secondaryType) {
+            state.secondary?.onCancel()
+        }
+    }
+
+    /**
+     * 主请求完成，每次执行只记录一次耗时
+     */
+    private fun completePrimary(state: HedgeState<*>) {
+        if (state.primary == null || !state.primaryCompleted.compareAndSet(false, true)) return
+        recordPrimaryLatency(System.nanoTime() - state.startNanos)
+    }
+
+    /**
+     * 完成全部流程，取消尚未触发的对冲
+     */
+    private fun finish(processChain: ProcessChain, state: HedgeState<*>) {
+        state.future?.cancel(false)
+        processChain.updateAllStatusToCompleted()
+    }
+
+    /**
+     * 记录主请求耗时，自适应时每累计 [REFRESH_INTERVAL] 个样本刷新一次对冲延迟
+     */
+    private fun recordPrimaryLatency(nanos: Long) {
+        primaryLatency.record(nanos)
+        if (!adaptive) return
+        if (sampleCount.incrementAndGet() % REFRESH_INTERVAL != 0L) return
+        val snapshot = primaryLatency.snapshot()
+        if (snapshot.count < minSamples) return
+        currentDelayNanos = snapshot.percentileNanos(percentile)
+            .coerceIn(minDelayNanos, maxDelayNanos)
+    }
+
+    /**
+     * 对冲触发次数
+     */
+    fun getHedgeCount(): Long = hedgeCount.get()
+
+    /**
+     * 请求次数
+     */
+    fun getRequestCount(): Long = requestCount.get()
+
+    /**
+     * 当前对冲延迟，毫秒
+     */
+    fun getHedgeDelayMillis(): Long = TimeUnit.NANOSECONDS.toMillis(currentDelayNanos)
+
+    /**
+     * 主请求耗时快照
+     */
+    fun getPrimaryLatency(): LatencyHistogram.Snapshot = primaryLatency.snapshot()
+
+    /**
+     * 重置计数与耗时样本，对冲延迟恢复为默认值
+     */
+    fun resetCounters() {
+        requestCount.set(0)
+        hedgeCount.set(0)
+        primaryLatency.reset()
+        sampleCount.set(0)
+        currentDelayNanos = hedgeDelayNanos
+    }
+
+    /**
+     * 单次流程执行的对冲状态，保存在流程链的附加状态中
+     */
+    private class HedgeState<RequestCard>(
+        val primary: Request<RequestCard>?,
+        val secondary: Request<RequestCard>?,
+        val card: RequestCard?
+    ) {
+        val startNanos = System.nanoTime()
+
+        // 是否已产生最终反馈
+        val done = AtomicBoolean()
+
+        // 已发起的请求数
+        val dispatched = AtomicInteger()
+
+        // 已失败的请求数
+        val failed = AtomicInteger()
+
+        // 主请求是否已记录耗时
+        val primaryCompleted = AtomicBoolean()
+
+        // 是否已触发对冲
+        @Volatile
+        var hedged = false
+
+        // 对冲定时任务
+        @Volatile
+        var future: ScheduledFuture<*>? = null
+    }
+
+    class Builder {
+        internal var primaryType = StrategyConfig.REQUEST.TYPE_REMOTE_REQUEST
+        internal var secondaryType = StrategyConfig.REQUEST.TYPE_LOCAL_REQUEST
+        internal var hedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_HEDGE_DELAY_MILLIS)
+        internal var adaptive = false
+        internal var percentile = DEFAULT_PERCENTILE
+        internal var minSamples = DEFAULT_MIN_SAMPLES
+        internal var minDelayNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_MIN_DELAY_MILLIS)
+        internal var maxDelayNanos = TimeUnit.SECONDS.toNanos(DEFAULT_MAX_DELAY_SECONDS)
+
+        /**
+         * 主请求类型，默认网络请求
+         */
+        fun primary(requestType: Int) = apply {
+            this.primaryType = requestType
+        }
+
+        /**
+         * 备用请求类型，默认本地请求
+         */
+        fun secondary(requestType: Int) = apply {
+            this.secondaryType = requestType
+        }
+
+        /**
+         * 固定对冲延迟，自适应时作为样本不足时的默认值
+         */
+        fun hedgeDelay(delay: Long, unit: TimeUnit) = apply {
+            require(delay >= 0) { "delay < 0" }
+            this.hedgeDelayNanos = unit.toNanos(delay)
+        }
+
+        /**
+         * 根据主请求已观测到的耗时百分位自适应对冲延迟
+         *
+         * @param percentile 百分位，取值 0 ~ 100，默认 95
+         * @param minSamples 样本数达到该值才启用自适应延迟
+         */
+        @JvmOverloads
+        fun adaptive(
+            percentile: Double = DEFAULT_PERCENTILE,
+            minSamples: Int = DEFAULT_MIN_SAMPLES
+        ) = apply {
+            require(percentile > 0 && percentile <= 100) { "percentile out of range" }
+            this.adaptive = true
+            this.percentile = percentile
+            this.minSamples = minSamples
+        }
+
+        /**
+         * 自适应对冲延迟的上下限
+         */
+        fun delayBounds(min: Long, max: Long, unit: TimeUnit) = apply {
+            require(min in 0..max) { "min > max" }
+            this.minDelayNanos = unit.toNanos(min)
+            this.maxDelayNanos = unit.toNanos(max)
+        }
+
+        fun build(): HedgedStrategyHandler {
+            require(primaryType != secondaryType) { "primary == secondary" }
+            return HedgedStrategyHandler(this)
+        }
+    }
+
+    companion object {
+        private const val PRIMARY_INDEX = 0
+        private const val SECONDARY_INDEX = 1
+
+        private const val DEFAULT_HEDGE_DELAY_MILLIS = 300L
+        private const val DEFAULT_PERCENTILE = 95.0
+        private const val DEFAULT_MIN_SAMPLES = 20
+        private const val DEFAULT_MIN_DELAY_MILLIS = 10L
+        private const val DEFAULT_MAX_DELAY_SECONDS = 10L
+        private const val REFRESH_INTERVAL = 16L
+
+        // 对冲定时线程，所有对冲执行者共享
+        private val SCHEDULER by lazy {
+            ScheduledThreadPoolExecutor(1) { runnable ->
+                Thread(runnable, "rrouter-hedge").apply { isDaemon = true }
+            }.apply { removeOnCancelPolicy = true }
+        }
+    }
+}
@@ -15,8 +15,8 @@
  */
 package org.sheedon.rrouter.strategy.handler
 
-import android.util.SparseArray
 import org.sheedon.rrouter.core.DataSource
+import org.sheedon.rrouter.core.ImmutableIntMap
 import org.sheedon.rrouter.core.ProcessChain
 import org.sheedon.rrouter.core.Request
 import org.sheedon.rrouter.strategy.StrategyConfig
@@ -49,7 +49,7 @@ class NotDataToLocationStrategyHandler : BaseStrategyHandler() {
     </RequestCard> */
     override fun <RequestCard> handleRealRequestStrategy(
         processChain: ProcessChain,
-        requestStrategies: SparseArray<Request<RequestCard>>,
+        requestStrategies: ImmutableIntMap<Request<RequestCard>>,
         card: RequestCard?
     ): Boolean {
         return super.handleRealRequestStrategy(processChain, requestStrategies, card)
@@ -74,16 +74,12 @@ class NotDataToLocationStrategyHandler : BaseStrategyHandler() {
         model: ResponseModel?, message: String?,
         isSuccess: Boolean
     ): Boolean {
-
-        // 状态并非「发送中」，则反馈执行失败
-        if (processChain.getCurrentStatus() != ProcessChain.STATUS_REQUESTING) {
-            processChain.updateCurrentStatus(ProcessChain.STATUS_COMPLETED)
+        // 状态由「发送中」原子更新为「完成」，失败则说明状态并非「发送中」，反馈执行失败
+        if (!completeCurrentStatus(processChain)) {
             return false
         }
         if (isSuccess) {
             processChain.updateAllStatusToCompleted()
-        } else {
-            processChain.updateCurrentStatus(ProcessChain.STATUS_COMPLETED)
         }
         if (processChain.isAllCompleted()) {
             handleCallback(callback, model, message, isSuccess)
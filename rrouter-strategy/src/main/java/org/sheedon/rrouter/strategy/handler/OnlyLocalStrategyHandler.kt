@@ -15,8 +15,8 @@
  */
 package org.sheedon.rrouter.strategy.handler
 
-import android.util.SparseArray
 import org.sheedon.rrouter.core.DataSource
+import org.sheedon.rrouter.core.ImmutableIntMap
 import org.sheedon.rrouter.core.ProcessChain
 import org.sheedon.rrouter.core.Request
 import org.sheedon.rrouter.strategy.StrategyConfig
@@ -49,7 +49,7 @@ class OnlyLocalStrategyHandler : BaseStrategyHandler() {
     </RequestCard> */
     override fun <RequestCard> handleRealRequestStrategy(
         processChain: ProcessChain,
-        requestStrategies: SparseArray<Request<RequestCard>>,
+        requestStrategies: ImmutableIntMap<Request<RequestCard>>,
         card: RequestCard?
     ): Boolean {
         return super.handleRealRequestStrategy(processChain, requestStrategies, card)
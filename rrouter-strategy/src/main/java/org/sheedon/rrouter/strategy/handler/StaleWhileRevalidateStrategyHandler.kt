@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.strategy.handler
+
+import org.sheedon.rrouter.core.CardFingerprints
+import org.sheedon.rrouter.core.DataSource
+import org.sheedon.rrouter.core.ImmutableIntMap
+import org.sheedon.rrouter.core.ProcessChain
+import org.sheedon.rrouter.core.Request
+import org.sheedon.rrouter.strategy.StrategyConfig
+import org.sheedon.rrouter.strategy.cache.CacheRequest
+import java.util.concurrent.TimeUnit
+
+/**
+ * 过期重验证（stale-while-revalidate）
+ * 1. 缓存命中且未超过 [Builder.maxAge]，直接反馈，不再请求
+ * 2. 缓存命中但已过期，或缓存未命中但本地有数据，先以过期数据反馈，再请求远程（网络）刷新
+ * 3. 远程数据与已反馈数据不一致（按 [CardFingerprints.keyOf] 比较）才再次反馈，未反馈过则直接反馈，
+ *    结果model未实现 equals 且无指纹则视为不一致
+ *
+ * 缓存的写入时间即为数据新鲜度，只有远程请求成功的结果写入缓存。
+ * 反馈监听器实现 [DataSource.FreshnessCallback] 可区分过期数据与最新数据。
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/17 11:40 下午
+ */
+class StaleWhileRevalidateStrategyHandler private constructor(
+    builder: Builder
+) : BaseStrategyHandler() {
+
+    // 缓存有效时长
+    private val maxAgeNanos = builder.maxAgeNanos
+
+    constructor() : this(Builder())
+
+    /**
+     * 请求流程，缓存 -> 本地 -> 网络
+     */
+    override fun loadRequestProcess(): IntArray {
+        return intArrayOf(
+            StrategyConfig.REQUEST.TYPE_CACHE_REQUEST,
+            StrategyConfig.REQUEST.TYPE_LOCAL_REQUEST,
+            StrategyConfig.REQUEST.TYPE_REMOTE_REQUEST
+        )
+    }
+
+    /**
+     * 不存在的请求直接跳过，执行缓存请求前记录缓存已写入的时长
+     */
+    override fun <RequestCard> handleRealRequestStrategy(
+        processChain: ProcessChain,
+        requestStrategies: ImmutableIntMap<Request<RequestCard>>,
+        card: RequestCard?
+    ): Boolean {
+        val state = processChain.attachment as? SwrState
+            ?: SwrState().also { processChain.attachment = it }
+
+        while (!processChain.isAllCompleted()) {
+            val requestType = processChain.getProcess()
+            val request = requestStrategies[requestType]
+            if (request != null) {
+                val cacheRequest = Request.unwrap(request)
+                if (cacheRequest is CacheRequest<*, *>) {
+                    @Suppress("UNCHECKED_CAST")
+                    state.cacheAge = (cacheRequest as CacheRequest<RequestCard, *>).ageOf(card)
+                }
+                return super.handleRealRequestStrategy(processChain, requestStrategies, card)
+            }
+            if (!processChain.compareAndSetCurrentStatus(
+                    ProcessChain.STATUS_NORMAL,
+                    ProcessChain.STATUS_COMPLETED
+                )
+            ) {
+                return false
+            }
+        }
+        return false
+    }
+
+    /**
+     * 类型为过期重验证请求 [StrategyConfig.STRATEGY.TYPE_STALE_WHILE_REVALIDATE]，
+     * 当前进度为 [ProcessChain.STATUS_REQUESTING]，则执行反馈操作
+     *
+     * @param processChain    流程链
+     * @param callback        反馈监听
+     * @param model           结果model
+     * @param message         描述信息
+     * @param isSuccess       是否请求成功
+     * @param <ResponseModel> 结果model类型
+     * @return 是否处理成功
+    </ResponseModel> */
+    override fun <ResponseModel> handleRealCallbackStrategy(
+        processChain: ProcessChain,
+        callback: DataSource.Callback<ResponseModel>?,
+        model: ResponseModel?, message: String?,
+        isSuccess: Boolean
+    ): Boolean {
+        val state = processChain.attachment as? SwrState ?: return false
+        val requestType = processChain.getProcess()
+
+        // 状态由「发送中」原子更新为「完成」，失败则说明状态并非「发送中」，反馈执行失败
+        if (!completeCurrentStatus(processChain)) {
+            return false
+        }
+
+        when (requestType) {
+            StrategyConfig.REQUEST.TYPE_CACHE_REQUEST -> {
+                if (!isSuccess) return true
+                // 缓存新鲜，直接反馈
+                if (state.cacheAge in 0 until maxAgeNanos) {
+                    processChain.updateAllStatusToCompleted()
+                    deliver(state, callback, model, false)
+                    return true
+                }
+                // 缓存过期，先反馈，跳过本地直接刷新
+                processChain.compareAndSetCurrentStatus(
+                    ProcessChain.STATUS_NORMAL,
+                    ProcessChain.STATUS_COMPLETED
+                )
+                deliver(state, callback, model, true)
+                return true
+            }
+            StrategyConfig.REQUEST.TYPE_LOCAL_REQUEST -> {
+                if (isSuccess) {
+                    deliver(state, callback, model, true)
+                }
+                return true
+            }
+        }
+
+        // 远程反馈，流程结束
+        processChain.updateAllStatusToCompleted()
+        if (!isSuccess) {
+            if (!state.delivered) {
+                handleCallback(callback, model, message, false)
+            }
+            return true
+        }
+        if (!state.delivered || CardFingerprints.keyOf(model) != state.deliveredKey) {
+            deliver(state, callback, model, false)
+        }
+        return true
+    }
+
+    /**
+     * 反馈数据并记录，反馈监听器实现 [DataSource.FreshnessCallback] 则附带新鲜度标记
+     */
+    private fun <ResponseModel> deliver(
+        state: SwrState,
+        callback: DataSource.Callback<ResponseModel>?,
+        model: ResponseModel?,
+        isStale: Boolean
+    ) {
+        state.delivered = true
+        state.deliveredKey = CardFingerprints.keyOf(model)
+        if (callback is DataSource.FreshnessCallback) {
+            callback.onDataLoaded(model, isStale)
+        } else {
+            callback?.onDataLoaded(model)
+        }
+    }
+
+    /**
+     * 缓存有效时长，毫秒
+     */
+    fun getMaxAgeMillis(): Long = TimeUnit.NANOSECONDS.toMillis(maxAgeNanos)
+
+    /**
+     * 单次流程执行的状态
+     */
+    private class SwrState {
+        // 缓存已写入时长，纳秒，未命中为 -1
+        @Volatile
+        var cacheAge = -1L
+
+        // 是否已反馈数据
+        @Volatile
+        var delivered = false
+
+        // 已反馈数据的比较键
+        @Volatile
+        var deliveredKey: Any? = null
+    }
+
+    class Builder {
+        internal var maxAgeNanos = TimeUnit.SECONDS.toNanos(DEFAULT_MAX_AGE_SECONDS)
+
+        /**
+         * 缓存有效时长，未超过则直接反馈缓存，不再刷新
+         */
+        fun maxAge(maxAge: Long, unit: TimeUnit) = apply {
+            if (maxAge < 0) {
+                throw IllegalArgumentException("maxAge < 0")
+            }
+            this.maxAgeNanos = unit.toNanos(maxAge)
+        }
+
+        fun build(): StaleWhileRevalidateStrategyHandler {
+            return StaleWhileRevalidateStrategyHandler(this)
+        }
+    }
+
+    companion object {
+        private const val DEFAULT_MAX_AGE_SECONDS = 30L
+    }
+}
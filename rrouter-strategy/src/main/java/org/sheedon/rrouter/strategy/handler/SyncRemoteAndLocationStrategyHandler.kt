@@ -15,11 +15,12 @@
  */
 package org.sheedon.rrouter.strategy.handler
 
-import android.util.SparseArray
 import org.sheedon.rrouter.core.DataSource
+import org.sheedon.rrouter.core.ImmutableIntMap
 import org.sheedon.rrouter.core.ProcessChain
 import org.sheedon.rrouter.core.Request
 import org.sheedon.rrouter.strategy.StrategyConfig
+import org.sheedon.rrouter.strategy.breaker.CircuitBreakerRequest
 
 /**
  * 同步请求网络和本地策略执行者
@@ -29,7 +30,6 @@ import org.sheedon.rrouter.strategy.StrategyConfig
  * @Date: 2021/7/19 4:48 下午
  */
 class SyncRemoteAndLocationStrategyHandler : BaseStrategyHandler() {
-    private val lock = Any()
 
     /**
      * 请求流程，本地/网络同时访问
@@ -53,7 +53,7 @@ class SyncRemoteAndLocationStrategyHandler : BaseStrategyHandler() {
     </RequestCard> */
     override fun <RequestCard> handleRealRequestStrategy(
         processChain: ProcessChain,
-        requestStrategies: SparseArray<Request<RequestCard>>,
+        requestStrategies: ImmutableIntMap<Request<RequestCard>>,
         card: RequestCard?
     ): Boolean {
         // 拿到当前进度对应的请求
@@ -65,13 +65,21 @@ class SyncRemoteAndLocationStrategyHandler : BaseStrategyHandler() {
             return false
         }
 
-        // 状态并非「未发送」，则请求失败
+        // 状态并非「未发送」，仍有请求中的流程则等待其反馈，否则请求失败
         if (processChain.getStatus(0) != ProcessChain.STATUS_NORMAL
             && processChain.getStatus(1) != ProcessChain.STATUS_NORMAL
         ) {
+            if (processChain.indexOfStatus(ProcessChain.STATUS_REQUESTING) >= 0) {
+                return true
+            }
             processChain.updateCurrentStatus(ProcessChain.STATUS_COMPLETED)
             return false
         }
+        // 熔断打开且存在本地请求，跳过远程请求
+        val breakerRequest = Request.unwrap(netRequest)
+        if (localRequest != null && breakerRequest is CircuitBreakerRequest<*, *> && !breakerRequest.tryAcquire()) {
+            processChain.compareAndSetStatus(1, ProcessChain.STATUS_NORMAL, ProcessChain.STATUS_COMPLETED)
+        }
         request(localRequest, processChain, 0, card)
         request(netRequest, processChain, 1, card)
         return true
@@ -91,9 +99,11 @@ class SyncRemoteAndLocationStrategyHandler : BaseStrategyHandler() {
         processChain: ProcessChain, index: Int,
         requestCard: RequestCard?
     ) {
-        if (request != null && processChain.getStatus(index) == ProcessChain.STATUS_NORMAL) {
-            // 请求任务
-            processChain.updateOfIndex(index, ProcessChain.STATUS_REQUESTING)
+        // 状态由「未发送」原子更新为「请求中」成功，才执行请求任务
+        if (request != null && processChain.compareAndSetStatus(
+                index, ProcessChain.STATUS_NORMAL, ProcessChain.STATUS_REQUESTING
+            )
+        ) {
             request.request(requestCard)
         }
     }
@@ -126,6 +136,8 @@ class SyncRemoteAndLocationStrategyHandler : BaseStrategyHandler() {
     /**
      * 类型为并行请求 [StrategyConfig.STRATEGY.TYPE_SYNC_REMOTE_AND_LOCATION]，
      * 两者都是完成，则反馈失败，状态为提交中，则返回数据
+     * 状态流转基于流程链的原子更新，不同流程链的反馈互不阻塞，
+     * 优先完成反馈来源对应的流程，使各流程的超时作用于仍在执行的请求
      *
      * @param processChain    流程链
      * @param callback        反馈监听
@@ -141,18 +153,18 @@ class SyncRemoteAndLocationStrategyHandler : BaseStrategyHandler() {
         model: ResponseModel?, message: String?,
         isSuccess: Boolean
     ): Boolean {
-        synchronized(lock) {
-            return if (handleCallback(
-                    processChain, 0, callback,
-                    model, message, isSuccess
-                )
-            ) {
-                true
-            } else handleCallback(
-                processChain, 1, callback,
+        val requestType = (callback as? DataSource.SourceCallback)?.getRequestType() ?: 0
+        val first = if (requestType != 0 && processChain.getProcess(1) == requestType) 1 else 0
+        return if (handleCallback(
+                processChain, first, callback,
                 model, message, isSuccess
             )
-        }
+        ) {
+            true
+        } else handleCallback(
+            processChain, 1 - first, callback,
+            model, message, isSuccess
+        )
     }
 
     /**
@@ -173,8 +185,10 @@ class SyncRemoteAndLocationStrategyHandler : BaseStrategyHandler() {
         responseModel: ResponseModel?, message: String?,
         isSuccess: Boolean
     ): Boolean {
-        if (processChain.getStatus(index) == ProcessChain.STATUS_REQUESTING) {
-            processChain.updateOfIndex(index, ProcessChain.STATUS_COMPLETED)
+        if (processChain.compareAndSetStatus(
+                index, ProcessChain.STATUS_REQUESTING, ProcessChain.STATUS_COMPLETED
+            )
+        ) {
             handleCallback(callback, responseModel, message, isSuccess)
             return true
         }
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2022 Sheedon.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sheedon.rrouter.strategy.breaker
+
+import org.junit.Assert.assertEquals
+import org.junit.BeforeClass
+import org.junit.Test
+import org.sheedon.rrouter.core.AbstractRequestProxy
+import org.sheedon.rrouter.core.ConfigRepository
+import org.sheedon.rrouter.core.DataSource
+import org.sheedon.rrouter.core.IRspModel
+import org.sheedon.rrouter.core.RRouter
+import org.sheedon.rrouter.core.Request
+import org.sheedon.rrouter.core.StrategyCallback
+import org.sheedon.rrouter.strategy.BaseRequestStrategyFactory
+import org.sheedon.rrouter.strategy.StrategyConfig
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * 远程请求超时被取消时计为熔断器的失败，主动取消则不计入统计
+ *
+ * @Author: sheedon
+ * @Email: sheedonsun@163.com
+ * @Date: 2026/10/18 9:40 上午
+ */
+class CircuitBreakerTimeoutTest {
+
+    private class Rsp(private val value: String) : IRspModel<String> {
+        override fun loadCode(): Any = 0
+        override fun loadData(): String = value
+        override fun checkSuccess() = true
+        override fun loadMessage(): String = value
+    }
+
+    /**
+     * 不反馈的远程请求
+     */
+    private class HungRequest : Request<String> {
+        val cancels = AtomicInteger()
+
+        override fun request(requestCard: String?) {}
+        override fun onRequestType() = StrategyConfig.REQUEST.TYPE_REMOTE_REQUEST
+        override fun onCancel() {
+            cancels.incrementAndGet()
+        }
+
+        override fun onDestroy() {}
+    }
+
+    private class Factory(private val breaker: CircuitBreaker) : BaseRequestStrategyFactory<String, Rsp>() {
+        val remote = HungRequest()
+
+        override fun onCreateRealRemoteRequestStrategy(callback: StrategyCallback<Rsp>?): Request<String> = remote
+        override fun onCreateRealLocalRequestStrategy(callback: StrategyCallback<Rsp>?): Request<String>? = null
+        override fun onLoadCircuitBreaker() = breaker
+        override fun onLoadRequestStrategyType() = StrategyConfig.STRATEGY.TYPE_ONLY_REMOTE
+    }
+
+    private class Proxy(
+        factory: Factory, callback: DataSource.Callback<Rsp>
+    ) : AbstractRequestProxy<String, Rsp>(factory, callback) {
+        override fun onCreateRequestCard() = "card"
+    }
+
+    private class Results : DataSource.Callback<Rsp> {
+        val messages = ArrayBlockingQueue<String>(16)
+
+        override fun onDataLoaded(t: Rsp?) {
+            messages.add("ok")
+        }
+
+        override fun onDataNotAvailable(message: String?) {
+            messages.add(message.toString())
+        }
+
+        fun next(): String? = messages.poll(2, TimeUnit.SECONDS)
+    }
+
+    private fun breaker() = CircuitBreaker.Builder()
+        .windowSize(4)
+        .minimumCalls(4)
+        .build("timeout")
+
+    @Test
+    fun timeoutsOpenBreaker() {
+        val breaker = breaker()
+        val factory = Factory(breaker)
+        val results = Results()
+        val proxy = Proxy(factory, results)
+
+        repeat(4) {
+            proxy.request()
+            assertEquals(AbstractRequestProxy.MESSAGE_REQUEST_TIMEOUT, results.next())
+        }
+        assertEquals(4, factory.remote.cancels.get())
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState())
+
+        // 打开后不再请求远程
+        proxy.request()
+        assertEquals(CircuitBreakerRequest.MESSAGE_OPEN, results.next())
+        assertEquals(4, factory.remote.cancels.get())
+        proxy.onDestroy()
+    }
+
+    @Test
+    fun deadlineCountsAsFailure() {
+        val breaker = breaker()
+        val results = Results()
+        val proxy = Proxy(Factory(breaker), results)
+
+        repeat(4) {
+            proxy.request(10, TimeUnit.MILLISECONDS)
+            assertEquals(AbstractRequestProxy.MESSAGE_DEADLINE_EXCEEDED, results.next())
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState())
+        proxy.onDestroy()
+    }
+
+    @Test
+    fun cancelIsNotCounted() {
+        val breaker = breaker()
+        val factory = Factory(breaker)
+        val proxy = Proxy(factory, Results())
+
+        repeat(4) {
+            proxy.request()
+            proxy.cancel()
+        }
+        assertEquals(4, factory.remote.cancels.get())
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState())
+        assertEquals(-1f, breaker.getFailureRate(), 0f)
+        proxy.onDestroy()
+    }
+
+    companion object {
+
+        @BeforeClass
+        @JvmStatic
+        fun setUp() {
+            if (RRouter.isInstalled()) return
+            RRouter.setUp(
+                ConfigRepository.Builder()
+                    .strategyArray(StrategyConfig.strategyHandlerArray)
+                    .requestTimeout(StrategyConfig.REQUEST.TYPE_REMOTE_REQUEST, 50, TimeUnit.MILLISECONDS)
+                    .build()
+            )
+        }
+    }
+}